@@ -0,0 +1,28 @@
+package com.inditex.product.benchmark;
+
+import com.inditex.product.domain.model.ProductDetails;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static ProductDetails product(String id) {
+        return new ProductDetails(id, "Product " + id, 19.99 + id.length(), id.hashCode() % 2 == 0);
+    }
+
+    static List<String> ids(int size) {
+        return IntStream.rangeClosed(1, size)
+                .mapToObj(String::valueOf)
+                .toList();
+    }
+
+    static List<ProductDetails> products(int size) {
+        return ids(size).stream()
+                .map(BenchmarkData::product)
+                .toList();
+    }
+}
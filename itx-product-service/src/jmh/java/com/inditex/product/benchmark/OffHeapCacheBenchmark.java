@@ -0,0 +1,145 @@
+package com.inditex.product.benchmark;
+
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.infrastructure.adapters.cache.CacheEntry;
+import com.inditex.product.infrastructure.adapters.cache.CacheEntryExpiryPolicy;
+import com.inditex.product.infrastructure.adapters.cache.ProductDetailsEntrySerializer;
+import com.inditex.product.infrastructure.adapters.cache.SimilarProductIds;
+import com.inditex.product.infrastructure.adapters.cache.SimilarProductIdsEntrySerializer;
+import org.ehcache.impl.serialization.PlainJavaSerializer;
+import org.ehcache.spi.serialization.Serializer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.Configuration;
+import java.util.concurrent.TimeUnit;
+
+import static com.inditex.product.infrastructure.adapters.config.CacheConfig.CACHE_PRODUCT;
+import static com.inditex.product.infrastructure.adapters.config.CacheConfig.CACHE_PRODUCT_LIST;
+import static org.ehcache.config.builders.CacheConfigurationBuilder.newCacheConfigurationBuilder;
+import static org.ehcache.config.builders.ResourcePoolsBuilder.newResourcePoolsBuilder;
+import static org.ehcache.config.units.MemoryUnit.MB;
+import static org.ehcache.jsr107.Eh107Configuration.fromEhcacheCacheConfiguration;
+
+/**
+ * Put and get of product details and similar product ids in off-heap Ehcache caches configured like the application
+ * ones (event listeners aside), so every operation pays the value (de)serialization. {@code serializer} compares the
+ * compact serializers the application uses with Java serialization, the bytes per entry of both are reported as the
+ * {@code productBytes} and {@code listBytes} secondary results of every benchmark ({@link EntrySize}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class OffHeapCacheBenchmark {
+
+    private static final int KEYS = 1024;
+
+    @Param({"5", "20"})
+    private int listSize;
+    @Param({"compact", "java"})
+    private String serializer;
+
+    private CacheManager cacheManager;
+    private Cache<String, CacheEntry> productCache;
+    private Cache<String, CacheEntry> listCache;
+    private String[] keys;
+    private CacheEntry<ProductDetails> productEntry;
+    private CacheEntry<SimilarProductIds> listEntry;
+    private int next;
+    private long productBytes;
+    private long listBytes;
+
+    /**
+     * Serialized bytes of the entries, reported along with the time of every benchmark. JMH zeroes the counters after
+     * the iteration setup and adds up the ones of every measurement iteration, so they are only set on tear down of
+     * the first one.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EntrySize {
+
+        public long productBytes;
+        public long listBytes;
+        private boolean recorded;
+
+        @TearDown(Level.Iteration)
+        public void record(OffHeapCacheBenchmark benchmark, IterationParams iteration) {
+            if (!recorded && iteration.getType() == IterationType.MEASUREMENT) {
+                productBytes = benchmark.productBytes;
+                listBytes = benchmark.listBytes;
+                recorded = true;
+            }
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        long now = System.currentTimeMillis();
+        long never = now + TimeUnit.DAYS.toMillis(1);
+        productEntry = new CacheEntry<>(BenchmarkData.product("1"), now, never, never, never);
+        listEntry = new CacheEntry<>(new SimilarProductIds(BenchmarkData.ids(listSize)), now, never, never, never);
+
+        Serializer<CacheEntry> productSerializer = "java".equals(serializer)
+                ? new PlainJavaSerializer<>(getClass().getClassLoader()) : new ProductDetailsEntrySerializer();
+        Serializer<CacheEntry> listSerializer = "java".equals(serializer)
+                ? new PlainJavaSerializer<>(getClass().getClassLoader()) : new SimilarProductIdsEntrySerializer();
+        productBytes = productSerializer.serialize(productEntry).remaining();
+        listBytes = listSerializer.serialize(listEntry).remaining();
+
+        cacheManager = Caching.getCachingProvider().getCacheManager();
+        productCache = cacheManager.createCache(CACHE_PRODUCT, configuration(10, productSerializer));
+        listCache = cacheManager.createCache(CACHE_PRODUCT_LIST, configuration(20, listSerializer));
+
+        keys = BenchmarkData.ids(KEYS).toArray(String[]::new);
+        for (String key : keys) {
+            productCache.put(key, productEntry);
+            listCache.put(key, listEntry);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        cacheManager.close();
+    }
+
+    @Benchmark
+    public void putProductDetails(EntrySize size) {
+        productCache.put(nextKey(), productEntry);
+    }
+
+    @Benchmark
+    public CacheEntry getProductDetails(EntrySize size) {
+        return productCache.get(nextKey());
+    }
+
+    @Benchmark
+    public void putList(EntrySize size) {
+        listCache.put(nextKey(), listEntry);
+    }
+
+    @Benchmark
+    public CacheEntry getList(EntrySize size) {
+        return listCache.get(nextKey());
+    }
+
+    // Single threaded benchmarks, no need to synchronize
+    private String nextKey() {
+        next = (next + 1) & (KEYS - 1);
+        return keys[next];
+    }
+
+    private static Configuration<String, CacheEntry> configuration(long offHeapMb, Serializer<CacheEntry> valueSerializer) {
+        return fromEhcacheCacheConfiguration(newCacheConfigurationBuilder(String.class, CacheEntry.class,
+                newResourcePoolsBuilder().offheap(offHeapMb, MB).build())
+                .withExpiry(new CacheEntryExpiryPolicy())
+                .withValueSerializer(valueSerializer));
+    }
+}
@@ -0,0 +1,46 @@
+package com.inditex.product.benchmark;
+
+import com.inditex.product.domain.model.ProductDetails;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a product from the upstream JSON and building the response body out of the similar products, with the same
+ * (Jackson 3) JSON mapper Spring MVC uses. The domain records are read and written as they are, there is no mapping
+ * to DTOs. Run it with {@code -prof gc} for the allocations per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseMappingBenchmark {
+
+    @Param({"5", "50"})
+    private int size;
+
+    private List<ProductDetails> products;
+    private byte[] upstreamProduct;
+    private JsonMapper jsonMapper;
+
+    @Setup
+    public void setUp() {
+        products = BenchmarkData.products(size);
+        jsonMapper = JsonMapper.builder().build();
+        upstreamProduct = jsonMapper.writeValueAsBytes(products.get(0));
+    }
+
+    @Benchmark
+    public ProductDetails readUpstreamProduct() {
+        return jsonMapper.readValue(upstreamProduct, ProductDetails.class);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return jsonMapper.writeValueAsBytes(products);
+    }
+}
@@ -0,0 +1,112 @@
+package com.inditex.product.benchmark;
+
+import com.inditex.product.application.service.ProductService;
+import com.inditex.product.application.usecase.ProductServiceFixture;
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.domain.model.ports.output.SimilarProducts;
+import com.inditex.product.infrastructure.adapters.cache.ProductDetailsCache;
+import com.inditex.product.infrastructure.adapters.cache.SimilarProductsCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.inditex.product.infrastructure.adapters.config.CacheConfig.CACHE_PRODUCT;
+import static com.inditex.product.infrastructure.adapters.config.CacheConfig.CACHE_PRODUCT_LIST;
+
+/**
+ * {@link ProductService#getSimilarProducts(String)} against a stubbed port answering after {@code latencyMillis}.
+ * <ul>
+ *     <li>{@code fanOut}: number of similar products</li>
+ *     <li>{@code maxConcurrency}: per request fan-out cap, 1 looks them up sequentially</li>
+ *     <li>{@code cache}: {@code cold} empties the caches before every call, {@code warm} serves everything from them</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class SimilarProductsBenchmark {
+
+    private static final String PRODUCT_ID = "1";
+
+    @Param({"0", "2"})
+    private long latencyMillis;
+    @Param({"5", "20"})
+    private int fanOut;
+    @Param({"1", "8"})
+    private int maxConcurrency;
+    @Param({"cold", "warm"})
+    private String cache;
+
+    private ExecutorService executor;
+    private SimilarProductsCache similarProductsCache;
+    private ProductDetailsCache productDetailsCache;
+    private ProductService productService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(50);
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CACHE_PRODUCT_LIST, CACHE_PRODUCT);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        similarProductsCache = new SimilarProductsCache(cacheManager, meterRegistry, Runnable::run,
+                500, 300_000, 3_600_000, 0.8, 0, 0);
+        productDetailsCache = new ProductDetailsCache(cacheManager, meterRegistry, Runnable::run,
+                1000, 300_000, 7_200_000, 0.8, 0, 0);
+        productService = new ProductService(new StubSimilarProducts(BenchmarkData.ids(fanOut), latencyMillis),
+                similarProductsCache, productDetailsCache, executor, meterRegistry,
+                ProductServiceFixture.properties(Map.of("fanout.max.concurrency", maxConcurrency)));
+    }
+
+    @Setup(Level.Invocation)
+    public void clearCaches() {
+        if ("cold".equals(cache)) {
+            similarProductsCache.clear();
+            productDetailsCache.clear();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public List<ProductDetails> getSimilarProducts() {
+        return productService.getSimilarProducts(PRODUCT_ID);
+    }
+
+    private record StubSimilarProducts(List<String> similarIds, long latencyMillis) implements SimilarProducts {
+
+        @Override
+        public List<String> getSimilarProductIds(String productId) {
+            sleep();
+            return similarIds;
+        }
+
+        @Override
+        public ProductDetails getProductById(String productId) {
+            sleep();
+            return BenchmarkData.product(productId);
+        }
+
+        private void sleep() {
+            if (latencyMillis <= 0) {
+                return;
+            }
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted", e);
+            }
+        }
+    }
+}
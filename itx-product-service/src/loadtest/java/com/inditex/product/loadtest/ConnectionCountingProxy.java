@@ -0,0 +1,119 @@
+package com.inditex.product.loadtest;
+
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TCP proxy in front of the upstream stub counting the connections the service opens to it: opened since the last
+ * reset and the most open at once. Bytes are copied as they are in both directions, so it is transparent to the
+ * protocol (HTTP/1.1 or HTTP/2). Each direction of a connection is copied by its own thread, a virtual one on JDK 21+.
+ */
+final class ConnectionCountingProxy {
+
+    private final ServerSocket serverSocket;
+    private final int targetPort;
+    private final ThreadFactory threadFactory;
+    private final LongAdder opened = new LongAdder();
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+
+    private ConnectionCountingProxy(ServerSocket serverSocket, int targetPort) {
+        this.serverSocket = serverSocket;
+        this.targetPort = targetPort;
+        this.threadFactory = proxyThreads();
+    }
+
+    static ConnectionCountingProxy start(int targetPort) throws IOException {
+        ConnectionCountingProxy proxy = new ConnectionCountingProxy(
+                new ServerSocket(0, 1000, InetAddress.getLoopbackAddress()), targetPort);
+        proxy.threadFactory.newThread(proxy::accept).start();
+        return proxy;
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    void reset() {
+        opened.reset();
+        peak.set(open.get());
+    }
+
+    long opened() {
+        return opened.sum();
+    }
+
+    int peak() {
+        return peak.get();
+    }
+
+    void stop() throws IOException {
+        serverSocket.close();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                Socket target = new Socket(InetAddress.getLoopbackAddress(), targetPort);
+                client.setTcpNoDelay(true);
+                target.setTcpNoDelay(true);
+                opened.increment();
+                peak.accumulateAndGet(open.incrementAndGet(), Math::max);
+                AtomicInteger directions = new AtomicInteger(2);
+                threadFactory.newThread(() -> copy(client, target, directions)).start();
+                threadFactory.newThread(() -> copy(target, client, directions)).start();
+            } catch (IOException e) {
+                // Closed, or the upstream stub refused the connection
+            }
+        }
+    }
+
+    // Once either side closes both are closed, the connection is closed when both directions are done
+    private void copy(Socket from, Socket to, AtomicInteger directions) {
+        try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // Reset by either side
+        } finally {
+            closeQuietly(from);
+            closeQuietly(to);
+            if (directions.decrementAndGet() == 0) {
+                open.decrementAndGet();
+            }
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    private static ThreadFactory proxyThreads() {
+        try {
+            return new VirtualThreadTaskExecutor("proxy-").getVirtualThreadFactory();
+        } catch (UnsupportedOperationException e) {
+            CustomizableThreadFactory platformThreads = new CustomizableThreadFactory("proxy-");
+            platformThreads.setDaemon(true);
+            return platformThreads;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.inditex.product.loadtest;
+
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * k6 {@code constant-vus} executor: every virtual user requests the scenario path and sleeps {@code thinkTime} in a
+ * loop until the scenario duration is over; in-flight requests get the scenario graceful stop to finish and are
+ * interrupted (and not counted) afterwards. Virtual users run on virtual threads, on platform threads before JDK 21.
+ */
+final class LoadGenerator {
+
+    private final String baseUrl;
+    private final int vus;
+    private final Duration duration;
+    private final Duration thinkTime;
+    private final HttpClient httpClient;
+    private final ThreadFactory threadFactory;
+
+    LoadGenerator(String baseUrl, int vus, Duration duration, Duration thinkTime) {
+        this.baseUrl = baseUrl;
+        this.vus = vus;
+        this.duration = duration;
+        this.thinkTime = thinkTime;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.threadFactory = virtualUserThreads();
+    }
+
+    boolean virtualThreads() {
+        return !(threadFactory instanceof CustomizableThreadFactory);
+    }
+
+    ScenarioResult run(Scenario scenario) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + scenario.path())).GET().build();
+        Recorder recorder = new Recorder();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        List<Thread> users = new ArrayList<>(vus);
+        for (int i = 0; i < vus; i++) {
+            Thread user = threadFactory.newThread(() -> iterate(request, end, recorder));
+            user.start();
+            users.add(user);
+        }
+        long stopAt = end + scenario.gracefulStop().toNanos();
+        for (Thread user : users) {
+            user.join(Math.max(1, (stopAt - System.nanoTime()) / 1_000_000));
+        }
+        users.forEach(Thread::interrupt);
+        for (Thread user : users) {
+            user.join();
+        }
+        return recorder.result(scenario, vus, System.nanoTime() - start);
+    }
+
+    private void iterate(HttpRequest request, long end, Recorder recorder) {
+        try {
+            while (System.nanoTime() < end) {
+                long start = System.nanoTime();
+                try {
+                    HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                    recorder.record(response.statusCode(), System.nanoTime() - start);
+                } catch (IOException e) {
+                    recorder.failed();
+                }
+                Thread.sleep(thinkTime.toMillis());
+            }
+        } catch (InterruptedException e) {
+            // Graceful stop is over
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory virtualUserThreads() {
+        try {
+            return new VirtualThreadTaskExecutor("vu-").getVirtualThreadFactory();
+        } catch (UnsupportedOperationException e) {
+            CustomizableThreadFactory platformThreads = new CustomizableThreadFactory("vu-");
+            platformThreads.setDaemon(true);
+            return platformThreads;
+        }
+    }
+
+    private static final class Recorder {
+
+        private final List<long[]> latencies = new ArrayList<>();
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final LongAdder failures = new LongAdder();
+        private long[] current = new long[1024];
+        private int size;
+
+        void record(int status, long latencyNanos) {
+            statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+            synchronized (this) {
+                if (size == current.length) {
+                    latencies.add(current);
+                    current = new long[current.length];
+                    size = 0;
+                }
+                current[size++] = latencyNanos;
+            }
+        }
+
+        void failed() {
+            failures.increment();
+        }
+
+        synchronized ScenarioResult result(Scenario scenario, int vus, long elapsedNanos) {
+            long[] all = new long[latencies.size() * current.length + size];
+            int offset = 0;
+            for (long[] chunk : latencies) {
+                System.arraycopy(chunk, 0, all, offset, chunk.length);
+                offset += chunk.length;
+            }
+            System.arraycopy(current, 0, all, offset, size);
+            Map<Integer, Long> counts = new TreeMap<>();
+            statuses.forEach((status, count) -> counts.put(status, count.sum()));
+            return ScenarioResult.of(scenario, vus, all, failures.sum(), counts, elapsedNanos);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.inditex.product.loadtest;
+
+import com.inditex.product.ItxProductServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The k6 load test ({@code shared/k6/test.js}) in a single JVM: the service runs on a random port against an
+ * {@link UpstreamStub} loaded from the simulado mocks, and {@link LoadGenerator} runs the scenarios one after the
+ * other. Throughput and latency percentiles per scenario are printed and written as JSON to {@code --result}.
+ * <p>
+ * Options: {@code --mocks <file>} (required), {@code --result <file>}, {@code --vus <n>} (200),
+ * {@code --duration <seconds>s} (10s), {@code --think-time <millis>ms} (500ms),
+ * {@code --scenarios <label,...>} (all of them), {@code --mode <servlet|virtual|reactive>} (servlet, virtual
+ * being the servlet one on virtual threads) and {@code --client <apache|jdk>} (apache, the upstream client of the
+ * servlet modes).
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        UpstreamStub upstream = UpstreamStub.start(options.mocks());
+        ConfigurableApplicationContext application = new SpringApplicationBuilder(ItxProductServiceApplication.class)
+                .run("--server.port=0", "--simulado.api.host=" + upstream.baseUrl(),
+                        "--spring.main.web-application-type=" + (options.mode().equals("reactive") ? "reactive" : "servlet"),
+                        "--spring.threads.virtual.enabled=" + options.mode().equals("virtual"),
+                        "--simulado.api.client=" + options.client(),
+                        // Every run starts cold, as the k6 one against a fresh container
+                        "--product.cache.snapshot.enabled=false");
+        try {
+            String baseUrl = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+            LoadGenerator generator = new LoadGenerator(baseUrl, options.vus(), options.duration(), options.thinkTime());
+            System.out.printf("%d %s virtual users, %ds per scenario, %dms think time, %s mode, %s client%n",
+                    options.vus(), generator.virtualThreads() ? "virtual thread" : "platform thread",
+                    options.duration().toSeconds(), options.thinkTime().toMillis(), options.mode(), options.client());
+
+            List<ScenarioResult> results = new ArrayList<>();
+            for (Scenario scenario : options.scenarios()) {
+                System.out.printf("Running %s (%s)%n", scenario.label(), scenario.path());
+                upstream.connections().reset();
+                results.add(generator.run(scenario).withUpstreamConnections(upstream.connections().opened(),
+                        upstream.connections().peak()));
+            }
+            print(results);
+            write(results, options.result());
+        } finally {
+            application.close();
+            upstream.stop();
+        }
+    }
+
+    private static void print(List<ScenarioResult> results) {
+        System.out.printf("%n%-10s %9s %8s %10s %9s %9s %9s %9s %7s %7s  %s%n", "scenario", "requests", "failures",
+                "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "conns", "peak", "statuses");
+        for (ScenarioResult result : results) {
+            System.out.printf("%-10s %9d %8d %10.1f %9.1f %9.1f %9.1f %9.1f %7d %7d  %s%n", result.scenario(),
+                    result.requests(), result.failures(), result.throughput(),
+                    result.p50(), result.p95(), result.p99(), result.max(),
+                    result.upstreamConnections(), result.peakUpstreamConnections(), result.statuses());
+        }
+    }
+
+    private static void write(List<ScenarioResult> results, Path result) throws Exception {
+        if (result == null) {
+            return;
+        }
+        if (result.getParent() != null) {
+            Files.createDirectories(result.getParent());
+        }
+        JsonMapper.builder().enable(SerializationFeature.INDENT_OUTPUT).build()
+                .writeValue(result.toFile(), Map.of("scenarios", results));
+        System.out.printf("%nResults written to %s%n", result);
+    }
+
+    private record Options(Path mocks, Path result, int vus, Duration duration, Duration thinkTime,
+                           List<Scenario> scenarios, String mode, String client) {
+
+        static Options parse(String[] args) {
+            Path mocks = null;
+            Path result = null;
+            int vus = 200;
+            Duration duration = Duration.ofSeconds(10);
+            Duration thinkTime = Duration.ofMillis(500);
+            List<Scenario> scenarios = List.of(Scenario.values());
+            String mode = "servlet";
+            String client = "apache";
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value of " + args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--mocks" -> mocks = Path.of(value);
+                    case "--result" -> result = Path.of(value);
+                    case "--vus" -> vus = Integer.parseInt(value);
+                    case "--duration" -> duration = Duration.ofSeconds(Long.parseLong(strip(value, "s")));
+                    case "--think-time" -> thinkTime = Duration.ofMillis(Long.parseLong(strip(value, "ms")));
+                    case "--scenarios" -> scenarios = Arrays.stream(value.split(",")).map(Scenario::fromLabel).toList();
+                    case "--mode" -> mode = value;
+                    case "--client" -> client = value;
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (mocks == null) {
+                throw new IllegalArgumentException("Missing --mocks");
+            }
+            return new Options(mocks, result, vus, duration, thinkTime, scenarios, mode, client);
+        }
+
+        private static String strip(String value, String unit) {
+            return value.endsWith(unit) ? value.substring(0, value.length() - unit.length()) : value;
+        }
+    }
+}
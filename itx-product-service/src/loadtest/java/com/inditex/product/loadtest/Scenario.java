@@ -0,0 +1,46 @@
+package com.inditex.product.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * The scenarios of {@code shared/k6/test.js}, in the order k6 runs them. {@code gracefulStop} is how long in-flight
+ * requests may take to finish once the scenario duration is over.
+ */
+enum Scenario {
+
+    NORMAL("normal", "1", Duration.ZERO),
+    NOT_FOUND("notFound", "4", Duration.ZERO),
+    ERROR("error", "5", Duration.ZERO),
+    SLOW("slow", "2", Duration.ofSeconds(10)),
+    VERY_SLOW("verySlow", "3", Duration.ofSeconds(30));
+
+    private final String label;
+    private final String productId;
+    private final Duration gracefulStop;
+
+    Scenario(String label, String productId, Duration gracefulStop) {
+        this.label = label;
+        this.productId = productId;
+        this.gracefulStop = gracefulStop;
+    }
+
+    String label() {
+        return label;
+    }
+
+    String path() {
+        return "/product/" + productId + "/similar";
+    }
+
+    Duration gracefulStop() {
+        return gracefulStop;
+    }
+
+    static Scenario fromLabel(String label) {
+        return Arrays.stream(values())
+                .filter(scenario -> scenario.label.equalsIgnoreCase(label))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown scenario " + label));
+    }
+}
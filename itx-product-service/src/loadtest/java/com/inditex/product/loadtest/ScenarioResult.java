@@ -0,0 +1,37 @@
+package com.inditex.product.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Outcome of one scenario: requests completed (any status), requests that got no response at all, the status code
+ * counts, throughput and latency percentiles in milliseconds, and the connections the service opened to the upstream
+ * and the most it had open at once.
+ */
+record ScenarioResult(String scenario, int vus, long requests, long failures, Map<Integer, Long> statuses,
+                      double throughput, double p50, double p95, double p99, double max,
+                      long upstreamConnections, int peakUpstreamConnections) {
+
+    static ScenarioResult of(Scenario scenario, int vus, long[] latenciesNanos, long failures,
+                             Map<Integer, Long> statuses, long elapsedNanos) {
+        long[] sorted = latenciesNanos.clone();
+        Arrays.sort(sorted);
+        return new ScenarioResult(scenario.label(), vus, sorted.length, failures, statuses,
+                sorted.length / (elapsedNanos / 1e9),
+                percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99), percentile(sorted, 1),
+                0, 0);
+    }
+
+    ScenarioResult withUpstreamConnections(long opened, int peak) {
+        return new ScenarioResult(scenario, vus, requests, failures, statuses, throughput, p50, p95, p99, max, opened, peak);
+    }
+
+    // Nearest rank
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(rank, 1) - 1] / 1e6;
+    }
+}
@@ -0,0 +1,67 @@
+package com.inditex.product.loadtest;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.request;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * Embedded WireMock serving the simulado mocks ({@code shared/simulado/mocks.json}): path, method, status, headers,
+ * body and {@code delay} in milliseconds. Delayed responses are asynchronous so the slow products do not hold a
+ * container thread and the stub keeps up with the load like simulado does. It is reached through a
+ * {@link ConnectionCountingProxy}, counting the connections the service opens to it. It speaks HTTP/1.1 and HTTP/2
+ * (h2c).
+ */
+final class UpstreamStub {
+
+    private final WireMockServer server;
+    private final ConnectionCountingProxy proxy;
+
+    private UpstreamStub(WireMockServer server, ConnectionCountingProxy proxy) {
+        this.server = server;
+        this.proxy = proxy;
+    }
+
+    static UpstreamStub start(Path mocks) throws IOException {
+        WireMockServer server = new WireMockServer(options()
+                .dynamicPort()
+                .containerThreads(200)
+                .asynchronousResponseEnabled(true)
+                .asynchronousResponseThreads(50)
+                .disableRequestJournal());
+        server.start();
+
+        JsonNode definitions = JsonMapper.builder().build().readTree(mocks.toFile());
+        for (JsonNode mock : definitions) {
+            ResponseDefinitionBuilder response = aResponse()
+                    .withStatus(mock.path("status").asInt(200))
+                    .withBody(mock.path("body").asString(""))
+                    .withFixedDelay(mock.path("delay").asInt(0));
+            mock.path("headers").properties().forEach(header -> response.withHeader(header.getKey(), header.getValue().asString()));
+            server.stubFor(request(mock.path("method").asString("GET"), urlEqualTo(mock.path("path").asString()))
+                    .willReturn(response));
+        }
+        return new UpstreamStub(server, ConnectionCountingProxy.start(server.port()));
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + proxy.port();
+    }
+
+    ConnectionCountingProxy connections() {
+        return proxy;
+    }
+
+    void stop() throws IOException {
+        proxy.stop();
+        server.stop();
+    }
+}
@@ -0,0 +1,13 @@
+package com.inditex.product.application.ports.input;
+
+import com.inditex.product.domain.model.ProductDetails;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link SimilarProductsUseCase#getSimilarProducts(String)}, used in the reactive mode.
+ */
+public interface ReactiveSimilarProductsUseCase {
+    Mono<List<ProductDetails>> getSimilarProducts(String productId);
+}
@@ -1,9 +1,34 @@
 package com.inditex.product.application.ports.input;
 
+import com.inditex.product.domain.model.DegradationPolicy;
+import com.inditex.product.domain.model.PartialSimilarProducts;
 import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.domain.model.SimilarProductsResult;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface SimilarProductsUseCase {
     List<ProductDetails> getSimilarProducts(String productId);
+
+    /**
+     * Similar products of the given product under the configured {@link DegradationPolicy}: the products it allows to
+     * leave out are reported as omitted instead of failing the whole list. Any other failure is thrown, as
+     * {@link #getSimilarProducts(String)} does (which is the {@code strict} policy).
+     */
+    PartialSimilarProducts getPartialSimilarProducts(String productId);
+
+    /**
+     * Similar products of every given product, keyed by product id in the order they were given. A product failing
+     * doesn't fail the rest, its error is returned as its own result.
+     */
+    Map<String, SimilarProductsResult> getSimilarProducts(List<String> productIds);
+
+    /**
+     * Hands the similar products of the given product to the consumer as soon as each one is available. Products that
+     * can't be looked up don't stop the rest, their errors are returned at the end keyed by product id. A failure
+     * looking up the similar product ids themselves is thrown before handing over any product.
+     */
+    Map<String, RuntimeException> streamSimilarProducts(String productId, Consumer<ProductDetails> consumer);
 }
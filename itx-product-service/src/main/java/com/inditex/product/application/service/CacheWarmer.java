@@ -0,0 +1,223 @@
+package com.inditex.product.application.service;
+
+import com.inditex.product.domain.model.ports.output.SimilarProducts;
+import com.inditex.product.infrastructure.adapters.cache.ProductDetailsCache;
+import com.inditex.product.infrastructure.adapters.cache.SimilarProductIds;
+import com.inditex.product.infrastructure.adapters.cache.SimilarProductsCache;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Warms the caches up with the similar products of a list of hot product ids, read from {@code product.warmup.file} on
+ * startup or given through the {@code warmup} actuator endpoint. The similar ids and product details missing in the caches
+ * are loaded through the {@link SimilarProducts} port by {@code product.warmup.concurrency} workers, and no more than
+ * {@code product.warmup.rate} upstream calls per second are made.
+ * <p>
+ * Until the current warm-up has completed {@code product.warmup.ready.threshold} of the product ids (warmed or failed) or
+ * has been running for {@code product.warmup.timeout}, the instance is not ready to receive traffic. At the timeout the
+ * pending product ids are abandoned.
+ */
+@Service
+public class CacheWarmer implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmer.class);
+
+    private final SimilarProducts similarProducts;
+    private final SimilarProductsCache similarProductsCache;
+    private final ProductDetailsCache productDetailsCache;
+    private final String hotIdsFile;
+    private final int concurrency;
+    private final RateLimiter rateLimiter;
+    private final double readyThreshold;
+    private final long timeoutMillis;
+    private volatile WarmUp current;
+
+    @Autowired
+    public CacheWarmer(SimilarProducts similarProducts,
+                       SimilarProductsCache similarProductsCache,
+                       ProductDetailsCache productDetailsCache,
+                       @Value("${product.warmup.file:}") String hotIdsFile,
+                       @Value("${product.warmup.concurrency:4}") int concurrency,
+                       @Value("${product.warmup.rate:50}") int rate,
+                       @Value("${product.warmup.ready.threshold:0.9}") double readyThreshold,
+                       @Value("${product.warmup.timeout:60000}") long timeoutMillis) {
+        this.similarProducts = similarProducts;
+        this.similarProductsCache = similarProductsCache;
+        this.productDetailsCache = productDetailsCache;
+        this.hotIdsFile = hotIdsFile;
+        this.concurrency = Math.max(1, concurrency);
+        this.rateLimiter = RateLimiter.of("cacheWarmUp", RateLimiterConfig.custom()
+                .limitForPeriod(Math.max(1, rate))
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .timeoutDuration(Duration.ofMillis(timeoutMillis))
+                .build());
+        this.readyThreshold = readyThreshold;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    // Started before the application is reported ready, so readiness is gated from the first probe on
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!hotIdsFile.isBlank()) {
+            warmUp(readHotIds(Path.of(hotIdsFile)));
+        }
+    }
+
+    /**
+     * Starts warming the caches up with the given product ids, unless a warm-up is already running. Returns the progress
+     * of the warm-up that is running.
+     */
+    public synchronized WarmUpProgress warmUp(Collection<String> productIds) {
+        WarmUp running = current;
+        if (running != null && running.state == State.RUNNING) {
+            logger.warn("Cache warm-up already running, ignoring the new one");
+            return running.progress();
+        }
+        Set<String> ids = productIds.stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        WarmUp warmUp = new WarmUp(ids.size());
+        current = warmUp;
+        logger.info("Warming the caches up with {} product ids", ids.size());
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, new CustomizableThreadFactory("cache-warm-up-"));
+        CompletableFuture<?>[] tasks = ids.stream()
+                .map(id -> CompletableFuture.runAsync(() -> warm(warmUp, id), executor))
+                .toArray(CompletableFuture[]::new);
+        executor.shutdown();
+        CompletableFuture.allOf(tasks)
+                .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((done, timeout) -> {
+                    if (timeout != null) {
+                        executor.shutdownNow();
+                    }
+                    warmUp.finish(timeout != null ? State.TIMED_OUT : State.DONE);
+                    logger.info("Cache warm-up {}", warmUp.progress());
+                });
+        return warmUp.progress();
+    }
+
+    public WarmUpProgress progress() {
+        WarmUp warmUp = current;
+        return warmUp == null ? WarmUpProgress.IDLE : warmUp.progress();
+    }
+
+    /**
+     * Whether the instance is warm enough to receive traffic: no warm-up is running, or the running one has reached the
+     * ready threshold or the timeout.
+     */
+    public boolean isReady() {
+        WarmUp warmUp = current;
+        return warmUp == null
+                || warmUp.state != State.RUNNING
+                || warmUp.completed() >= readyThreshold
+                || warmUp.elapsedMillis() >= timeoutMillis;
+    }
+
+    private void warm(WarmUp warmUp, String productId) {
+        boolean failed = false;
+        try {
+            List<String> detailIds = similarProductsCache.get(productId, this::loadSimilarProductIds).ids();
+            for (String detailId : detailIds) {
+                try {
+                    productDetailsCache.get(detailId, id -> rateLimited(() -> similarProducts.getProductById(id)));
+                } catch (RuntimeException e) {
+                    failed = true;
+                    logger.debug("Cache warm-up of product [{}] failed: {}", detailId, e.getMessage());
+                }
+            }
+        } catch (RuntimeException e) {
+            failed = true;
+            logger.debug("Cache warm-up of the similar products of [{}] failed: {}", productId, e.getMessage());
+        }
+        (failed ? warmUp.failed : warmUp.warmed).incrementAndGet();
+    }
+
+    private SimilarProductIds loadSimilarProductIds(String productId) {
+        List<String> similarProductIds = rateLimited(() -> similarProducts.getSimilarProductIds(productId));
+        return new SimilarProductIds(similarProductIds == null ? List.of() : similarProductIds);
+    }
+
+    private <T> T rateLimited(Supplier<T> call) {
+        return RateLimiter.decorateSupplier(rateLimiter, call).get();
+    }
+
+    // One product id per line, blank lines and lines starting with # are skipped
+    static List<String> readHotIds(Path file) throws IOException {
+        try (var lines = Files.lines(file)) {
+            return lines.map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .toList();
+        }
+    }
+
+    public enum State {
+        IDLE, RUNNING, DONE, TIMED_OUT
+    }
+
+    /**
+     * Progress of a warm-up: product ids warmed (their similar ids and details are cached) and failed, out of the total.
+     */
+    public record WarmUpProgress(State state, int total, int warmed, int failed, double completed, long elapsedMillis) {
+
+        static final WarmUpProgress IDLE = new WarmUpProgress(State.IDLE, 0, 0, 0, 0, 0);
+    }
+
+    private static final class WarmUp {
+
+        private final int total;
+        private final long startedAt = System.nanoTime();
+        private final AtomicInteger warmed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile State state = State.RUNNING;
+        private volatile long finishedAt;
+
+        private WarmUp(int total) {
+            this.total = total;
+        }
+
+        private double completed() {
+            return total == 0 ? 1 : (double) (warmed.get() + failed.get()) / total;
+        }
+
+        private void finish(State state) {
+            finishedAt = System.nanoTime();
+            this.state = state;
+        }
+
+        private long elapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis((state == State.RUNNING ? System.nanoTime() : finishedAt) - startedAt);
+        }
+
+        private WarmUpProgress progress() {
+            return new WarmUpProgress(state, total, warmed.get(), failed.get(), completed(), elapsedMillis());
+        }
+    }
+}
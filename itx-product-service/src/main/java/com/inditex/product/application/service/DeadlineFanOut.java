@@ -0,0 +1,268 @@
+package com.inditex.product.application.service;
+
+import com.inditex.product.shared.deadline.RequestDeadline;
+import com.inditex.product.shared.exception.DeadlineExceededException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs a lookup for every given key using at most {@code maxConcurrency} workers, until all of them are done or the
+ * deadline (a {@link System#nanoTime()} value) is reached. Unlike the fan-out of a single request, a failing lookup
+ * doesn't cancel the others: every key gets its own outcome. The lookups not finished by the deadline are cancelled
+ * (unless they run {@linkplain #runWithCutoff with a cutoff}) and their outcome is a {@link DeadlineExceededException}.
+ */
+final class DeadlineFanOut {
+
+    record Outcome<T>(T value, RuntimeException error) {
+
+        static <T> Outcome<T> success(T value) {
+            return new Outcome<>(value, null);
+        }
+
+        static <T> Outcome<T> failure(RuntimeException error) {
+            return new Outcome<>(null, error);
+        }
+
+        boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    private DeadlineFanOut() {
+    }
+
+    /**
+     * Returns the outcome of every key, in the given order. Without an executor the lookups run one after the other on
+     * the calling thread, and the ones not started by the deadline time out.
+     */
+    static <T> Map<String, Outcome<T>> run(List<String> keys, Function<String, T> lookup,
+                                           ExecutorService executor, int maxConcurrency, long deadline) {
+        AtomicReferenceArray<Outcome<T>> outcomes = new AtomicReferenceArray<>(keys.size());
+        if (executor == null) {
+            for (int i = 0; i < keys.size() && deadline - System.nanoTime() > 0; i++) {
+                outcomes.set(i, lookup(lookup, keys.get(i)));
+            }
+        } else {
+            runConcurrently(keys, lookup, executor, maxConcurrency, deadline, outcomes);
+        }
+        return results(keys, outcomes);
+    }
+
+    /**
+     * Like {@link #run}, but every lookup also times out once it has run for {@code cutoffNanos}, measured from its own
+     * start: one that was only queued behind slower ones isn't slow. Timed out lookups keep running in the background
+     * (so they can still fill the caches), bounded by the request deadline, and a new worker takes over the pending
+     * keys from each of them. No lookup is started once the deadline is reached. Without an executor the lookups run
+     * one after the other on the calling thread, each one with a request deadline of its cutoff.
+     */
+    static <T> Map<String, Outcome<T>> runWithCutoff(List<String> keys, Function<String, T> lookup,
+                                                     ExecutorService executor, int maxConcurrency, long deadline,
+                                                     long cutoffNanos) {
+        AtomicReferenceArray<Outcome<T>> outcomes = new AtomicReferenceArray<>(keys.size());
+        if (executor == null) {
+            for (int i = 0; i < keys.size() && deadline - System.nanoTime() > 0; i++) {
+                String key = keys.get(i);
+                outcomes.set(i, RequestDeadline.within(RequestDeadline.earliest(System.nanoTime() + cutoffNanos),
+                        () -> lookup(lookup, key)));
+            }
+        } else {
+            runWithCutoff(keys, lookup, executor, maxConcurrency, deadline, cutoffNanos, outcomes);
+        }
+        return results(keys, outcomes);
+    }
+
+    /**
+     * Like {@link #run}, but hands every outcome to the consumer as soon as it is available instead of waiting for all
+     * of them: in completion order, on the calling thread (so the consumer doesn't need to be thread safe). Once the
+     * deadline is reached the pending lookups are cancelled and handed over timed out.
+     */
+    static <T> void stream(List<String> keys, Function<String, T> lookup, ExecutorService executor, int maxConcurrency,
+                           long deadline, BiConsumer<String, Outcome<T>> consumer) {
+        if (executor == null) {
+            for (String key : keys) {
+                consumer.accept(key, deadline - System.nanoTime() > 0 ? lookup(lookup, key) : timedOut(key));
+            }
+            return;
+        }
+
+        AtomicReferenceArray<Outcome<T>> outcomes = new AtomicReferenceArray<>(keys.size());
+        BlockingQueue<Integer> completed = new LinkedBlockingQueue<>();
+        List<Future<?>> futures = submit(keys, lookup, executor, maxConcurrency, outcomes, completed::add);
+        boolean[] handed = new boolean[keys.size()];
+        try {
+            for (int received = 0; received < keys.size(); received++) {
+                Integer position = completed.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (position == null) {
+                    timeOutPending(keys, outcomes);
+                    cancel(futures);
+                    for (int i = 0; i < keys.size(); i++) {
+                        if (!handed[i]) {
+                            consumer.accept(keys.get(i), outcomes.get(i));
+                        }
+                    }
+                    return;
+                }
+                handed[position] = true;
+                consumer.accept(keys.get(position), outcomes.get(position));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while fetching similar products", e);
+        } finally {
+            // Nothing left once all of them are handed over, unless the consumer failed (client gone)
+            cancel(futures);
+        }
+    }
+
+    private static <T> void runConcurrently(List<String> keys, Function<String, T> lookup, ExecutorService executor,
+                                            int maxConcurrency, long deadline, AtomicReferenceArray<Outcome<T>> outcomes) {
+        List<Future<?>> futures = submit(keys, lookup, executor, maxConcurrency, outcomes, position -> {});
+
+        try {
+            for (Future<?> future : futures) {
+                future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
+        } catch (TimeoutException e) {
+            // The pending outcomes time out before cancelling, so the interrupted lookups don't override them
+            timeOutPending(keys, outcomes);
+            cancel(futures);
+        } catch (ExecutionException e) {
+            cancel(futures);
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Error fetching similar products", e.getCause());
+        } catch (InterruptedException e) {
+            timeOutPending(keys, outcomes);
+            cancel(futures);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while fetching similar products", e);
+        }
+    }
+
+    // Waits for every lookup until the deadline, timing out the ones running for longer than the cutoff on the way
+    private static <T> void runWithCutoff(List<String> keys, Function<String, T> lookup, ExecutorService executor,
+                                          int maxConcurrency, long deadline, long cutoffNanos,
+                                          AtomicReferenceArray<Outcome<T>> outcomes) {
+        AtomicInteger nextPosition = new AtomicInteger();
+        // When the lookup of every position started, made odd so it's never 0 (not started)
+        AtomicLongArray startedAt = new AtomicLongArray(keys.size());
+        BlockingQueue<Integer> completed = new LinkedBlockingQueue<>();
+        Runnable worker = RequestDeadline.propagate(() -> {
+            int position;
+            while (deadline - System.nanoTime() > 0 && (position = nextPosition.getAndIncrement()) < keys.size()) {
+                startedAt.set(position, System.nanoTime() | 1);
+                if (outcomes.compareAndSet(position, null, lookup(lookup, keys.get(position)))) {
+                    completed.add(position);
+                }
+            }
+        });
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = Math.min(keys.size(), maxConcurrency); i > 0; i--) {
+            futures.add(executor.submit(worker));
+        }
+        try {
+            int done = 0;
+            while (done < keys.size() && deadline - System.nanoTime() > 0) {
+                long now = System.nanoTime();
+                // The ones about to start don't reach their cutoff before this
+                long wakeUp = deadline - (now + cutoffNanos) > 0 ? now + cutoffNanos : deadline;
+                for (int i = 0; i < keys.size(); i++) {
+                    long started = startedAt.get(i);
+                    if (started == 0 || outcomes.get(i) != null) {
+                        continue;
+                    }
+                    if (now - started - cutoffNanos < 0) {
+                        wakeUp = wakeUp - (started + cutoffNanos) > 0 ? started + cutoffNanos : wakeUp;
+                    } else if (outcomes.compareAndSet(i, null, timedOut(keys.get(i)))) {
+                        done++;
+                        futures.add(executor.submit(worker));
+                    }
+                }
+                if (done < keys.size() && completed.poll(wakeUp - now, TimeUnit.NANOSECONDS) != null) {
+                    done += 1 + completed.drainTo(new ArrayList<>());
+                }
+            }
+        } catch (InterruptedException e) {
+            timeOutPending(keys, outcomes);
+            cancel(futures);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while fetching similar products", e);
+        }
+    }
+
+    /**
+     * Starts the workers, each one takes the next pending position until there is none left and stores its outcome
+     * there, unless it has already timed out. {@code onOutcome} is called with every position whose outcome was stored.
+     * They run with the request deadline of the calling thread.
+     */
+    private static <T> List<Future<?>> submit(List<String> keys, Function<String, T> lookup, ExecutorService executor,
+                                              int maxConcurrency, AtomicReferenceArray<Outcome<T>> outcomes,
+                                              IntConsumer onOutcome) {
+        AtomicInteger nextPosition = new AtomicInteger();
+        int workers = Math.min(keys.size(), maxConcurrency);
+
+        List<Future<?>> futures = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            futures.add(executor.submit(RequestDeadline.propagate(() -> {
+                int position;
+                while (!Thread.currentThread().isInterrupted()
+                        && (position = nextPosition.getAndIncrement()) < keys.size()) {
+                    if (outcomes.compareAndSet(position, null, lookup(lookup, keys.get(position)))) {
+                        onOutcome.accept(position);
+                    }
+                }
+            })));
+        }
+        return futures;
+    }
+
+    // The outcome of every key, in order, the ones still pending timed out
+    private static <T> Map<String, Outcome<T>> results(List<String> keys, AtomicReferenceArray<Outcome<T>> outcomes) {
+        timeOutPending(keys, outcomes);
+        Map<String, Outcome<T>> results = new LinkedHashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            results.put(keys.get(i), outcomes.get(i));
+        }
+        return results;
+    }
+
+    private static <T> Outcome<T> lookup(Function<String, T> lookup, String key) {
+        try {
+            return Outcome.success(lookup.apply(key));
+        } catch (RuntimeException e) {
+            return Outcome.failure(e);
+        }
+    }
+
+    private static <T> void timeOutPending(List<String> keys, AtomicReferenceArray<Outcome<T>> outcomes) {
+        for (int i = 0; i < keys.size(); i++) {
+            outcomes.compareAndSet(i, null, timedOut(keys.get(i)));
+        }
+    }
+
+    private static <T> Outcome<T> timedOut(String key) {
+        return Outcome.failure(new DeadlineExceededException("Deadline exceeded looking up product " + key));
+    }
+
+    private static void cancel(List<Future<?>> futures) {
+        futures.forEach(future -> future.cancel(true));
+    }
+}
@@ -1,51 +1,427 @@
 package com.inditex.product.application.service;
 
 import com.inditex.product.application.ports.input.SimilarProductsUseCase;
+import com.inditex.product.application.service.DeadlineFanOut.Outcome;
+import com.inditex.product.domain.model.DegradationPolicy;
+import com.inditex.product.domain.model.PartialSimilarProducts;
+import com.inditex.product.domain.model.PartialSimilarProducts.Omission;
 import com.inditex.product.domain.model.ports.output.SimilarProducts;
 import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.domain.model.SimilarProductsResult;
+import com.inditex.product.infrastructure.adapters.cache.ProductDetailsCache;
+import com.inditex.product.infrastructure.adapters.cache.SimilarProductIds;
+import com.inditex.product.infrastructure.adapters.cache.SimilarProductsCache;
+import com.inditex.product.infrastructure.adapters.config.ProductServiceProperties;
+import com.inditex.product.shared.deadline.RequestDeadline;
+import com.inditex.product.shared.exception.DeadlineExceededException;
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-import static com.inditex.product.infrastructure.adapters.config.CacheConfig.CACHE_PRODUCT;
-import static com.inditex.product.infrastructure.adapters.config.CacheConfig.CACHE_PRODUCT_LIST;
+import static com.inditex.product.infrastructure.adapters.config.FanOutConfig.FAN_OUT_EXECUTOR;
 
 @Service
 public class ProductService implements SimilarProductsUseCase {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
+    // No deadline but the one of the request: the upstream calls are still bounded by their timeouts
+    private static final long NO_DEADLINE_NANOS = TimeUnit.DAYS.toNanos(1);
 
     private final SimilarProducts similarProducts;
+    private final SimilarProductsCache similarProductsCache;
+    private final ProductDetailsCache productDetailsCache;
+    private final ExecutorService fanOutExecutor;
+    private final boolean fanOutEnabled;
+    private final int maxConcurrency;
+    private final int batchMaxSize;
+    private final long batchTimeoutNanos;
+    private final boolean streamInOrder;
+    private final long streamTimeoutNanos;
+    private final DegradationPolicy degradationPolicy;
+    private final long slowCutoffNanos;
+    private final FanOutMeters singleFanOutMeters;
+    private final FanOutMeters batchFanOutMeters;
+    private final FanOutMeters streamFanOutMeters;
+    private final Map<Omission, Counter> omittedCounters = new EnumMap<>(Omission.class);
 
     @Autowired
-    public ProductService(SimilarProducts similarProducts) {
+    public ProductService(SimilarProducts similarProducts,
+                          SimilarProductsCache similarProductsCache,
+                          ProductDetailsCache productDetailsCache,
+                          @Qualifier(FAN_OUT_EXECUTOR) ExecutorService fanOutExecutor,
+                          MeterRegistry meterRegistry,
+                          ProductServiceProperties properties) {
         this.similarProducts = similarProducts;
+        this.similarProductsCache = similarProductsCache;
+        this.productDetailsCache = productDetailsCache;
+        this.fanOutExecutor = fanOutExecutor;
+        this.fanOutEnabled = properties.fanout().enabled();
+        this.maxConcurrency = Math.max(1, properties.fanout().maxConcurrency());
+        this.batchMaxSize = properties.batch().maxSize();
+        this.batchTimeoutNanos = properties.batch().timeout().toNanos();
+        this.streamInOrder = properties.stream().inOrder();
+        this.streamTimeoutNanos = properties.stream().timeout().toNanos();
+        this.degradationPolicy = properties.degradation().policy();
+        this.slowCutoffNanos = properties.degradation().slowCutoff().toNanos();
+        this.singleFanOutMeters = FanOutMeters.register(meterRegistry, "single");
+        this.batchFanOutMeters = FanOutMeters.register(meterRegistry, "batch");
+        this.streamFanOutMeters = FanOutMeters.register(meterRegistry, "stream");
+        for (Omission omission : Omission.values()) {
+            omittedCounters.put(omission, Counter.builder("similar.products.omitted")
+                    .description("Similar products left out of the lists by the degradation policy")
+                    .tag("reason", omission.toString())
+                    .register(meterRegistry));
+        }
     }
 
     @Override
-    @Cacheable(value = CACHE_PRODUCT_LIST, key = "#productId")
     public List<ProductDetails> getSimilarProducts(String productId) {
+        List<String> similarProductIds = similarProductsCache.get(productId, this::loadSimilarProductIds).ids();
+
+        return similarProductIds.isEmpty() ? List.of() : getProducts(similarProductIds);
+    }
+
+    /**
+     * Under the {@code strict} policy, the same as {@link #getSimilarProducts(String)}. Otherwise the products not
+     * cached are looked up without failing on the first error: not found products are left out as
+     * {@link Omission#MISSING} and, with {@code skip-missing-and-slow}, the ones not found within
+     * {@code product.degradation.slow.cutoff} of the start of their own lookup (or by the request deadline) as
+     * {@link Omission#SLOW}. Those keep running in the background, bounded by the request deadline, so they can still
+     * be cached for the next requests. Any other failure fails the list, the first one in the order of the ids.
+     */
+    @Override
+    public PartialSimilarProducts getPartialSimilarProducts(String productId) {
+        if (!degradationPolicy.skipsMissing()) {
+            return PartialSimilarProducts.complete(getSimilarProducts(productId));
+        }
+        List<String> similarProductIds = similarProductsCache.get(productId, this::loadSimilarProductIds).ids();
+        if (similarProductIds.isEmpty()) {
+            return PartialSimilarProducts.complete(List.of());
+        }
+
+        Map<String, Outcome<ProductDetails>> details = cachedDetails(similarProductIds);
+        List<String> missingIds = missingIds(similarProductIds, details);
+        if (!missingIds.isEmpty()) {
+            ExecutorService executor = fanOutEnabled ? fanOutExecutor : null;
+            long deadline = RequestDeadline.earliest(System.nanoTime() + NO_DEADLINE_NANOS);
+            details.putAll(singleFanOutMeters.record(missingIds.size(), () -> degradationPolicy.skipsSlow()
+                    ? DeadlineFanOut.runWithCutoff(missingIds, this::getProductById, executor, maxConcurrency, deadline,
+                            slowCutoffNanos)
+                    : DeadlineFanOut.run(missingIds, this::getProductById, executor, maxConcurrency, deadline)));
+        }
+
+        List<ProductDetails> products = new ArrayList<>(similarProductIds.size());
+        Map<String, Omission> omitted = new LinkedHashMap<>();
+        for (String id : similarProductIds) {
+            Outcome<ProductDetails> outcome = details.get(id);
+            if (outcome.isSuccess()) {
+                if (outcome.value() != null) {
+                    products.add(outcome.value());
+                }
+            } else if (outcome.error() instanceof ProductNotFoundException) {
+                omitted.putIfAbsent(id, Omission.MISSING);
+            } else if (outcome.error() instanceof DeadlineExceededException && degradationPolicy.skipsSlow()) {
+                omitted.putIfAbsent(id, Omission.SLOW);
+            } else {
+                throw outcome.error();
+            }
+        }
+        omitted.values().forEach(omission -> omittedCounters.get(omission).increment());
+        return new PartialSimilarProducts(products, omitted);
+    }
+
+    /**
+     * Looks up the similar product ids of every (distinct) product, then the details of all of them together, so a
+     * product in several lists is fetched once per batch. Both steps fan out on the fan-out executor and share a single
+     * deadline, {@code product.batch.timeout} or the request one if earlier: whatever isn't done by then fails the lists
+     * depending on it with a {@code DeadlineExceededException}.
+     * A list fails with the first error of its products, like it would in a single request, without affecting the rest.
+     */
+    @Override
+    public Map<String, SimilarProductsResult> getSimilarProducts(List<String> productIds) {
+        if (productIds.size() > batchMaxSize) {
+            throw new IllegalArgumentException("Too many productIds, the maximum is " + batchMaxSize);
+        }
+        long deadline = RequestDeadline.earliest(System.nanoTime() + batchTimeoutNanos);
+
+        Map<String, Outcome<SimilarProductIds>> similarProductIds = fanOut(productIds.stream().distinct().toList(),
+                productId -> similarProductsCache.get(productId, this::loadSimilarProductIds), deadline);
+
+        List<String> detailIds = similarProductIds.values().stream()
+                .filter(Outcome::isSuccess)
+                .flatMap(outcome -> outcome.value().ids().stream())
+                .distinct()
+                .toList();
+        Map<String, Outcome<ProductDetails>> details = cachedDetails(detailIds);
+        List<String> missingIds = missingIds(detailIds, details);
+        details.putAll(batchFanOutMeters.record(missingIds.size(),
+                () -> fanOut(missingIds, this::getProductById, deadline)));
+
+        Map<String, SimilarProductsResult> results = new LinkedHashMap<>();
+        similarProductIds.forEach((productId, outcome) -> results.put(productId, outcome.isSuccess()
+                ? assemble(outcome.value().ids(), details)
+                : SimilarProductsResult.failure(outcome.error())));
+        return results;
+    }
+
+    /**
+     * Cached products are handed over right away, the rest as their lookups complete (fanning out like a single
+     * request, but without cancelling the others when one fails): in the order of the similar product ids when
+     * {@code product.stream.in.order}, otherwise as they complete. Lookups not done by {@code product.stream.timeout}
+     * (or the request deadline if earlier) fail with a {@code DeadlineExceededException}.
+     */
+    @Override
+    public Map<String, RuntimeException> streamSimilarProducts(String productId, Consumer<ProductDetails> consumer) {
+        List<String> similarProductIds = similarProductsCache.get(productId, this::loadSimilarProductIds).ids();
+        long deadline = RequestDeadline.earliest(System.nanoTime() + streamTimeoutNanos);
+
+        Map<String, Outcome<ProductDetails>> details = cachedDetails(similarProductIds);
+        List<String> missingIds = missingIds(similarProductIds, details);
+
+        Map<String, RuntimeException> failures = new LinkedHashMap<>();
+        if (streamInOrder) {
+            // Hands over the products ready at the head of the list every time one completes
+            int[] next = {0};
+            Runnable handOverReady = () -> {
+                while (next[0] < similarProductIds.size() && details.containsKey(similarProductIds.get(next[0]))) {
+                    String id = similarProductIds.get(next[0]++);
+                    handOver(id, details.get(id), consumer, failures);
+                }
+            };
+            handOverReady.run();
+            streamFanOut(missingIds, (id, outcome) -> {
+                details.put(id, outcome);
+                handOverReady.run();
+            }, deadline);
+        } else {
+            similarProductIds.stream()
+                    .filter(details::containsKey)
+                    .forEach(id -> handOver(id, details.get(id), consumer, failures));
+            streamFanOut(missingIds, (id, outcome) -> {
+                for (int i = Collections.frequency(similarProductIds, id); i > 0; i--) {
+                    handOver(id, outcome, consumer, failures);
+                }
+            }, deadline);
+        }
+        return failures;
+    }
+
+    // Not @Cacheable: it is called on "this", bypassing the proxy, so the cache is used explicitly
+    public ProductDetails getProductById(String productId) {
+        return productDetailsCache.get(productId, similarProducts::getProductById);
+    }
+
+    // The products already cached, as successful outcomes (a mutable map, for the ones looked up next)
+    private Map<String, Outcome<ProductDetails>> cachedDetails(List<String> productIds) {
+        Map<String, Outcome<ProductDetails>> details = new HashMap<>();
+        productDetailsCache.getAllPresent(productIds, similarProducts::getProductById)
+                .forEach((id, productDetails) -> details.put(id, Outcome.success(productDetails)));
+        return details;
+    }
+
+    // The distinct ids still to be looked up
+    private static List<String> missingIds(List<String> productIds, Map<String, Outcome<ProductDetails>> details) {
+        return productIds.stream()
+                .filter(id -> !details.containsKey(id))
+                .distinct()
+                .toList();
+    }
+
+    private SimilarProductIds loadSimilarProductIds(String productId) {
         List<String> similarProductIds = similarProducts.getSimilarProductIds(productId);
 
         if (similarProductIds == null || similarProductIds.isEmpty()) {
             logger.warn("Similar product IDs not found for product ID [{}]. Returning empty list", productId);
-            return List.of();
+            return new SimilarProductIds(List.of());
         }
+        return new SimilarProductIds(similarProductIds);
+    }
+
+    /**
+     * Assembles the details of the given products, in the same order. The cached ones are looked up at once and only
+     * the rest (each one once, even if repeated) is fetched.
+     */
+    private List<ProductDetails> getProducts(List<String> productIds) {
+        Map<String, ProductDetails> products = new HashMap<>(
+                productDetailsCache.getAllPresent(productIds, similarProducts::getProductById));
 
-        return similarProductIds.stream()
-                .map(this::getProductById)
+        List<String> missingIds = productIds.stream()
+                .filter(id -> !products.containsKey(id))
+                .distinct()
+                .toList();
+        if (!missingIds.isEmpty()) {
+            ProductDetails[] fetched = singleFanOutMeters.record(missingIds.size(), () -> fetchProducts(missingIds));
+            for (int i = 0; i < fetched.length; i++) {
+                products.put(missingIds.get(i), fetched[i]);
+            }
+        }
+
+        return productIds.stream()
+                .map(products::get)
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
-    @Cacheable(value = CACHE_PRODUCT, key = "#productId")
-    public ProductDetails getProductById(String productId) {
-        return similarProducts.getProductById(productId);
+    private static SimilarProductsResult assemble(List<String> productIds, Map<String, Outcome<ProductDetails>> details) {
+        List<ProductDetails> products = new ArrayList<>(productIds.size());
+        for (String productId : productIds) {
+            Outcome<ProductDetails> outcome = details.get(productId);
+            if (!outcome.isSuccess()) {
+                return SimilarProductsResult.failure(outcome.error());
+            }
+            if (outcome.value() != null) {
+                products.add(outcome.value());
+            }
+        }
+        return SimilarProductsResult.success(products);
+    }
+
+    private <T> Map<String, Outcome<T>> fanOut(List<String> keys, Function<String, T> lookup, long deadline) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        return DeadlineFanOut.run(keys, lookup, fanOutEnabled ? fanOutExecutor : null, maxConcurrency, deadline);
+    }
+
+    private void streamFanOut(List<String> keys, BiConsumer<String, Outcome<ProductDetails>> consumer, long deadline) {
+        streamFanOutMeters.record(keys.size(), () -> {
+            if (!keys.isEmpty()) {
+                DeadlineFanOut.stream(keys, this::getProductById, fanOutEnabled ? fanOutExecutor : null, maxConcurrency,
+                        deadline, consumer);
+            }
+            return null;
+        });
+    }
+
+    private static void handOver(String productId, Outcome<ProductDetails> outcome, Consumer<ProductDetails> consumer,
+                                 Map<String, RuntimeException> failures) {
+        if (!outcome.isSuccess()) {
+            failures.putIfAbsent(productId, outcome.error());
+        } else if (outcome.value() != null) {
+            consumer.accept(outcome.value());
+        }
+    }
+
+    private ProductDetails[] fetchProducts(List<String> productIds) {
+        if (!fanOutEnabled || maxConcurrency == 1 || productIds.size() == 1) {
+            ProductDetails[] results = new ProductDetails[productIds.size()];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = getProductById(productIds.get(i));
+            }
+            return results;
+        }
+        return getProductsConcurrently(productIds);
+    }
+
+    /**
+     * Fetches the details of every given product using at most {@code maxConcurrency} workers for this request.
+     * Each worker keeps taking the next pending position until there is none left, storing the result in that same
+     * position, so the results are in the order of the given ids. As soon as a lookup fails the remaining workers are
+     * cancelled and the failure is rethrown as is, exactly like the sequential lookup would do. The workers run with the
+     * request deadline, and once it is reached they are cancelled and a {@code DeadlineExceededException} is thrown.
+     */
+    private ProductDetails[] getProductsConcurrently(List<String> productIds) {
+        ProductDetails[] results = new ProductDetails[productIds.size()];
+        AtomicInteger nextPosition = new AtomicInteger();
+        int workers = Math.min(productIds.size(), maxConcurrency);
+
+        CompletionService<Void> completionService = new ExecutorCompletionService<>(fanOutExecutor);
+        List<Future<Void>> futures = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            futures.add(completionService.submit(RequestDeadline.propagate(() -> {
+                int position;
+                while (!Thread.currentThread().isInterrupted()
+                        && (position = nextPosition.getAndIncrement()) < productIds.size()) {
+                    results[position] = getProductById(productIds.get(position));
+                }
+                return null;
+            })));
+        }
+
+        try {
+            for (int i = 0; i < workers; i++) {
+                Future<Void> completed = completionService.poll(RequestDeadline.remainingNanos(), TimeUnit.NANOSECONDS);
+                if (completed == null) {
+                    cancel(futures);
+                    throw new DeadlineExceededException("Deadline exceeded fetching similar products");
+                }
+                completed.get();
+            }
+        } catch (ExecutionException e) {
+            cancel(futures);
+            throw propagate(e.getCause());
+        } catch (InterruptedException e) {
+            cancel(futures);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while fetching similar products", e);
+        }
+
+        return results;
+    }
+
+    private static void cancel(List<Future<Void>> futures) {
+        futures.forEach(future -> future.cancel(true));
+    }
+
+    private static RuntimeException propagate(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException("Error fetching similar products", cause);
+    }
+
+    /**
+     * Time and width (number of product details looked up, 0 when all of them were cached) of the fan-outs, published
+     * as {@code similar.products.fanout} and {@code similar.products.fanout.width} per mode (single, batch or stream).
+     */
+    private record FanOutMeters(Timer time, DistributionSummary width) {
+
+        static FanOutMeters register(MeterRegistry meterRegistry, String mode) {
+            return new FanOutMeters(
+                    Timer.builder("similar.products.fanout")
+                            .description("Time to look up the product details not cached")
+                            .tag("mode", mode)
+                            .register(meterRegistry),
+                    DistributionSummary.builder("similar.products.fanout.width")
+                            .description("Product details looked up, not cached")
+                            .tag("mode", mode)
+                            .register(meterRegistry));
+        }
+
+        <T> T record(int width, Supplier<T> fanOut) {
+            this.width.record(width);
+            return width == 0 ? fanOut.get() : time.record(fanOut);
+        }
     }
 }
@@ -0,0 +1,85 @@
+package com.inditex.product.application.service;
+
+import com.inditex.product.application.ports.input.ReactiveSimilarProductsUseCase;
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.domain.model.ports.output.ReactiveSimilarProducts;
+import com.inditex.product.infrastructure.adapters.cache.ProductDetailsCache;
+import com.inditex.product.infrastructure.adapters.cache.SimilarProductIds;
+import com.inditex.product.infrastructure.adapters.cache.SimilarProductsCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link ReactiveSimilarProductsUseCase} of the reactive mode. Same lookups as the {@link ProductService}, on the same
+ * caches, but nothing blocks: missing entries are loaded with the non-blocking client and the product details are
+ * fetched concurrently (at most {@code product.fanout.max.concurrency} per request) without any fan-out thread. As with
+ * the blocking lookup, the first product failing fails the request and cancels the rest.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProductService implements ReactiveSimilarProductsUseCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveProductService.class);
+
+    private final ReactiveSimilarProducts similarProducts;
+    private final SimilarProductsCache similarProductsCache;
+    private final ProductDetailsCache productDetailsCache;
+    private final int maxConcurrency;
+
+    @Autowired
+    public ReactiveProductService(ReactiveSimilarProducts similarProducts,
+                                  SimilarProductsCache similarProductsCache,
+                                  ProductDetailsCache productDetailsCache,
+                                  @Value("${product.fanout.max.concurrency:8}") int maxConcurrency) {
+        this.similarProducts = similarProducts;
+        this.similarProductsCache = similarProductsCache;
+        this.productDetailsCache = productDetailsCache;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+    }
+
+    // Every request waits on a copy of the cache loads: cancelling it (like when another product fails) cancels its
+    // copy only, not the load other requests may be waiting for
+    @Override
+    public Mono<List<ProductDetails>> getSimilarProducts(String productId) {
+        return Mono.fromFuture(() -> similarProductsCache.getAsync(productId, this::loadSimilarProductIds).copy())
+                .flatMap(similarProductIds -> similarProductIds.ids().isEmpty()
+                        ? Mono.just(List.of())
+                        : getProducts(similarProductIds.ids()));
+    }
+
+    private CompletableFuture<SimilarProductIds> loadSimilarProductIds(String productId) {
+        return similarProducts.getSimilarProductIds(productId)
+                .map(similarProductIds -> {
+                    if (similarProductIds.isEmpty()) {
+                        logger.warn("Similar product IDs not found for product ID [{}]. Returning empty list", productId);
+                    }
+                    return new SimilarProductIds(similarProductIds);
+                })
+                .toFuture();
+    }
+
+    // In the order of the given ids, each one looked up once even if repeated. Products without details are left out
+    private Mono<List<ProductDetails>> getProducts(List<String> productIds) {
+        return Flux.fromIterable(productIds)
+                .distinct()
+                .flatMap(id -> Mono.fromFuture(() -> productDetailsCache.getAsync(id,
+                                missingId -> similarProducts.getProductById(missingId).toFuture()).copy())
+                        .map(productDetails -> Map.entry(id, productDetails)), maxConcurrency)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .map(products -> productIds.stream()
+                        .map(products::get)
+                        .filter(Objects::nonNull)
+                        .toList());
+    }
+}
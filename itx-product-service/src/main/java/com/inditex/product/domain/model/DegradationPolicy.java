@@ -0,0 +1,29 @@
+package com.inditex.product.domain.model;
+
+import java.util.Locale;
+
+/**
+ * What a list of similar products does with the products that can't be looked up: fail as a whole ({@code strict}),
+ * leave out the ones not found ({@code skip-missing}), or also the ones not looked up within the per item latency
+ * cutoff ({@code skip-missing-and-slow}). A short list is often better than a late or missing one.
+ */
+public enum DegradationPolicy {
+    STRICT,
+    SKIP_MISSING,
+    SKIP_MISSING_AND_SLOW;
+
+    /**
+     * The policy with the given name, either {@code skip-missing} or {@code SKIP_MISSING}.
+     */
+    public static DegradationPolicy of(String name) throws IllegalArgumentException {
+        return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+
+    public boolean skipsMissing() {
+        return this != STRICT;
+    }
+
+    public boolean skipsSlow() {
+        return this == SKIP_MISSING_AND_SLOW;
+    }
+}
@@ -0,0 +1,36 @@
+package com.inditex.product.domain.model;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Similar products of a product under a {@link DegradationPolicy}: the ones found in time, in the order of the similar
+ * product ids, and the ones left out, keyed by product id in the same order.
+ */
+public record PartialSimilarProducts(List<ProductDetails> products, Map<String, Omission> omitted) {
+
+    public enum Omission {
+        MISSING,
+        SLOW;
+
+        @Override
+        public String toString() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public static PartialSimilarProducts complete(List<ProductDetails> products) {
+        return new PartialSimilarProducts(products, Map.of());
+    }
+
+    public boolean isComplete() {
+        return omitted.isEmpty();
+    }
+
+    public long omitted(Omission omission) {
+        return omitted.values().stream()
+                .filter(omission::equals)
+                .count();
+    }
+}
@@ -1,49 +1,18 @@
 package com.inditex.product.domain.model;
 
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
 import java.io.Serial;
 import java.io.Serializable;
 
-public class ProductDetails implements Serializable {
+/**
+ * Details of a product. Immutable, so the cached instances can be shared by every response, and read from the upstream
+ * JSON and written to the response body as it is, without any intermediate copy. Its properties are written in
+ * alphabetical order, as the JavaBean it replaced was, so the response bodies stay the same.
+ */
+@JsonPropertyOrder({"availability", "id", "name", "price"})
+public record ProductDetails(String id, String name, double price, boolean availability) implements Serializable {
 
     @Serial
-    private static final long serialVersionUID = 1L;
-
-    private String id;
-    private String name;
-    private Double price;
-    private boolean availability;
-
-    public ProductDetails() {}
-
-    public String getId() {
-        return id;
-    }
-
-    public void setId(String id) {
-        this.id = id;
-    }
-
-    public String getName() {
-        return name;
-    }
-
-    public void setName(String name) {
-        this.name = name;
-    }
-
-    public Double getPrice() {
-        return price;
-    }
-
-    public void setPrice(Double price) {
-        this.price = price;
-    }
-
-    public boolean isAvailability() {
-        return availability;
-    }
-
-    public void setAvailability(boolean availability) {
-        this.availability = availability;
-    }
+    private static final long serialVersionUID = 2L;
 }
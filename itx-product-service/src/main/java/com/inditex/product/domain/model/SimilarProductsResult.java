@@ -0,0 +1,22 @@
+package com.inditex.product.domain.model;
+
+import java.util.List;
+
+/**
+ * Outcome of the similar products of one product in a batch: either its similar products or the error that prevented
+ * getting them (the same one the single product lookup would throw).
+ */
+public record SimilarProductsResult(List<ProductDetails> products, RuntimeException error) {
+
+    public static SimilarProductsResult success(List<ProductDetails> products) {
+        return new SimilarProductsResult(products, null);
+    }
+
+    public static SimilarProductsResult failure(RuntimeException error) {
+        return new SimilarProductsResult(null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
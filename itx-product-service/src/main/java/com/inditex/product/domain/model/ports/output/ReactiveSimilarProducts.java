@@ -0,0 +1,12 @@
+package com.inditex.product.domain.model.ports.output;
+
+import com.inditex.product.domain.model.ProductDetails;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Non-blocking counterpart of SimilarProducts, to be used by the client in the reactive mode
+public interface ReactiveSimilarProducts {
+    Mono<ProductDetails> getProductById(String productId);
+    Mono<List<String>> getSimilarProductIds(String productId);
+}
@@ -0,0 +1,30 @@
+package com.inditex.product.infrastructure.adapters.cache;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Value stored in the caches, along with the times (epoch millis) driving its refresh-ahead expiry:
+ * <ul>
+ *     <li>{@code refreshAt}: from here on, reads still get the value but trigger a background reload</li>
+ *     <li>{@code expiresAt}: from here on the value is stale and has to be reloaded before being returned</li>
+ *     <li>{@code staleUntil}: a stale value can still be served, if reloading it fails, until this time</li>
+ * </ul>
+ */
+public record CacheEntry<V>(V value, long createdAt, long refreshAt, long expiresAt, long staleUntil) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public boolean needsRefresh(long now) {
+        return now >= refreshAt;
+    }
+
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+
+    public boolean isServableWhenStale(long now) {
+        return now < staleUntil;
+    }
+}
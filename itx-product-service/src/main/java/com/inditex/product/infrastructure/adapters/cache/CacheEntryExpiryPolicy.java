@@ -0,0 +1,29 @@
+package com.inditex.product.infrastructure.adapters.cache;
+
+import org.ehcache.expiry.ExpiryPolicy;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Ehcache expiry policy driven by the entries themselves: an entry is kept as long as it may be served, stale grace
+ * period included. Reads don't change the expiry.
+ */
+@SuppressWarnings("rawtypes")
+public class CacheEntryExpiryPolicy implements ExpiryPolicy<Object, CacheEntry> {
+
+    @Override
+    public Duration getExpiryForCreation(Object key, CacheEntry value) {
+        return Duration.ofMillis(Math.max(0, value.staleUntil() - System.currentTimeMillis()));
+    }
+
+    @Override
+    public Duration getExpiryForAccess(Object key, Supplier<? extends CacheEntry> value) {
+        return null;
+    }
+
+    @Override
+    public Duration getExpiryForUpdate(Object key, Supplier<? extends CacheEntry> oldValue, CacheEntry newValue) {
+        return getExpiryForCreation(key, newValue);
+    }
+}
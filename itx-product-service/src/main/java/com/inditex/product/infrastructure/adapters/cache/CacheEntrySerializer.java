@@ -0,0 +1,62 @@
+package com.inditex.product.infrastructure.adapters.cache;
+
+import org.ehcache.spi.serialization.Serializer;
+import org.ehcache.spi.serialization.SerializerException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compact Ehcache serializer for the {@link CacheEntry cache entries}, replacing Java serialization in the off-heap caches.
+ * The creation time and the distance between the entry times are written as variable length longs, followed by the value
+ * as written by the subclass.
+ */
+@SuppressWarnings("rawtypes")
+public abstract class CacheEntrySerializer<V> implements Serializer<CacheEntry> {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Class<?> valueType;
+
+    CacheEntrySerializer(Class<?> valueType) {
+        this.valueType = valueType;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ByteBuffer serialize(CacheEntry entry) {
+        if (!valueType.isInstance(entry.value())) {
+            throw unexpectedValue(entry.value());
+        }
+        CompactWriter writer = new CompactWriter(INITIAL_CAPACITY);
+        writer.writeVarLong(entry.createdAt());
+        writer.writeVarLong(entry.refreshAt() - entry.createdAt());
+        writer.writeVarLong(entry.expiresAt() - entry.refreshAt());
+        writer.writeVarLong(entry.staleUntil() - entry.expiresAt());
+        writeValue(writer, (V) entry.value());
+        return writer.toByteBuffer();
+    }
+
+    @Override
+    public CacheEntry<V> read(ByteBuffer binary) {
+        CompactReader reader = new CompactReader(binary);
+        long createdAt = reader.readVarLong();
+        long refreshAt = createdAt + reader.readVarLong();
+        long expiresAt = refreshAt + reader.readVarLong();
+        long staleUntil = expiresAt + reader.readVarLong();
+        return new CacheEntry<>(readValue(reader), createdAt, refreshAt, expiresAt, staleUntil);
+    }
+
+    // Compares the binary forms, the cached values don't implement equals
+    @Override
+    public boolean equals(CacheEntry entry, ByteBuffer binary) {
+        return serialize(entry).equals(binary);
+    }
+
+    abstract void writeValue(CompactWriter writer, V value);
+
+    abstract V readValue(CompactReader reader);
+
+    static SerializerException unexpectedValue(Object value) {
+        return new SerializerException("Unexpected cache value type: " + (value == null ? null : value.getClass().getName()));
+    }
+}
@@ -0,0 +1,198 @@
+package com.inditex.product.infrastructure.adapters.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Snapshot of the caches in a local file, written on shutdown and read back on startup so a restarted instance doesn't
+ * start with empty caches. For every cache, its name and then its entries: key and the entry as written by the cache
+ * serializer (see {@link CacheEntrySerializer}).
+ * <p>
+ * It is bounded both ways: at most {@code maxEntries} live entries per cache are written, the hot (L1) ones first, and
+ * writing or reading stops once {@code timeout} has elapsed. Entries that expired in the meantime are skipped on load,
+ * and so are keys already cached. An unreadable snapshot is ignored.
+ * <p>
+ * Its lifecycle phase comes before the web server one: the snapshot is loaded before the first request is served and
+ * written once graceful shutdown has drained the in-flight ones.
+ */
+public class CacheSnapshot implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheSnapshot.class);
+
+    static final int PHASE = WebServerApplicationContext.START_STOP_LIFECYCLE_PHASE - 1024;
+    private static final int MAGIC = 0x49545843;
+    private static final int VERSION = 1;
+    private static final int MAX_VALUE_BYTES = 1 << 20;
+
+    private final Path file;
+    private final Map<String, Section<?>> sections;
+    private final int maxEntries;
+    private final long timeoutNanos;
+    private volatile boolean running;
+
+    public CacheSnapshot(Path file, List<Section<?>> sections, int maxEntries, long timeoutMillis) {
+        this.file = file;
+        this.sections = sections.stream()
+                .collect(Collectors.toMap(section -> section.cache().name(), Function.identity(), (a, b) -> a, LinkedHashMap::new));
+        this.maxEntries = maxEntries;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    @Override
+    public void start() {
+        load();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        save();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Writes the snapshot, replacing the previous one. Returns the number of entries written per cache.
+     */
+    public Map<String, Integer> save() {
+        long deadline = System.nanoTime() + timeoutNanos;
+        Map<String, Integer> written = new LinkedHashMap<>();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(sections.size());
+                for (Section<?> section : sections.values()) {
+                    out.writeUTF(section.cache().name());
+                    written.put(section.cache().name(), section.write(out, maxEntries, deadline));
+                    out.writeBoolean(false);
+                }
+            }
+            move(tmp, file);
+            logger.info("Cache snapshot {} written: {}", file, written);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Error writing cache snapshot {}: {}", file, e.getMessage());
+            deleteQuietly(tmp);
+        }
+        return written;
+    }
+
+    /**
+     * Restores the entries of the snapshot, if any. Returns the number of entries restored per cache.
+     */
+    public Map<String, Integer> load() {
+        long deadline = System.nanoTime() + timeoutNanos;
+        Map<String, Integer> restored = new LinkedHashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                logger.warn("Ignoring cache snapshot {}: unknown format", file);
+                return restored;
+            }
+            int sectionCount = in.readInt();
+            for (int i = 0; i < sectionCount; i++) {
+                String name = in.readUTF();
+                Section<?> section = sections.get(name);
+                int count = 0;
+                while (in.readBoolean()) {
+                    if (System.nanoTime() >= deadline) {
+                        logger.warn("Cache snapshot {} not fully loaded in {} ms: {}", file,
+                                TimeUnit.NANOSECONDS.toMillis(timeoutNanos), restored);
+                        return restored;
+                    }
+                    String key = in.readUTF();
+                    int length = in.readInt();
+                    if (length < 0 || length > MAX_VALUE_BYTES) {
+                        throw new IOException("Malformed entry of " + name + ": " + length + " bytes");
+                    }
+                    byte[] value = new byte[length];
+                    in.readFully(value);
+                    if (section != null && count < maxEntries && section.restore(key, value)) {
+                        restored.merge(name, 1, Integer::sum);
+                        count++;
+                    }
+                }
+            }
+            logger.info("Cache snapshot {} loaded: {}", file, restored);
+        } catch (NoSuchFileException e) {
+            logger.info("No cache snapshot {} to load", file);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring the rest of cache snapshot {}: {}", file, e.getMessage());
+        }
+        return restored;
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.debug("Can't delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * A cache to snapshot along with the serializer of its entries.
+     */
+    public record Section<V>(TieredCache<V> cache, CacheEntrySerializer<V> serializer) {
+
+        private int write(DataOutputStream out, int maxEntries, long deadline) throws IOException {
+            int count = 0;
+            for (Map.Entry<String, CacheEntry<V>> entry : cache.liveEntries(maxEntries).entrySet()) {
+                if (System.nanoTime() >= deadline) {
+                    break;
+                }
+                ByteBuffer value = serializer.serialize(entry.getValue());
+                out.writeBoolean(true);
+                out.writeUTF(entry.getKey());
+                out.writeInt(value.remaining());
+                out.write(value.array(), value.arrayOffset() + value.position(), value.remaining());
+                count++;
+            }
+            return count;
+        }
+
+        private boolean restore(String key, byte[] value) {
+            return cache.restore(key, serializer.read(ByteBuffer.wrap(value)));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.inditex.product.infrastructure.adapters.cache;
+
+import org.ehcache.spi.serialization.SerializerException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads what {@link CompactWriter} writes. Doesn't change the position of the given buffer.
+ */
+final class CompactReader {
+
+    private final ByteBuffer buffer;
+
+    CompactReader(ByteBuffer buffer) {
+        this.buffer = buffer.duplicate();
+    }
+
+    long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new SerializerException("Malformed variable length long");
+    }
+
+    String readString() {
+        long length = readVarLong() - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new SerializerException("String length " + length + " exceeds the remaining " + buffer.remaining() + " bytes");
+        }
+        byte[] bytes = new byte[(int) length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    double readDouble() {
+        try {
+            return buffer.getDouble();
+        } catch (BufferUnderflowException e) {
+            throw new SerializerException("Truncated value", e);
+        }
+    }
+
+    byte readByte() {
+        return get();
+    }
+
+    private byte get() {
+        try {
+            return buffer.get();
+        } catch (BufferUnderflowException e) {
+            throw new SerializerException("Truncated value", e);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.inditex.product.infrastructure.adapters.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Bounded, access ordered, map: once it is full, putting a new entry drops the least recently used one. Guarded by a
+ * {@link ReentrantLock} instead of a monitor ({@code Collections.synchronizedMap}), so virtual threads waiting for it
+ * park and release their carrier thread instead of pinning it.
+ */
+public final class LruMap<K, V> {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<K, V> map;
+
+    public LruMap(int maxSize) {
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public V get(K key) {
+        lock.lock();
+        try {
+            return map.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The entries of the given keys that are present, looked up (and so marked as used) under a single lock.
+     */
+    public Map<K, V> getAll(Collection<K> keys) {
+        Map<K, V> present = new HashMap<>();
+        lock.lock();
+        try {
+            for (K key : keys) {
+                V value = map.get(key);
+                if (value != null) {
+                    present.put(key, value);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return present;
+    }
+
+    public void put(K key, V value) {
+        lock.lock();
+        try {
+            map.put(key, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(K key) {
+        lock.lock();
+        try {
+            map.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void removeValuesIf(Predicate<? super V> filter) {
+        lock.lock();
+        try {
+            map.values().removeIf(filter);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            map.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return map.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copy of the entries, from the least to the most recently used.
+     */
+    public List<Map.Entry<K, V>> entries() {
+        lock.lock();
+        try {
+            List<Map.Entry<K, V>> entries = new ArrayList<>(map.size());
+            map.forEach((key, value) -> entries.add(Map.entry(key, value)));
+            return entries;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.inditex.product.infrastructure.adapters.cache;
+
+import com.inditex.product.domain.model.ProductDetails;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.concurrent.Executor;
+
+import static com.inditex.product.infrastructure.adapters.config.CacheConfig.CACHE_PRODUCT;
+import static com.inditex.product.infrastructure.adapters.config.CacheConfig.CACHE_REFRESH_EXECUTOR;
+
+/**
+ * Cache for the product details: a small on-heap tier holding the hot products in front of the off-heap
+ * {@code productCache}. See {@link TieredCache}.
+ */
+@Component
+public class ProductDetailsCache extends TieredCache<ProductDetails> {
+
+    @Autowired
+    public ProductDetailsCache(CacheManager cacheManager,
+                               MeterRegistry meterRegistry,
+                               @Qualifier(CACHE_REFRESH_EXECUTOR) Executor refreshExecutor,
+                               @Value("${product.cache.details.l1.max.size:1000}") int l1MaxSize,
+                               @Value("${product.cache.details.l1.ttl:300000}") long l1TtlMillis,
+                               @Value("${product.cache.details.ttl:7200000}") long ttlMillis,
+                               @Value("${product.cache.refresh.ahead.factor:0.8}") double refreshAheadFactor,
+                               @Value("${product.cache.ttl.jitter:0.1}") double jitter,
+                               @Value("${product.cache.stale.grace:0}") long staleGraceMillis) {
+        super(CACHE_PRODUCT, cacheManager, meterRegistry, refreshExecutor, l1MaxSize, l1TtlMillis,
+                new RefreshAheadPolicy(ttlMillis, refreshAheadFactor, jitter, staleGraceMillis), Clock.systemUTC());
+    }
+}
@@ -0,0 +1,46 @@
+package com.inditex.product.infrastructure.adapters.cache;
+
+import com.inditex.product.domain.model.ProductDetails;
+
+/**
+ * Serializes the product details entries as: id and name (length-prefixed UTF-8), a flags byte (availability, price
+ * present) and the price as a primitive double. Prices are always present now, the flag is kept so the entries written
+ * before (snapshots) can still be read, a missing price being 0.
+ */
+public class ProductDetailsEntrySerializer extends CacheEntrySerializer<ProductDetails> {
+
+    private static final int AVAILABLE = 1;
+    private static final int HAS_PRICE = 1 << 1;
+
+    public ProductDetailsEntrySerializer() {
+        super(ProductDetails.class);
+    }
+
+    @Override
+    void writeValue(CompactWriter writer, ProductDetails productDetails) {
+        writeProduct(writer, productDetails);
+    }
+
+    @Override
+    ProductDetails readValue(CompactReader reader) {
+        return readProduct(reader);
+    }
+
+    static void writeProduct(CompactWriter writer, ProductDetails productDetails) {
+        if (productDetails == null) {
+            throw unexpectedValue(null);
+        }
+        writer.writeString(productDetails.id());
+        writer.writeString(productDetails.name());
+        writer.writeByte((productDetails.availability() ? AVAILABLE : 0) | HAS_PRICE);
+        writer.writeDouble(productDetails.price());
+    }
+
+    static ProductDetails readProduct(CompactReader reader) {
+        String id = reader.readString();
+        String name = reader.readString();
+        byte flags = reader.readByte();
+        double price = (flags & HAS_PRICE) != 0 ? reader.readDouble() : 0;
+        return new ProductDetails(id, name, price, (flags & AVAILABLE) != 0);
+    }
+}
@@ -0,0 +1,33 @@
+package com.inditex.product.infrastructure.adapters.cache;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Computes the refresh-ahead times of new cache entries.
+ * <p>
+ * The time to live of every entry is shortened by a random amount, up to {@code jitter} (a fraction of the TTL), so
+ * entries loaded at the same time don't expire at the same time. Entries are refreshed in the background once
+ * {@code refreshAheadFactor} (a fraction of their TTL) has elapsed, and stale entries may still be served for
+ * {@code staleGraceMillis} if they can't be reloaded.
+ */
+public record RefreshAheadPolicy(long ttlMillis, double refreshAheadFactor, double jitter, long staleGraceMillis) {
+
+    public RefreshAheadPolicy {
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("TTL must be positive");
+        }
+        if (refreshAheadFactor <= 0 || refreshAheadFactor > 1) {
+            throw new IllegalArgumentException("Refresh ahead factor must be in (0, 1]");
+        }
+        if (jitter < 0 || jitter >= 1) {
+            throw new IllegalArgumentException("Jitter must be in [0, 1)");
+        }
+        staleGraceMillis = Math.max(0, staleGraceMillis);
+    }
+
+    public <V> CacheEntry<V> newEntry(V value, long now) {
+        long ttl = jitter == 0 ? ttlMillis : (long) (ttlMillis * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+        long expiresAt = now + ttl;
+        return new CacheEntry<>(value, now, now + (long) (ttl * refreshAheadFactor), expiresAt, expiresAt + staleGraceMillis);
+    }
+}
@@ -0,0 +1,19 @@
+package com.inditex.product.infrastructure.adapters.cache;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Value of the similar products cache: the ordered ids of the similar products of a product. Their details are cached
+ * once, in the product details cache, whatever the number of lists they are in.
+ */
+public record SimilarProductIds(List<String> ids) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public SimilarProductIds {
+        ids = List.copyOf(ids);
+    }
+}
@@ -0,0 +1,57 @@
+package com.inditex.product.infrastructure.adapters.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializes the similar product ids entries as the number of ids followed by a format byte and the ids. When all of them
+ * are plain numbers (the usual case) they are written as variable length longs, otherwise as length-prefixed UTF-8.
+ */
+public class SimilarProductIdsEntrySerializer extends CacheEntrySerializer<SimilarProductIds> {
+
+    private static final int NUMERIC = 0;
+    private static final int TEXT = 1;
+    // Longest number of digits that always fits in a long
+    private static final int MAX_NUMERIC_LENGTH = 18;
+
+    public SimilarProductIdsEntrySerializer() {
+        super(SimilarProductIds.class);
+    }
+
+    @Override
+    void writeValue(CompactWriter writer, SimilarProductIds similarProductIds) {
+        List<String> ids = similarProductIds.ids();
+        writer.writeVarLong(ids.size());
+        if (ids.stream().allMatch(SimilarProductIdsEntrySerializer::isNumeric)) {
+            writer.writeByte(NUMERIC);
+            ids.forEach(id -> writer.writeVarLong(Long.parseLong(id)));
+        } else {
+            writer.writeByte(TEXT);
+            ids.forEach(writer::writeString);
+        }
+    }
+
+    @Override
+    SimilarProductIds readValue(CompactReader reader) {
+        int size = (int) reader.readVarLong();
+        boolean numeric = reader.readByte() == NUMERIC;
+        List<String> ids = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ids.add(numeric ? Long.toString(reader.readVarLong()) : reader.readString());
+        }
+        return new SimilarProductIds(ids);
+    }
+
+    // Only numbers that read back as the same string: no sign nor leading zeros
+    private static boolean isNumeric(String id) {
+        if (id.isEmpty() || id.length() > MAX_NUMERIC_LENGTH || (id.charAt(0) == '0' && id.length() > 1)) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            if (id.charAt(i) < '0' || id.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,36 @@
+package com.inditex.product.infrastructure.adapters.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.concurrent.Executor;
+
+import static com.inditex.product.infrastructure.adapters.config.CacheConfig.CACHE_PRODUCT_LIST;
+import static com.inditex.product.infrastructure.adapters.config.CacheConfig.CACHE_REFRESH_EXECUTOR;
+
+/**
+ * Cache for the ids of the similar products of a product, backed by the off-heap {@code similarProductsCache}. The
+ * product details are looked up in the {@link ProductDetailsCache}. See {@link TieredCache}.
+ */
+@Component
+public class SimilarProductsCache extends TieredCache<SimilarProductIds> {
+
+    @Autowired
+    public SimilarProductsCache(CacheManager cacheManager,
+                                MeterRegistry meterRegistry,
+                                @Qualifier(CACHE_REFRESH_EXECUTOR) Executor refreshExecutor,
+                                @Value("${product.cache.similar.l1.max.size:500}") int l1MaxSize,
+                                @Value("${product.cache.similar.l1.ttl:300000}") long l1TtlMillis,
+                                @Value("${product.cache.similar.ttl:3600000}") long ttlMillis,
+                                @Value("${product.cache.refresh.ahead.factor:0.8}") double refreshAheadFactor,
+                                @Value("${product.cache.ttl.jitter:0.1}") double jitter,
+                                @Value("${product.cache.stale.grace:0}") long staleGraceMillis) {
+        super(CACHE_PRODUCT_LIST, cacheManager, meterRegistry, refreshExecutor, l1MaxSize, l1TtlMillis,
+                new RefreshAheadPolicy(ttlMillis, refreshAheadFactor, jitter, staleGraceMillis), Clock.systemUTC());
+    }
+}
@@ -0,0 +1,445 @@
+package com.inditex.product.infrastructure.adapters.cache;
+
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Two tier, refresh-ahead, cache.
+ * <ul>
+ *     <li>L1: small, bounded (LRU) on-heap map holding the hot, already deserialized, entries. Entries stay in L1 for a
+ *     short time only, so they never outlive the L2 ones by much. A size of 0 disables it</li>
+ *     <li>L2: one of the off-heap caches configured in {@link com.inditex.product.infrastructure.adapters.config.CacheConfig}</li>
+ * </ul>
+ * Entries are created by a {@link RefreshAheadPolicy}. Reading an entry past its refresh time returns it and triggers one
+ * background reload. An expired entry is reloaded before being returned but, if that fails because the upstream is failing
+ * (anything but the product not being found), it is still served during its stale grace period.
+ * <p>
+ * Hits and misses are counted per tier and published as meters, along with refreshes and stale hits.
+ */
+public class TieredCache<V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TieredCache.class);
+
+    private static final String METER_GETS = "cache.tier.gets";
+    private static final String METER_HIT_RATIO = "cache.tier.hit.ratio";
+
+    private final String name;
+    private final LruMap<String, L1Entry<V>> l1;
+    private final Cache l2;
+    private final long l1TtlMillis;
+    private final RefreshAheadPolicy policy;
+    private final Executor refreshExecutor;
+    private final Clock clock;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final Map<String, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    private final List<InvalidationListener> invalidationListeners = new CopyOnWriteArrayList<>();
+
+    private final LongAdder l1Hits = new LongAdder();
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+
+    public TieredCache(String name, CacheManager cacheManager, MeterRegistry meterRegistry, Executor refreshExecutor,
+                       int l1MaxSize, long l1TtlMillis, RefreshAheadPolicy policy, Clock clock) {
+        this.name = name;
+        this.l2 = Objects.requireNonNull(cacheManager.getCache(name), "Missing cache " + name);
+        this.l1 = new LruMap<>(l1MaxSize);
+        this.l1TtlMillis = l1TtlMillis;
+        this.policy = policy;
+        this.refreshExecutor = refreshExecutor;
+        this.clock = clock;
+        registerMeters(meterRegistry);
+    }
+
+    /**
+     * Returns the value for the given key looking it up, in order, in L1, L2 and finally using the loader.
+     * Loaded values are stored in both tiers. Null values are never cached.
+     */
+    public V get(String key, Function<String, V> loader) {
+        long now = clock.millis();
+        CacheEntry<V> entry = lookup(key, now);
+        if (entry == null) {
+            misses.increment();
+            return load(key, loader, now);
+        }
+
+        if (entry.isExpired(now)) {
+            return reloadExpired(key, entry, loader, now);
+        }
+        if (entry.needsRefresh(now)) {
+            refreshAsync(key, loader);
+        }
+        return entry.value();
+    }
+
+    /**
+     * Non-blocking {@link #get(String, Function)}, for loaders that don't block either: the value is looked up the same
+     * way and, when it has to be loaded, it is completed once the loader's stage completes (an expired entry is still
+     * served during its stale grace period if that fails). Concurrent loads of the same key share a single loader
+     * call, and refreshes ahead are made with the asynchronous loader too, without taking a refresh thread.
+     */
+    public CompletableFuture<V> getAsync(String key, Function<String, ? extends CompletionStage<V>> loader) {
+        long now = clock.millis();
+        CacheEntry<V> entry = lookup(key, now);
+        if (entry == null) {
+            misses.increment();
+            return loadAsync(key, loader);
+        }
+
+        if (entry.isExpired(now)) {
+            return loadAsync(key, loader).exceptionallyCompose(e -> {
+                RuntimeException cause = unwrap(e);
+                if (cause instanceof ProductNotFoundException || !entry.isServableWhenStale(clock.millis())) {
+                    return CompletableFuture.failedFuture(cause);
+                }
+                staleHits.increment();
+                logger.warn("Serving stale entry [{}] from cache [{}]: {}", key, name, cause.getMessage());
+                return CompletableFuture.completedFuture(entry.value());
+            });
+        }
+        if (entry.needsRefresh(now) && refreshing.add(key)) {
+            refreshes.increment();
+            loadAsync(key, loader).whenComplete((value, e) -> {
+                refreshing.remove(key);
+                if (e != null) {
+                    logger.warn("Error refreshing entry [{}] of cache [{}]: {}", key, name, unwrap(e).getMessage());
+                }
+            });
+        }
+        return CompletableFuture.completedFuture(entry.value());
+    }
+
+    /**
+     * Batched lookup of the given keys: L1 is looked up for all of them at once, then L2 for the ones missing in L1.
+     * Returns the values that can be served right away, triggering the background reload of those past their refresh
+     * time. Missing and expired keys are left out, to be loaded with {@link #get(String, Function)} (which counts them
+     * as misses).
+     */
+    public Map<String, V> getAllPresent(Collection<String> keys, Function<String, V> loader) {
+        long now = clock.millis();
+        Map<String, V> values = new HashMap<>();
+        List<String> l1Misses = new ArrayList<>();
+        List<String> toRefresh = new ArrayList<>();
+        Set<String> distinctKeys = new LinkedHashSet<>(keys);
+        Map<String, L1Entry<V>> l1Entries = l1.getAll(distinctKeys);
+        for (String key : distinctKeys) {
+            L1Entry<V> l1Entry = l1Entries.get(key);
+            if (l1Entry != null && now < l1Entry.expiresAt() && !l1Entry.entry().isExpired(now)) {
+                l1Hits.increment();
+                addPresent(key, l1Entry.entry(), now, values, toRefresh);
+            } else {
+                l1Misses.add(key);
+            }
+        }
+
+        for (String key : l1Misses) {
+            @SuppressWarnings("unchecked")
+            CacheEntry<V> entry = l2.get(key, CacheEntry.class);
+            if (entry != null && !entry.isExpired(now)) {
+                l2Hits.increment();
+                putL1(key, entry, now);
+                addPresent(key, entry, now, values, toRefresh);
+            }
+        }
+
+        toRefresh.forEach(key -> refreshAsync(key, loader));
+        return values;
+    }
+
+    public void evict(String key) {
+        l1.remove(key);
+        l2.evict(key);
+        invalidationListeners.forEach(listener -> listener.evicted(key));
+    }
+
+    public void clear() {
+        l1.clear();
+        l2.clear();
+        invalidationListeners.forEach(InvalidationListener::cleared);
+    }
+
+    /**
+     * Registers a listener of the entries explicitly evicted or cleared, for anything derived from them to be dropped
+     * too. Entries replaced by a reload are not notified: they are new instances.
+     */
+    public void addInvalidationListener(InvalidationListener listener) {
+        invalidationListeners.add(listener);
+    }
+
+    /**
+     * Copies the live (not expired) entries, at most {@code maxEntries} of them: the hot ones (L1, most recently used
+     * first) and then the rest of L2.
+     */
+    public Map<String, CacheEntry<V>> liveEntries(int maxEntries) {
+        long now = clock.millis();
+        Map<String, CacheEntry<V>> entries = new LinkedHashMap<>();
+        List<Map.Entry<String, L1Entry<V>>> hot = l1.entries();
+        Collections.reverse(hot);
+        for (Map.Entry<String, L1Entry<V>> l1Entry : hot) {
+            addLive(entries, l1Entry.getKey(), l1Entry.getValue().entry(), now, maxEntries);
+        }
+
+        Iterator<Map.Entry<String, CacheEntry<V>>> l2Entries = l2Entries();
+        while (entries.size() < maxEntries && l2Entries.hasNext()) {
+            Map.Entry<String, CacheEntry<V>> l2Entry = l2Entries.next();
+            addLive(entries, l2Entry.getKey(), l2Entry.getValue(), now, maxEntries);
+        }
+        return entries;
+    }
+
+    /**
+     * Puts an entry copied by {@link #liveEntries(int)} back into L2, unless it has expired since or the key has been
+     * cached in the meantime. Returns whether it was restored.
+     */
+    public boolean restore(String key, CacheEntry<V> entry) {
+        if (entry.isExpired(clock.millis())) {
+            return false;
+        }
+        return l2.putIfAbsent(key, entry) == null;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Stats stats() {
+        return new Stats(l1Hits.sum(), l2Hits.sum(), misses.sum(), refreshes.sum(), staleHits.sum());
+    }
+
+    @SuppressWarnings("unchecked")
+    private CacheEntry<V> lookup(String key, long now) {
+        L1Entry<V> l1Entry = l1.get(key);
+        if (l1Entry != null) {
+            if (now < l1Entry.expiresAt()) {
+                l1Hits.increment();
+                return l1Entry.entry();
+            }
+            l1.remove(key);
+        }
+
+        CacheEntry<V> entry = l2.get(key, CacheEntry.class);
+        if (entry != null) {
+            l2Hits.increment();
+            putL1(key, entry, now);
+        }
+        return entry;
+    }
+
+    private void addLive(Map<String, CacheEntry<V>> entries, String key, CacheEntry<V> entry, long now, int maxEntries) {
+        if (entries.size() < maxEntries && entry != null && !entry.isExpired(now)) {
+            entries.putIfAbsent(key, entry);
+        }
+    }
+
+    // The off-heap caches are JCache ones, the tests use ConcurrentMap ones
+    @SuppressWarnings("unchecked")
+    private Iterator<Map.Entry<String, CacheEntry<V>>> l2Entries() {
+        Object nativeCache = l2.getNativeCache();
+        if (nativeCache instanceof javax.cache.Cache<?, ?> jCache) {
+            Iterator<? extends javax.cache.Cache.Entry<?, ?>> iterator = jCache.iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Map.Entry<String, CacheEntry<V>> next() {
+                    javax.cache.Cache.Entry<?, ?> entry = iterator.next();
+                    return Map.entry((String) entry.getKey(), (CacheEntry<V>) entry.getValue());
+                }
+            };
+        }
+        if (nativeCache instanceof Map<?, ?> map) {
+            return ((Map<String, CacheEntry<V>>) map).entrySet().iterator();
+        }
+        throw new UnsupportedOperationException("Can't iterate over cache " + name + " of type " + nativeCache.getClass().getName());
+    }
+
+    private void addPresent(String key, CacheEntry<V> entry, long now, Map<String, V> values, List<String> toRefresh) {
+        values.put(key, entry.value());
+        if (entry.needsRefresh(now)) {
+            toRefresh.add(key);
+        }
+    }
+
+    private V load(String key, Function<String, V> loader, long now) {
+        V value = loader.apply(key);
+        if (value != null) {
+            CacheEntry<V> entry = policy.newEntry(value, now);
+            l2.put(key, entry);
+            putL1(key, entry, now);
+        }
+        return value;
+    }
+
+    // A product no longer found is evicted, like when reloading synchronously. Joining a load in flight makes no new call
+    private CompletableFuture<V> loadAsync(String key, Function<String, ? extends CompletionStage<V>> loader) {
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loading.putIfAbsent(key, load);
+        if (inFlight != null) {
+            return inFlight;
+        }
+        CompletionStage<V> stage;
+        try {
+            stage = loader.apply(key);
+        } catch (RuntimeException e) {
+            stage = CompletableFuture.failedFuture(e);
+        }
+        stage.whenComplete((value, e) -> {
+            loading.remove(key, load);
+            if (e == null) {
+                if (value != null) {
+                    long now = clock.millis();
+                    CacheEntry<V> entry = policy.newEntry(value, now);
+                    l2.put(key, entry);
+                    putL1(key, entry, now);
+                }
+                load.complete(value);
+                return;
+            }
+            RuntimeException cause = unwrap(e);
+            if (cause instanceof ProductNotFoundException) {
+                evict(key);
+            }
+            load.completeExceptionally(cause);
+        });
+        return load;
+    }
+
+    private static RuntimeException unwrap(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        return cause instanceof RuntimeException runtimeException ? runtimeException : new CompletionException(cause);
+    }
+
+    private V reloadExpired(String key, CacheEntry<V> stale, Function<String, V> loader, long now) {
+        try {
+            return load(key, loader, now);
+        } catch (ProductNotFoundException e) {
+            evict(key);
+            throw e;
+        } catch (RuntimeException e) {
+            if (!stale.isServableWhenStale(now)) {
+                throw e;
+            }
+            staleHits.increment();
+            logger.warn("Serving stale entry [{}] from cache [{}]: {}", key, name, e.getMessage());
+            return stale.value();
+        }
+    }
+
+    private void refreshAsync(String key, Function<String, V> loader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refreshes.increment();
+                    load(key, loader, clock.millis());
+                } catch (ProductNotFoundException e) {
+                    evict(key);
+                } catch (RuntimeException e) {
+                    logger.warn("Error refreshing entry [{}] of cache [{}]: {}", key, name, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Refresh queue full, a later read will try again
+            refreshing.remove(key);
+        }
+    }
+
+    private void putL1(String key, CacheEntry<V> entry, long now) {
+        l1.put(key, new L1Entry<>(entry, now + l1TtlMillis));
+    }
+
+    private void registerMeters(MeterRegistry meterRegistry) {
+        registerCounter(meterRegistry, METER_GETS, l1Hits, "tier", "l1", "result", "hit");
+        registerCounter(meterRegistry, METER_GETS, l2Hits, "tier", "l2", "result", "hit");
+        registerCounter(meterRegistry, METER_GETS, misses, "tier", "l2", "result", "miss");
+        registerCounter(meterRegistry, "cache.refreshes", refreshes);
+        registerCounter(meterRegistry, "cache.stale.hits", staleHits);
+        Gauge.builder(METER_HIT_RATIO, this, cache -> cache.stats().l1HitRatio())
+                .tags("cache", name, "tier", "l1")
+                .register(meterRegistry);
+        Gauge.builder(METER_HIT_RATIO, this, cache -> cache.stats().l2HitRatio())
+                .tags("cache", name, "tier", "l2")
+                .register(meterRegistry);
+        Gauge.builder("cache.tier.size", l1, LruMap::size)
+                .tags("cache", name, "tier", "l1")
+                .register(meterRegistry);
+    }
+
+    private void registerCounter(MeterRegistry meterRegistry, String meter, LongAdder counter, String... tags) {
+        FunctionCounter.builder(meter, counter, LongAdder::sum)
+                .tag("cache", name)
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    private record L1Entry<V>(CacheEntry<V> entry, long expiresAt) {
+    }
+
+    /**
+     * Notified when an entry is explicitly evicted, or the whole cache is cleared.
+     */
+    public interface InvalidationListener {
+
+        void evicted(String key);
+
+        void cleared();
+    }
+
+    /**
+     * Snapshot of the cache counters. The L2 hit ratio is relative to the lookups that reached L2 (L1 misses).
+     */
+    public record Stats(long l1Hits, long l2Hits, long misses, long refreshes, long staleHits) {
+
+        public long requests() {
+            return l1Hits + l2Hits + misses;
+        }
+
+        public double l1HitRatio() {
+            return ratio(l1Hits, requests());
+        }
+
+        public double l2HitRatio() {
+            return ratio(l2Hits, l2Hits + misses);
+        }
+
+        private static double ratio(long hits, long total) {
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+}
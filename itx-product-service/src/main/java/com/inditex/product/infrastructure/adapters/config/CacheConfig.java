@@ -1,21 +1,33 @@
 package com.inditex.product.infrastructure.adapters.config;
 
-import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.infrastructure.adapters.cache.CacheEntry;
+import com.inditex.product.infrastructure.adapters.cache.CacheEntryExpiryPolicy;
 import com.inditex.product.infrastructure.adapters.cache.CacheEventLogger;
+import com.inditex.product.infrastructure.adapters.cache.CacheSnapshot;
+import com.inditex.product.infrastructure.adapters.cache.ProductDetailsCache;
+import com.inditex.product.infrastructure.adapters.cache.ProductDetailsEntrySerializer;
+import com.inditex.product.infrastructure.adapters.cache.SimilarProductIdsEntrySerializer;
+import com.inditex.product.infrastructure.adapters.cache.SimilarProductsCache;
 import org.ehcache.config.builders.CacheConfigurationBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 import javax.cache.CacheManager;
 import javax.cache.configuration.Configuration;
-import java.time.Duration;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static javax.cache.Caching.getCachingProvider;
 import static org.ehcache.config.builders.CacheConfigurationBuilder.newCacheConfigurationBuilder;
 import static org.ehcache.config.builders.CacheEventListenerConfigurationBuilder.newEventListenerConfiguration;
-import static org.ehcache.config.builders.ExpiryPolicyBuilder.timeToLiveExpiration;
 import static org.ehcache.config.builders.ResourcePoolsBuilder.newResourcePoolsBuilder;
 import static org.ehcache.config.units.MemoryUnit.MB;
 import static org.ehcache.event.EventType.*;
@@ -27,19 +39,34 @@ public class CacheConfig {
 
     public static final String CACHE_PRODUCT_LIST = "similarProductsCache";
     public static final String CACHE_PRODUCT = "productCache";
+    public static final String CACHE_REFRESH_EXECUTOR = "cacheRefreshExecutor";
     private final CacheEventLogger listener;
 
+    @Value("${product.cache.refresh.pool.size:4}")
+    private Integer refreshPoolSize;
+    @Value("${product.cache.refresh.queue.size:1000}")
+    private Integer refreshQueueSize;
+    @Value("${product.cache.snapshot.file:cache/snapshot.bin}")
+    private String snapshotFile;
+    @Value("${product.cache.snapshot.max.entries:10000}")
+    private Integer snapshotMaxEntries;
+    @Value("${product.cache.snapshot.timeout:2000}")
+    private Long snapshotTimeout;
+
     @Autowired
     public CacheConfig(CacheEventLogger listener) {
         this.listener = listener;
     }
 
+    // The entries carry their own (refresh-ahead) expiry times, see the product.cache.* properties. Values are stored
+    // off-heap with compact, per cache, serializers instead of Java serialization
     @Bean
-    public Configuration<String, ProductDetails> productDetailsConfiguration() {
-        CacheConfigurationBuilder<String, ProductDetails> productDetailsConfiguration = newCacheConfigurationBuilder(
-                String.class, ProductDetails.class,
+    public Configuration<String, CacheEntry> productDetailsConfiguration() {
+        CacheConfigurationBuilder<String, CacheEntry> productDetailsConfiguration = newCacheConfigurationBuilder(
+                String.class, CacheEntry.class,
                 newResourcePoolsBuilder().offheap(10, MB).build())
-                .withExpiry(timeToLiveExpiration(Duration.ofHours(2)))
+                .withExpiry(new CacheEntryExpiryPolicy())
+                .withValueSerializer(new ProductDetailsEntrySerializer())
                 .withService(newEventListenerConfiguration(listener, CREATED, EXPIRED, REMOVED)
                         .asynchronous()
                         .unordered()
@@ -49,11 +76,12 @@ public class CacheConfig {
     }
 
     @Bean
-    public Configuration<String, List> productListConfiguration() {
-        CacheConfigurationBuilder<String, List> configuration = newCacheConfigurationBuilder(
-                String.class, List.class,
+    public Configuration<String, CacheEntry> productListConfiguration() {
+        CacheConfigurationBuilder<String, CacheEntry> configuration = newCacheConfigurationBuilder(
+                String.class, CacheEntry.class,
                 newResourcePoolsBuilder().offheap(20, MB).build())
-                .withExpiry(timeToLiveExpiration(Duration.ofHours(1)))
+                .withExpiry(new CacheEntryExpiryPolicy())
+                .withValueSerializer(new SimilarProductIdsEntrySerializer())
                 .withService(newEventListenerConfiguration(listener, CREATED, EXPIRED, REMOVED)
                         .asynchronous()
                         .unordered()
@@ -63,10 +91,31 @@ public class CacheConfig {
     }
 
     @Bean
-    public CacheManager ehCacheManager(Configuration<String, ProductDetails> productDetailsConfiguration, Configuration<String, List> productListConfiguration) {
+    public CacheManager ehCacheManager(Configuration<String, CacheEntry> productDetailsConfiguration, Configuration<String, CacheEntry> productListConfiguration) {
         CacheManager cacheManager = getCachingProvider().getCacheManager();
         cacheManager.createCache(CACHE_PRODUCT_LIST, productListConfiguration);
         cacheManager.createCache(CACHE_PRODUCT, productDetailsConfiguration);
+        // Hits, misses, puts, removals and evictions of the off-heap tier, published as the cache.* meters
+        cacheManager.enableStatistics(CACHE_PRODUCT_LIST, true);
+        cacheManager.enableStatistics(CACHE_PRODUCT, true);
         return cacheManager;
     }
+
+    // Written on shutdown and loaded on startup, so restarts don't begin with empty caches
+    @Bean
+    @ConditionalOnProperty(name = "product.cache.snapshot.enabled", havingValue = "true")
+    public CacheSnapshot cacheSnapshot(SimilarProductsCache similarProductsCache, ProductDetailsCache productDetailsCache) {
+        return new CacheSnapshot(Path.of(snapshotFile), List.of(
+                new CacheSnapshot.Section<>(similarProductsCache, new SimilarProductIdsEntrySerializer()),
+                new CacheSnapshot.Section<>(productDetailsCache, new ProductDetailsEntrySerializer())),
+                snapshotMaxEntries, snapshotTimeout);
+    }
+
+    // Runs the refresh-ahead reloads. When the queue is full the refresh is skipped, a later read will trigger it again
+    @Bean(name = CACHE_REFRESH_EXECUTOR, destroyMethod = "shutdownNow")
+    public ExecutorService cacheRefreshExecutor() {
+        return new ThreadPoolExecutor(refreshPoolSize, refreshPoolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(refreshQueueSize), new CustomizableThreadFactory("cache-refresh-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
 }
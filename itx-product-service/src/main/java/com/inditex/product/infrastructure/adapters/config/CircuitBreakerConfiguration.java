@@ -1,36 +1,59 @@
 package com.inditex.product.infrastructure.adapters.config;
 
-import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.timelimiter.TimeLimiterConfig;
-import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
-import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JConfigBuilder;
-import org.springframework.cloud.client.circuitbreaker.Customizer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.core.registry.EntryAddedEvent;
+import io.github.resilience4j.core.registry.EntryRemovedEvent;
+import io.github.resilience4j.core.registry.EntryReplacedEvent;
+import io.github.resilience4j.core.registry.RegistryEventConsumer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.time.Duration;
-
+/**
+ * The circuit breakers of the upstream calls are the ones of the resilience4j registry, configured by the
+ * {@code resilience4j.circuitbreaker.*} properties (see {@code ResilientCalls}). Calls are bounded by the client
+ * timeouts and the request deadline, not by a time limiter.
+ */
 @Configuration
 public class CircuitBreakerConfiguration {
 
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreakerConfiguration.class);
+
+    // Counts (and logs) the state transitions of every circuit breaker of the registry. The current state is already
+    // published by resilience4j, as resilience4j.circuitbreaker.state
     @Bean
-    public Customizer<Resilience4JCircuitBreakerFactory> defaultCustomizer() {
+    public RegistryEventConsumer<CircuitBreaker> circuitBreakerTransitions(MeterRegistry meterRegistry) {
+        return new RegistryEventConsumer<>() {
+            @Override
+            public void onEntryAddedEvent(EntryAddedEvent<CircuitBreaker> event) {
+                countTransitions(event.getAddedEntry(), meterRegistry);
+            }
 
-        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
-                .failureRateThreshold(50)
-                .waitDurationInOpenState(Duration.ofSeconds(10))
-                .slidingWindowSize(50)
-                .minimumNumberOfCalls(20)
-                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
-                .build();
+            @Override
+            public void onEntryRemovedEvent(EntryRemovedEvent<CircuitBreaker> event) {
+            }
 
-        TimeLimiterConfig timeLimiterConfig = TimeLimiterConfig.custom()
-                .timeoutDuration(Duration.ofSeconds(1))
-                .build();
+            @Override
+            public void onEntryReplacedEvent(EntryReplacedEvent<CircuitBreaker> event) {
+                countTransitions(event.getNewEntry(), meterRegistry);
+            }
+        };
+    }
 
-        return factory -> factory.configureDefault(id -> new Resilience4JConfigBuilder(id)
-                .timeLimiterConfig(timeLimiterConfig)
-                .circuitBreakerConfig(circuitBreakerConfig)
-                .build());
+    private static void countTransitions(CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            CircuitBreaker.StateTransition transition = event.getStateTransition();
+            logger.warn("Circuit breaker [{}] {}", circuitBreaker.getName(), transition);
+            Counter.builder("resilience4j.circuitbreaker.transitions")
+                    .description("Circuit breaker state transitions")
+                    .tags("name", circuitBreaker.getName(),
+                            "from", transition.getFromState().name(),
+                            "to", transition.getToState().name())
+                    .register(meterRegistry)
+                    .increment();
+        });
     }
 }
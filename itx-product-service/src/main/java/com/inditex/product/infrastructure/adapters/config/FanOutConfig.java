@@ -0,0 +1,47 @@
+package com.inditex.product.infrastructure.adapters.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor used by the product service to fetch the details of the similar products concurrently.
+ * <p>
+ * By default it is a bounded pool sized after the outbound connection pool. When running on a JDK with virtual
+ * threads (21+) it can be switched to a thread-per-task executor backed by virtual threads, on its own
+ * ({@code product.fanout.virtual.threads}) or along with the request handling ({@code spring.threads.virtual.enabled}).
+ */
+@Configuration
+public class FanOutConfig {
+
+    public static final String FAN_OUT_EXECUTOR = "productFanOutExecutor";
+
+    private static final String THREAD_NAME_PREFIX = "product-fan-out-";
+
+    @Value("${product.fanout.pool.size:50}")
+    private Integer poolSize;
+    @Value("${product.fanout.virtual.threads:false}")
+    private boolean virtualThreads;
+
+    @Bean(name = FAN_OUT_EXECUTOR, destroyMethod = "shutdownNow")
+    public ExecutorService productFanOutExecutor(Environment environment) {
+        if (virtualThreads || Threading.VIRTUAL.isActive(environment)) {
+            ThreadFactory factory = new VirtualThreadTaskExecutor(THREAD_NAME_PREFIX).getVirtualThreadFactory();
+            // No core threads and no keep alive: every task gets its own (cheap) virtual thread
+            return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 0L, TimeUnit.SECONDS, new SynchronousQueue<>(), factory);
+        }
+        return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory(THREAD_NAME_PREFIX));
+    }
+}
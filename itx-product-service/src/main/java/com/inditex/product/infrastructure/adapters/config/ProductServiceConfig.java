@@ -0,0 +1,17 @@
+package com.inditex.product.infrastructure.adapters.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Settings of the product service, read from the {@code product.*} properties.
+ */
+@Configuration
+public class ProductServiceConfig {
+
+    @Bean
+    public ProductServiceProperties productServiceProperties(Environment environment) {
+        return ProductServiceProperties.from(environment);
+    }
+}
@@ -0,0 +1,53 @@
+package com.inditex.product.infrastructure.adapters.config;
+
+import com.inditex.product.domain.model.DegradationPolicy;
+import org.springframework.core.env.PropertyResolver;
+
+import java.time.Duration;
+
+/**
+ * Settings of the similar products lookups ({@code product.*}): how the product details are fanned out, the batch and
+ * streamed requests, and what a list does with the products that can't be looked up. Durations are set in
+ * milliseconds.
+ *
+ * @param fanout      {@code product.fanout.*}: whether the product details are fetched concurrently, and at most how
+ *                    many at once per request
+ * @param batch       {@code product.batch.*}: max product ids per batch, and deadline of the whole batch
+ * @param stream      {@code product.stream.*}: whether products are streamed in the order of the similar ids or as
+ *                    they complete, and deadline after which the pending ones are reported as failures
+ * @param degradation {@code product.degradation.*}: policy of the lists, and per product latency cutoff of
+ *                    {@code skip-missing-and-slow}
+ */
+public record ProductServiceProperties(FanOut fanout, Batch batch, Stream stream, Degradation degradation) {
+
+    public record FanOut(boolean enabled, int maxConcurrency) {
+    }
+
+    public record Batch(int maxSize, Duration timeout) {
+    }
+
+    public record Stream(boolean inOrder, Duration timeout) {
+    }
+
+    public record Degradation(DegradationPolicy policy, Duration slowCutoff) {
+    }
+
+    /**
+     * The settings set in the given properties, or their defaults.
+     */
+    public static ProductServiceProperties from(PropertyResolver properties) {
+        return new ProductServiceProperties(
+                new FanOut(properties.getProperty("product.fanout.enabled", Boolean.class, true),
+                        properties.getProperty("product.fanout.max.concurrency", Integer.class, 8)),
+                new Batch(properties.getProperty("product.batch.max.size", Integer.class, 50),
+                        millis(properties, "product.batch.timeout", 3000)),
+                new Stream(properties.getProperty("product.stream.in.order", Boolean.class, true),
+                        millis(properties, "product.stream.timeout", 10000)),
+                new Degradation(DegradationPolicy.of(properties.getProperty("product.degradation.policy", "strict")),
+                        millis(properties, "product.degradation.slow.cutoff", 1000)));
+    }
+
+    private static Duration millis(PropertyResolver properties, String key, long defaultValue) {
+        return Duration.ofMillis(properties.getProperty(key, Long.class, defaultValue));
+    }
+}
@@ -0,0 +1,119 @@
+package com.inditex.product.infrastructure.adapters.config;
+
+import com.inditex.product.domain.model.ports.output.SimilarProducts;
+import com.inditex.product.infrastructure.adapters.out.client.coalescing.CoalescingSimilarProducts;
+import com.inditex.product.infrastructure.adapters.out.client.hedging.HedgingSimilarProducts;
+import com.inditex.product.infrastructure.adapters.out.client.limit.ConcurrencyLimitingSimilarProducts;
+import com.inditex.product.infrastructure.adapters.out.client.metrics.TimedSimilarProducts;
+import com.inditex.product.infrastructure.adapters.out.client.negative.NegativeCachingSimilarProducts;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Clock;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the {@link SimilarProducts} port used by the application, decorating the upstream client adapter selected by
+ * {@code simulado.api.client}: the REST one on Apache HttpClient5 ({@code apache}) or the JDK HTTP/2 one ({@code jdk}).
+ * From the outermost to the innermost decorator:
+ * <ol>
+ *     <li>Negative cache: failed calls are answered locally for a short time</li>
+ *     <li>Coalescing: one in flight call per product id</li>
+ *     <li>Hedging (opt-in): slow calls are sent twice, the first response wins</li>
+ *     <li>Concurrency limit: calls over the adaptive limit of the operation are rejected</li>
+ *     <li>Timing: every call actually made to the upstream API is timed</li>
+ * </ol>
+ */
+@Configuration
+public class SimilarProductsConfig {
+
+    public static final String HEDGING_EXECUTOR = "hedgingExecutor";
+    public static final String SIMULADO_CLIENT = "simuladoSimilarProducts";
+
+    @Value("${product.coalescing.enabled:true}")
+    private boolean coalescingEnabled;
+    @Value("${product.negative.cache.enabled:true}")
+    private boolean negativeCacheEnabled;
+    @Value("${product.negative.cache.not.found.ttl:30000}")
+    private Long negativeCacheNotFoundTtl;
+    @Value("${product.negative.cache.error.ttl:2000}")
+    private Long negativeCacheErrorTtl;
+    @Value("${product.negative.cache.max.size:10000}")
+    private Integer negativeCacheMaxSize;
+    @Value("${product.hedging.enabled:false}")
+    private boolean hedgingEnabled;
+    @Value("${product.hedging.delay:0}")
+    private Long hedgingDelay;
+    @Value("${product.hedging.min.delay:50}")
+    private Long hedgingMinDelay;
+    @Value("${product.hedging.percentile:0.95}")
+    private Double hedgingPercentile;
+    @Value("${product.hedging.budget:0.1}")
+    private Double hedgingBudget;
+    @Value("${product.hedging.pool.size:200}")
+    private Integer hedgingPoolSize;
+    @Value("${product.limiter.enabled:true}")
+    private boolean limiterEnabled;
+    // The pool size if not set: the limit starts open and shrinks as latency grows
+    @Value("${product.limiter.initial.limit:#{null}}")
+    private Integer limiterInitialLimit;
+    @Value("${product.limiter.min.limit:2}")
+    private Integer limiterMinLimit;
+    @Value("${product.limiter.tolerance:1.5}")
+    private Double limiterTolerance;
+    // Never more calls than connections, so they don't queue for one
+    @Value("${simulado.api.product.detail.pool.size:50}")
+    private Integer productDetailPoolSize;
+    @Value("${simulado.api.similar.ids.pool.size:25}")
+    private Integer similarIdsPoolSize;
+
+    @Bean
+    @Primary
+    public SimilarProducts similarProducts(@Qualifier(SIMULADO_CLIENT) SimilarProducts simuladoClient, MeterRegistry meterRegistry,
+                                           @Qualifier(HEDGING_EXECUTOR) ObjectProvider<ExecutorService> hedgingExecutor) {
+        SimilarProducts similarProducts = new TimedSimilarProducts(simuladoClient, meterRegistry);
+        if (limiterEnabled) {
+            similarProducts = new ConcurrencyLimitingSimilarProducts(similarProducts, meterRegistry,
+                    limiterInitialLimit == null ? Integer.MAX_VALUE : limiterInitialLimit, limiterMinLimit,
+                    limiterTolerance, productDetailPoolSize, similarIdsPoolSize);
+        }
+        if (hedgingEnabled) {
+            similarProducts = new HedgingSimilarProducts(similarProducts, hedgingExecutor.getObject(), meterRegistry,
+                    hedgingDelay, hedgingMinDelay, hedgingPercentile, hedgingBudget);
+        }
+        if (coalescingEnabled) {
+            similarProducts = new CoalescingSimilarProducts(similarProducts, meterRegistry);
+        }
+        if (negativeCacheEnabled) {
+            similarProducts = new NegativeCachingSimilarProducts(similarProducts, meterRegistry, negativeCacheNotFoundTtl,
+                    negativeCacheErrorTtl, negativeCacheMaxSize, Clock.systemUTC());
+        }
+        return similarProducts;
+    }
+
+    // Runs the upstream calls when hedging, so the caller can fire the hedge while the first call is still running.
+    // When it's exhausted calls are made on the caller thread, without hedging. Virtual threads when requests are
+    // handled on them too, still bounded by the pool size
+    @Bean(name = HEDGING_EXECUTOR, destroyMethod = "shutdownNow")
+    @ConditionalOnProperty(name = "product.hedging.enabled", havingValue = "true")
+    public ExecutorService hedgingExecutor(Environment environment) {
+        ThreadFactory threadFactory = Threading.VIRTUAL.isActive(environment)
+                ? new VirtualThreadTaskExecutor("hedging-").getVirtualThreadFactory()
+                : new CustomizableThreadFactory("hedging-");
+        return new ThreadPoolExecutor(0, hedgingPoolSize, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory);
+    }
+}
@@ -0,0 +1,25 @@
+package com.inditex.product.infrastructure.adapters.in;
+
+/**
+ * Validation of the product ids of the requests, shared by the servlet and the reactive adapters.
+ */
+final class ProductIds {
+
+    private ProductIds() {
+    }
+
+    static void validate(String productId) throws IllegalArgumentException {
+        if (!isValid(productId)) {
+            throw new IllegalArgumentException("Invalid productId");
+        }
+    }
+
+    static boolean isValid(String productId) {
+        try {
+            Integer.parseInt(productId);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -1,39 +1,217 @@
 package com.inditex.product.infrastructure.adapters.in;
 
 import com.inditex.product.application.ports.input.SimilarProductsUseCase;
-import com.inditex.product.infrastructure.adapters.in.dto.ProductDetailsDTO;
+import com.inditex.product.domain.model.PartialSimilarProducts;
+import com.inditex.product.domain.model.PartialSimilarProducts.Omission;
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.domain.model.SimilarProductsResult;
+import com.inditex.product.infrastructure.adapters.in.dto.ProductFailureDTO;
+import com.inditex.product.infrastructure.adapters.in.dto.SimilarProductsResultDTO;
+import com.inditex.product.infrastructure.adapters.in.dto.SimilarProductsTrailerDTO;
+import com.inditex.product.shared.deadline.RequestDeadline;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import static com.inditex.product.infrastructure.adapters.in.mapper.ProductDTOMapper.MAPPER;
+import static com.inditex.product.infrastructure.adapters.in.exception.RestAdapterExceptionHandler.messageOf;
+import static com.inditex.product.infrastructure.adapters.in.exception.RestAdapterExceptionHandler.statusOf;
 
+// The servlet (default) mode. See ReactiveProductRestAdapter for the reactive one
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/product")
 public class ProductRestAdapter {
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final String OMITTED_PRODUCTS = "X-Omitted-Products";
+    public static final String OMITTED_REASONS = "X-Omitted-Reasons";
+
+    private static final StreamFormat NDJSON = new StreamFormat(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE),
+            "", "", "\n");
+    private static final StreamFormat EVENT_STREAM = new StreamFormat(MediaType.TEXT_EVENT_STREAM,
+            "event: product\ndata: ", "event: complete\ndata: ", "\n\n");
+
     private final SimilarProductsUseCase similarProductsUseCase;
+    private final JsonMapper jsonMapper;
+    private final SimilarProductsResponses responses;
+    private final RequestTimeouts requestTimeouts;
+    private final CacheControl cacheControl;
+    private final Timer serializationTimer;
 
     @Autowired
-    public ProductRestAdapter(SimilarProductsUseCase similarProductsUseCase) {
+    public ProductRestAdapter(SimilarProductsUseCase similarProductsUseCase, JsonMapper jsonMapper,
+                              MeterRegistry meterRegistry, SimilarProductsResponses responses,
+                              RequestTimeouts requestTimeouts,
+                              @Value("${product.response.max.age:60}") long maxAge,
+                              @Value("${product.response.shared.max.age:0}") long sharedMaxAge) {
         this.similarProductsUseCase = similarProductsUseCase;
+        this.jsonMapper = jsonMapper;
+        this.responses = responses;
+        this.requestTimeouts = requestTimeouts;
+        this.cacheControl = SimilarProductsResponses.cacheControl(maxAge, sharedMaxAge);
+        this.serializationTimer = responseTimer(meterRegistry, "serialization");
     }
 
+    /**
+     * Similar products, with a strong ETag of their content and the configured {@code Cache-Control}. A request whose
+     * {@code If-None-Match} matches gets a 304 without the response being serialized. The body is the one
+     * cached in {@link SimilarProductsResponses}, gzipped if accepted (with a weak ETag then, as it is another
+     * representation), so it is only built when the products change. The products are looked up within the
+     * {@link RequestTimeouts request deadline}, a 504 once it is reached.
+     * <p>
+     * When the degradation policy leaves products out, the response says how many in {@value #OMITTED_PRODUCTS} and
+     * why in {@value #OMITTED_REASONS} ({@code missing=1, slow=2}). Such a short list is neither cached nor tagged, so
+     * the next request gets the whole one as soon as it is available.
+     */
+    // Serialized here, instead of by the message converters, to time it. The bytes are written as they are
     @GetMapping(value = "/{productId}/similar", produces = "application/json")
     @ResponseBody
-    public ResponseEntity<List<ProductDetailsDTO>> getSimilarProducts(@PathVariable("productId") String productId) {
-        validate(productId);
-        return ResponseEntity.ok(MAPPER.toProductDetailsDTO(similarProductsUseCase.getSimilarProducts(productId)));
-    }
-
-    // For simplicity, I leave this validation in the controller. For a bigger service with more request mappings where
-    // the same validation needs to be applied to different requests, I would move it to a common validation class
-    private void validate(String productId) throws IllegalArgumentException {
-        try{
-            Integer.parseInt(productId);
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Invalid productId");
+    public ResponseEntity<byte[]> getSimilarProducts(@PathVariable("productId") String productId,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                     @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                     @RequestHeader(value = RequestTimeouts.REQUEST_TIMEOUT, required = false) String requestTimeout) {
+        ProductIds.validate(productId);
+        PartialSimilarProducts similarProducts = RequestDeadline.within(requestTimeouts.deadline(requestTimeout),
+                () -> similarProductsUseCase.getPartialSimilarProducts(productId));
+        if (!similarProducts.isComplete()) {
+            return partialResponse(similarProducts);
         }
+        return responses.response(productId, similarProducts.products())
+                .toEntity(ifNoneMatch, acceptEncoding, cacheControl, () -> serialize(similarProducts.products()));
+    }
+
+    private ResponseEntity<byte[]> partialResponse(PartialSimilarProducts similarProducts) {
+        String reasons = Stream.of(Omission.values())
+                .filter(omission -> similarProducts.omitted(omission) > 0)
+                .map(omission -> omission + "=" + similarProducts.omitted(omission))
+                .collect(Collectors.joining(", "));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noStore())
+                .header(OMITTED_PRODUCTS, String.valueOf(similarProducts.omitted().size()))
+                .header(OMITTED_REASONS, reasons)
+                .body(serialize(similarProducts.products()));
+    }
+
+    /**
+     * Streamed similar products, one JSON document per line, written as soon as each one is available. The last line
+     * is a {@link SimilarProductsTrailerDTO} with the products that couldn't be written. Only a client asking for it
+     * cuts the stream short of {@code product.stream.timeout}, with its {@value RequestTimeouts#REQUEST_TIMEOUT}.
+     */
+    @GetMapping(value = "/{productId}/similar", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSimilarProducts(@PathVariable("productId") String productId,
+                                                                       @RequestHeader(value = RequestTimeouts.REQUEST_TIMEOUT, required = false) String requestTimeout) {
+        return stream(productId, requestTimeout, NDJSON);
+    }
+
+    /**
+     * Same as {@link #streamSimilarProducts(String, String)} as server-sent events: a {@code product} event per similar
+     * product and a final {@code complete} event with the trailer.
+     */
+    @GetMapping(value = "/{productId}/similar", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSimilarProductEvents(@PathVariable("productId") String productId,
+                                                                            @RequestHeader(value = RequestTimeouts.REQUEST_TIMEOUT, required = false) String requestTimeout) {
+        return stream(productId, requestTimeout, EVENT_STREAM);
+    }
+
+    // The deadline is set when the request arrives, the body is written later on another thread
+    private ResponseEntity<StreamingResponseBody> stream(String productId, String requestTimeout, StreamFormat format) {
+        ProductIds.validate(productId);
+        Long deadline = requestTimeouts.clientDeadline(requestTimeout);
+        StreamingResponseBody body = outputStream -> {
+            Supplier<Map<String, RuntimeException>> stream = () -> similarProductsUseCase.streamSimilarProducts(productId,
+                    productDetails -> write(outputStream, format.productPrefix(), productDetails, format.suffix()));
+            Map<String, RuntimeException> failures = deadline == null ? stream.get() : RequestDeadline.within(deadline, stream);
+            write(outputStream, format.trailerPrefix(), toTrailerDTO(failures), format.suffix());
+        };
+        return ResponseEntity.ok().contentType(format.mediaType()).body(body);
+    }
+
+    // Flushed right away, so the client gets every product as soon as it is available
+    private void write(OutputStream outputStream, String prefix, Object value, String suffix) {
+        try {
+            outputStream.write(prefix.getBytes(StandardCharsets.UTF_8));
+            outputStream.write(jsonMapper.writeValueAsBytes(value));
+            outputStream.write(suffix.getBytes(StandardCharsets.UTF_8));
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static SimilarProductsTrailerDTO toTrailerDTO(Map<String, RuntimeException> failures) {
+        return new SimilarProductsTrailerDTO(failures.entrySet().stream()
+                .map(failure -> new ProductFailureDTO(failure.getKey(), statusOf(failure.getValue()).value(),
+                        messageOf(failure.getValue())))
+                .toList());
+    }
+
+    /**
+     * Similar products of several products at once ({@code ?productIds=1,2,3}), keyed by product id. Every product gets
+     * the status its own request would have got, an invalid or failing one doesn't fail the rest. The request deadline
+     * bounds {@code product.batch.timeout}.
+     */
+    @GetMapping(value = "/similar", produces = "application/json")
+    @ResponseBody
+    public ResponseEntity<Map<String, SimilarProductsResultDTO>> getSimilarProductsBatch(
+            @RequestParam(value = "productIds", required = false) List<String> productIds,
+            @RequestHeader(value = RequestTimeouts.REQUEST_TIMEOUT, required = false) String requestTimeout) {
+        if (productIds == null || productIds.isEmpty()) {
+            throw new IllegalArgumentException("Missing productIds");
+        }
+        List<String> validIds = productIds.stream()
+                .filter(ProductIds::isValid)
+                .toList();
+        long deadline = requestTimeouts.deadline(requestTimeout);
+        Map<String, SimilarProductsResult> results = validIds.isEmpty()
+                ? Map.of() : RequestDeadline.within(deadline, () -> similarProductsUseCase.getSimilarProducts(validIds));
+
+        Map<String, SimilarProductsResultDTO> body = new LinkedHashMap<>();
+        for (String productId : productIds) {
+            body.computeIfAbsent(productId, id -> toDTO(results.getOrDefault(id,
+                    SimilarProductsResult.failure(new IllegalArgumentException("Invalid productId")))));
+        }
+        return ResponseEntity.ok(body);
+    }
+
+    private static SimilarProductsResultDTO toDTO(SimilarProductsResult result) {
+        return result.isSuccess()
+                ? SimilarProductsResultDTO.success(HttpStatus.OK.value(), result.products())
+                : SimilarProductsResultDTO.failure(statusOf(result.error()).value(), messageOf(result.error()));
+    }
+
+    // The (immutable) domain products are written as they are, the web model is the same
+    private byte[] serialize(List<ProductDetails> products) {
+        return serializationTimer.record(() -> jsonMapper.writeValueAsBytes(products));
+    }
+
+    private static Timer responseTimer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder("similar.products.response")
+                .description("Time to build the similar products response body")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    private record StreamFormat(MediaType mediaType, String productPrefix, String trailerPrefix, String suffix) {
     }
 }
@@ -0,0 +1,82 @@
+package com.inditex.product.infrastructure.adapters.in;
+
+import com.inditex.product.application.ports.input.ReactiveSimilarProductsUseCase;
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.shared.exception.DeadlineExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * WebFlux handler of the similar products, in the reactive mode ({@code spring.main.web-application-type=reactive}):
+ * the request doesn't hold a thread while the products are looked up, so a few event loop threads serve any number of
+ * slow requests. The response is the same as the {@link ProductRestAdapter servlet one}, built by the same
+ * {@link SimilarProductsResponses}, and errors are handled by the same
+ * {@link com.inditex.product.infrastructure.adapters.in.exception.RestAdapterExceptionHandler}. The batch and streamed
+ * similar products are only served in the servlet mode.
+ * <p>
+ * The {@link RequestTimeouts request timeout} bounds the whole lookup: once it is reached the pending upstream calls are
+ * cancelled and the request fails with a 504.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/product")
+public class ReactiveProductRestAdapter {
+
+    private final ReactiveSimilarProductsUseCase similarProductsUseCase;
+    private final JsonMapper jsonMapper;
+    private final SimilarProductsResponses responses;
+    private final RequestTimeouts requestTimeouts;
+    private final CacheControl cacheControl;
+    private final Timer serializationTimer;
+
+    @Autowired
+    public ReactiveProductRestAdapter(ReactiveSimilarProductsUseCase similarProductsUseCase, JsonMapper jsonMapper,
+                                      MeterRegistry meterRegistry, SimilarProductsResponses responses,
+                                      RequestTimeouts requestTimeouts,
+                                      @Value("${product.response.max.age:60}") long maxAge,
+                                      @Value("${product.response.shared.max.age:0}") long sharedMaxAge) {
+        this.similarProductsUseCase = similarProductsUseCase;
+        this.jsonMapper = jsonMapper;
+        this.responses = responses;
+        this.requestTimeouts = requestTimeouts;
+        this.cacheControl = SimilarProductsResponses.cacheControl(maxAge, sharedMaxAge);
+        this.serializationTimer = Timer.builder("similar.products.response")
+                .description("Time to build the similar products response body")
+                .tag("stage", "serialization")
+                .register(meterRegistry);
+    }
+
+    @GetMapping(value = "/{productId}/similar", produces = "application/json")
+    public Mono<ResponseEntity<byte[]>> getSimilarProducts(@PathVariable("productId") String productId,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                           @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                           @RequestHeader(value = RequestTimeouts.REQUEST_TIMEOUT, required = false) String requestTimeout) {
+        ProductIds.validate(productId);
+        Duration timeout = requestTimeouts.timeout(requestTimeout);
+        return similarProductsUseCase.getSimilarProducts(productId)
+                .timeout(timeout, Mono.error(() -> new DeadlineExceededException(
+                        "Deadline exceeded fetching similar products of product " + productId)))
+                .map(similarProducts -> responses.response(productId, similarProducts)
+                        .toEntity(ifNoneMatch, acceptEncoding, cacheControl, () -> serialize(similarProducts)));
+    }
+
+    private byte[] serialize(List<ProductDetails> products) {
+        return serializationTimer.record(() -> jsonMapper.writeValueAsBytes(products));
+    }
+}
@@ -0,0 +1,59 @@
+package com.inditex.product.infrastructure.adapters.in;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Latency budget of the requests, shared by the servlet and the reactive adapters: the one asked by the client in the
+ * {@value #REQUEST_TIMEOUT} header (ms), never over {@code product.request.max.timeout}, or
+ * {@code product.request.timeout} without it. The use case is given the deadline it sets, so every upstream call made
+ * for the request only gets the budget left.
+ */
+@Component
+public class RequestTimeouts {
+
+    public static final String REQUEST_TIMEOUT = "X-Request-Timeout";
+
+    private final long defaultTimeout;
+    private final long maxTimeout;
+
+    @Autowired
+    public RequestTimeouts(@Value("${product.request.timeout:3000}") long defaultTimeout,
+                           @Value("${product.request.max.timeout:10000}") long maxTimeout) {
+        this.defaultTimeout = defaultTimeout;
+        this.maxTimeout = maxTimeout;
+    }
+
+    /**
+     * Deadline (a {@link System#nanoTime()} value) of a request with the given {@value #REQUEST_TIMEOUT} header.
+     */
+    public long deadline(String requestTimeout) {
+        return System.nanoTime() + timeout(requestTimeout).toNanos();
+    }
+
+    /**
+     * Deadline of a request that is only bounded by the client, if it asks for it: a streamed one, which is already
+     * bounded by its own timeout otherwise. {@code null} without the header.
+     */
+    public Long clientDeadline(String requestTimeout) {
+        return requestTimeout == null ? null : deadline(requestTimeout);
+    }
+
+    public Duration timeout(String requestTimeout) throws IllegalArgumentException {
+        if (requestTimeout == null) {
+            return Duration.ofMillis(defaultTimeout);
+        }
+        try {
+            long timeout = Long.parseLong(requestTimeout.trim());
+            if (timeout <= 0) {
+                throw new IllegalArgumentException("Invalid " + REQUEST_TIMEOUT);
+            }
+            return Duration.ofMillis(Math.min(timeout, maxTimeout));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + REQUEST_TIMEOUT);
+        }
+    }
+}
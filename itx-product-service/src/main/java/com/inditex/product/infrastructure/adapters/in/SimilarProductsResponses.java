@@ -0,0 +1,295 @@
+package com.inditex.product.infrastructure.adapters.in;
+
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.infrastructure.adapters.cache.LruMap;
+import com.inditex.product.infrastructure.adapters.cache.ProductDetailsCache;
+import com.inditex.product.infrastructure.adapters.cache.SimilarProductsCache;
+import com.inditex.product.infrastructure.adapters.cache.TieredCache.InvalidationListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The similar products responses of the last requested product ids, in a bounded LRU map: their strong ETag, a SHA-256
+ * of the content of the products, and, if enabled, their JSON body and its gzipped copy.
+ * <p>
+ * A response is kept along with the products it was built from. While they come from the same cache entries the caches
+ * return the same instances, so it is reused as is. When any of them is a different instance (reloaded, or read again
+ * from the off-heap tier) the ETag is computed again and, if the content is the same, the body is still reused: bodies
+ * are only serialized and compressed once per content. Responses are dropped when the entries of the caches they were
+ * built from are evicted or cleared.
+ */
+@Component
+public class SimilarProductsResponses {
+
+    private final LruMap<String, Response> responses;
+    private final boolean cacheBodies;
+    private final int gzipMinSize;
+
+    @Autowired
+    public SimilarProductsResponses(SimilarProductsCache similarProductsCache,
+                                    ProductDetailsCache productDetailsCache,
+                                    @Value("${product.response.cache.max.size:10000}") int maxSize,
+                                    @Value("${product.response.cache.bodies:true}") boolean cacheBodies,
+                                    @Value("${product.response.gzip.min.size:1024}") int gzipMinSize) {
+        this.responses = new LruMap<>(maxSize);
+        this.cacheBodies = cacheBodies;
+        this.gzipMinSize = gzipMinSize;
+        similarProductsCache.addInvalidationListener(new InvalidationListener() {
+            @Override
+            public void evicted(String productId) {
+                responses.remove(productId);
+            }
+
+            @Override
+            public void cleared() {
+                responses.clear();
+            }
+        });
+        productDetailsCache.addInvalidationListener(new InvalidationListener() {
+            @Override
+            public void evicted(String productId) {
+                responses.removeValuesIf(response -> response.contains(productId));
+            }
+
+            @Override
+            public void cleared() {
+                responses.clear();
+            }
+        });
+    }
+
+    public Response response(String productId, List<ProductDetails> products) {
+        Response response = responses.get(productId);
+        if (response != null && response.isFor(products)) {
+            return response;
+        }
+        String etag = etag(products);
+        Response updated = response != null && response.etag.equals(etag)
+                ? new Response(List.copyOf(products), response)
+                : new Response(List.copyOf(products), etag);
+        responses.put(productId, updated);
+        return updated;
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header value matches the given ETag. Weak comparison, as required for
+     * {@code If-None-Match}: {@code W/} prefixes are ignored.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header value accepts gzip: listed without a {@code q=0}, or not listed and
+     * {@code *} is, without a {@code q=0}. An explicit gzip entry wins over {@code *}, so {@code gzip;q=0, *} doesn't.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean any = false;
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parts = candidate.split(";");
+            String coding = parts[0].trim();
+            if (coding.equalsIgnoreCase("gzip")) {
+                return !isRejected(parts);
+            }
+            if (coding.equals("*")) {
+                any = !isRejected(parts);
+            }
+        }
+        return any;
+    }
+
+    // max-age for browsers and s-maxage, if set, for shared caches (CDNs). Without them clients have to revalidate
+    public static CacheControl cacheControl(long maxAge, long sharedMaxAge) {
+        if (maxAge <= 0 && sharedMaxAge <= 0) {
+            return CacheControl.noCache();
+        }
+        CacheControl cacheControl = CacheControl.maxAge(Math.max(0, maxAge), TimeUnit.SECONDS);
+        return sharedMaxAge > 0 ? cacheControl.sMaxAge(sharedMaxAge, TimeUnit.SECONDS).cachePublic() : cacheControl;
+    }
+
+    static String etag(List<ProductDetails> products) {
+        MessageDigest digest = sha256();
+        for (ProductDetails product : products) {
+            update(digest, product.id());
+            update(digest, product.name());
+            digest.update(ByteBuffer.allocate(Double.BYTES + 1)
+                    .putDouble(product.price())
+                    .put((byte) (product.availability() ? 1 : 0))
+                    .array());
+        }
+        // 128 bits are plenty for an ETag
+        byte[] hash = new byte[16];
+        System.arraycopy(digest.digest(), 0, hash, 0, hash.length);
+        return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + '"';
+    }
+
+    private static boolean isRejected(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) == 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Length-prefixed, so ("ab", "c") and ("a", "bc") don't collide. -1 stands for null
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(value == null ? -1 : bytes.length).array());
+        digest.update(bytes);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * The response of a list of similar products. Its body is serialized, and gzipped, the first time it is needed
+     * (concurrent first requests may both do it, the result is the same).
+     */
+    public final class Response {
+
+        private final List<ProductDetails> products;
+        private final String etag;
+        private volatile byte[] json;
+        private volatile byte[] gzipped;
+
+        private Response(List<ProductDetails> products, String etag) {
+            this.products = products;
+            this.etag = etag;
+        }
+
+        private Response(List<ProductDetails> products, Response sameContent) {
+            this(products, sameContent.etag);
+            this.json = sameContent.json;
+            this.gzipped = sameContent.gzipped;
+        }
+
+        public String etag() {
+            return etag;
+        }
+
+        /**
+         * The HTTP response: a 304 if {@code If-None-Match} matches, without serializing anything, otherwise the body,
+         * gzipped if accepted and worth it (with a weak ETag then, as it is another representation).
+         */
+        public ResponseEntity<byte[]> toEntity(String ifNoneMatch, String acceptEncoding, CacheControl cacheControl,
+                                               Supplier<byte[]> serializer) {
+            if (matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+            }
+            ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING);
+            byte[] body = acceptsGzip(acceptEncoding) ? gzipped(serializer) : null;
+            if (body != null) {
+                return ok.eTag("W/" + etag).header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body);
+            }
+            return ok.eTag(etag).body(json(serializer));
+        }
+
+        /**
+         * The JSON body, serialized with the given serializer unless it is already cached.
+         */
+        public byte[] json(Supplier<byte[]> serializer) {
+            byte[] body = json;
+            if (body == null) {
+                body = serializer.get();
+                if (cacheBodies) {
+                    json = body;
+                }
+            }
+            return body;
+        }
+
+        /**
+         * The gzipped JSON body, or null if bodies aren't cached or the body is too small to be worth it.
+         */
+        public byte[] gzipped(Supplier<byte[]> serializer) {
+            if (!cacheBodies) {
+                return null;
+            }
+            byte[] body = gzipped;
+            if (body == null) {
+                byte[] plain = json(serializer);
+                if (plain.length < gzipMinSize) {
+                    return null;
+                }
+                body = gzip(plain);
+                gzipped = body;
+            }
+            return body;
+        }
+
+        // Same instances, in the same order
+        private boolean isFor(List<ProductDetails> candidates) {
+            if (candidates.size() != products.size()) {
+                return false;
+            }
+            for (int i = 0; i < products.size(); i++) {
+                if (candidates.get(i) != products.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean contains(String productId) {
+            return products.stream().anyMatch(product -> productId.equals(product.id()));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.inditex.product.infrastructure.adapters.in.actuator;
+
+import com.inditex.product.application.service.CacheWarmer;
+import com.inditex.product.application.service.CacheWarmer.WarmUpProgress;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/warmup}: {@code GET} returns the progress of the current (or last) cache warm-up, {@code POST} with a
+ * {@code {"productIds": "1,2,3"}} body starts a new one with those hot product ids (actuator operations only take single
+ * valued parameters, hence the comma separated list).
+ */
+@Component
+@Endpoint(id = "warmup")
+public class WarmUpEndpoint {
+
+    private final CacheWarmer cacheWarmer;
+
+    @Autowired
+    public WarmUpEndpoint(CacheWarmer cacheWarmer) {
+        this.cacheWarmer = cacheWarmer;
+    }
+
+    @ReadOperation
+    public WarmUpProgress progress() {
+        return cacheWarmer.progress();
+    }
+
+    @WriteOperation
+    public WarmUpProgress warmUp(String productIds) {
+        return cacheWarmer.warmUp(List.of(productIds.split(",")));
+    }
+}
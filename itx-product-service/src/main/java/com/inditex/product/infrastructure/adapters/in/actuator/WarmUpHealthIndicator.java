@@ -0,0 +1,36 @@
+package com.inditex.product.infrastructure.adapters.in.actuator;
+
+import com.inditex.product.application.service.CacheWarmer;
+import com.inditex.product.application.service.CacheWarmer.WarmUpProgress;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code warmUp} health indicator, part of the readiness group: down while a cache warm-up is running and hasn't reached
+ * the ready threshold or the timeout yet. Its details are the warm-up progress.
+ */
+@Component
+public class WarmUpHealthIndicator implements HealthIndicator {
+
+    private final CacheWarmer cacheWarmer;
+
+    @Autowired
+    public WarmUpHealthIndicator(CacheWarmer cacheWarmer) {
+        this.cacheWarmer = cacheWarmer;
+    }
+
+    @Override
+    public Health health() {
+        WarmUpProgress progress = cacheWarmer.progress();
+        return (cacheWarmer.isReady() ? Health.up() : Health.down())
+                .withDetail("state", progress.state())
+                .withDetail("total", progress.total())
+                .withDetail("warmed", progress.warmed())
+                .withDetail("failed", progress.failed())
+                .withDetail("completed", progress.completed())
+                .withDetail("elapsedMillis", progress.elapsedMillis())
+                .build();
+    }
+}
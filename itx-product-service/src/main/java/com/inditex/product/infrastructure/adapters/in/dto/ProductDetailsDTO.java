@@ -1,47 +0,0 @@
-package com.inditex.product.infrastructure.adapters.in.dto;
-
-import java.io.Serial;
-import java.io.Serializable;
-
-public class ProductDetailsDTO implements Serializable {
-    @Serial
-    private static final long serialVersionUID = 1L;
-    private String id;
-    private String name;
-    private Double price;
-    private boolean availability;
-
-    public ProductDetailsDTO() {}
-
-    public String getId() {
-        return id;
-    }
-
-    public void setId(String id) {
-        this.id = id;
-    }
-
-    public String getName() {
-        return name;
-    }
-
-    public void setName(String name) {
-        this.name = name;
-    }
-
-    public Double getPrice() {
-        return price;
-    }
-
-    public void setPrice(Double price) {
-        this.price = price;
-    }
-
-    public boolean isAvailability() {
-        return availability;
-    }
-
-    public void setAvailability(boolean availability) {
-        this.availability = availability;
-    }
-}
@@ -0,0 +1,11 @@
+package com.inditex.product.infrastructure.adapters.in.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * A similar product that couldn't be written to a streamed response: its id, the status and the error message its
+ * lookup failed with.
+ */
+@JsonPropertyOrder({"error", "id", "status"})
+public record ProductFailureDTO(String id, int status, String error) {
+}
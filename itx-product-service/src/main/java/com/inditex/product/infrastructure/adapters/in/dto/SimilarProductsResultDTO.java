@@ -0,0 +1,24 @@
+package com.inditex.product.infrastructure.adapters.in.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.inditex.product.domain.model.ProductDetails;
+
+import java.util.List;
+
+/**
+ * Similar products of one product of a batch: the HTTP status the single product request would have got, and either
+ * its similar products or the error message.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"error", "products", "status"})
+public record SimilarProductsResultDTO(int status, List<ProductDetails> products, String error) {
+
+    public static SimilarProductsResultDTO success(int status, List<ProductDetails> products) {
+        return new SimilarProductsResultDTO(status, products, null);
+    }
+
+    public static SimilarProductsResultDTO failure(int status, String error) {
+        return new SimilarProductsResultDTO(status, null, error);
+    }
+}
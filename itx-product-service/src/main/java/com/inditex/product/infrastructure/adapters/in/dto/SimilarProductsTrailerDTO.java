@@ -0,0 +1,9 @@
+package com.inditex.product.infrastructure.adapters.in.dto;
+
+import java.util.List;
+
+/**
+ * Last element of a streamed response, once every similar product has been written: the ones that couldn't be.
+ */
+public record SimilarProductsTrailerDTO(List<ProductFailureDTO> failures) {
+}
@@ -1,7 +1,10 @@
 package com.inditex.product.infrastructure.adapters.in.exception;
 
 import com.inditex.product.shared.exception.CircuitBreakerException;
+import com.inditex.product.shared.exception.ConcurrencyLimitExceededException;
+import com.inditex.product.shared.exception.DeadlineExceededException;
 import com.inditex.product.shared.exception.ProductNotFoundException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -13,6 +16,8 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ControllerAdvice
 public class RestAdapterExceptionHandler {
 
+    private static final String UNEXPECTED_ERROR = "Unexpected error";
+
     @ExceptionHandler(IllegalArgumentException.class)
     @ResponseStatus(value = HttpStatus.BAD_REQUEST)
     public @ResponseBody ResponseEntity<String> handleException(IllegalArgumentException e) {
@@ -21,10 +26,12 @@ public class RestAdapterExceptionHandler {
 
     @ExceptionHandler(CircuitBreakerException.class)
     public ResponseEntity<String> handleBreakerException(CircuitBreakerException ex) {
-        if (ex.getCause() instanceof CallNotPermittedException) {
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ex.getMessage());
-        }
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ex.getMessage());
+        return ResponseEntity.status(statusOf(ex)).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public ResponseEntity<String> handleConcurrencyLimitExceededException(ConcurrencyLimitExceededException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ex.getMessage());
     }
 
     @ExceptionHandler(ProductNotFoundException.class)
@@ -32,8 +39,47 @@ public class RestAdapterExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
 
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<String> handleDeadlineExceededException(DeadlineExceededException ex) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(ex.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handleException(Exception ex) {
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Unexpected error");
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(UNEXPECTED_ERROR);
+    }
+
+    /**
+     * Status the handlers above answer the given exception with, for the responses reporting errors in their body
+     * (like the batch ones) instead of throwing them.
+     */
+    public static HttpStatus statusOf(Exception ex) {
+        if (ex instanceof IllegalArgumentException) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        if (ex instanceof ProductNotFoundException) {
+            return HttpStatus.NOT_FOUND;
+        }
+        if (ex instanceof DeadlineExceededException) {
+            return HttpStatus.GATEWAY_TIMEOUT;
+        }
+        if (ex instanceof ConcurrencyLimitExceededException) {
+            return HttpStatus.SERVICE_UNAVAILABLE;
+        }
+        if (ex instanceof CircuitBreakerException
+                && (ex.getCause() instanceof CallNotPermittedException || ex.getCause() instanceof BulkheadFullException)) {
+            return HttpStatus.SERVICE_UNAVAILABLE;
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+    /**
+     * Message the handlers above answer the given exception with.
+     */
+    public static String messageOf(Exception ex) {
+        return ex instanceof IllegalArgumentException || ex instanceof ProductNotFoundException
+                || ex instanceof DeadlineExceededException || ex instanceof CircuitBreakerException
+                || ex instanceof ConcurrencyLimitExceededException
+                ? ex.getMessage() : UNEXPECTED_ERROR;
     }
 }
@@ -0,0 +1,60 @@
+package com.inditex.product.infrastructure.adapters.out.client.coalescing;
+
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.domain.model.ports.output.SimilarProducts;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.List;
+
+/**
+ * {@link SimilarProducts} decorator coalescing concurrent calls for the same product id, so only one upstream call per
+ * operation and product id is in flight at any time. It avoids the thundering herd when a popular key is not cached
+ * (cold start or just expired) and many requests ask for it at the same time.
+ */
+public class CoalescingSimilarProducts implements SimilarProducts {
+
+    private static final String METER_CALLS = "similar.products.calls";
+    private static final String METER_DEDUPLICATED = "similar.products.calls.deduplicated";
+    private static final String METER_WAITING = "similar.products.calls.waiting";
+
+    private final SimilarProducts delegate;
+    private final SingleFlight<String, ProductDetails> productCalls = new SingleFlight<>();
+    private final SingleFlight<String, List<String>> similarIdsCalls = new SingleFlight<>();
+
+    public CoalescingSimilarProducts(SimilarProducts delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        registerMeters(meterRegistry, "getProductById", productCalls);
+        registerMeters(meterRegistry, "getSimilarProductIds", similarIdsCalls);
+    }
+
+    @Override
+    public ProductDetails getProductById(String productId) {
+        return productCalls.execute(productId, () -> delegate.getProductById(productId));
+    }
+
+    @Override
+    public List<String> getSimilarProductIds(String productId) {
+        return similarIdsCalls.execute(productId, () -> delegate.getSimilarProductIds(productId));
+    }
+
+    public long deduplicatedCalls() {
+        return productCalls.deduplicated() + similarIdsCalls.deduplicated();
+    }
+
+    private static void registerMeters(MeterRegistry meterRegistry, String operation, SingleFlight<?, ?> singleFlight) {
+        FunctionCounter.builder(METER_CALLS, singleFlight, SingleFlight::calls)
+                .description("Calls made to the upstream product API")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        FunctionCounter.builder(METER_DEDUPLICATED, singleFlight, SingleFlight::deduplicated)
+                .description("Calls answered with the result of an identical call already in flight")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        Gauge.builder(METER_WAITING, singleFlight, SingleFlight::waiting)
+                .description("Calls waiting for an identical call in flight")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
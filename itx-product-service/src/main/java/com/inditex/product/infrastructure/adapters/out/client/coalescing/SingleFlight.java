@@ -0,0 +1,109 @@
+package com.inditex.product.infrastructure.adapters.out.client.coalescing;
+
+import com.inditex.product.shared.deadline.RequestDeadline;
+import com.inditex.product.shared.exception.CallCancelledException;
+import com.inditex.product.shared.exception.DeadlineExceededException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Makes sure there is, at most, one call in flight per key. Callers arriving while a call for the same key is running
+ * don't make their own call: they wait for the running one and get its result, or its exception.
+ * <p>
+ * Every caller waits within its own request deadline. A call cut short by the deadline of the caller that made it, or
+ * cancelled by it, isn't shared: the waiters still waiting try again, one of them making the call this time.
+ * <p>
+ * Nothing is kept once the call finishes, this is not a cache.
+ */
+class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    V execute(K key, Supplier<V> supplier) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, call);
+        while (running != null) {
+            V value;
+            waiting.incrementAndGet();
+            try {
+                value = await(running);
+            } catch (DeadlineExceededException | CallCancelledException e) {
+                if (RequestDeadline.isExpired() || Thread.currentThread().isInterrupted()
+                        || !running.isCompletedExceptionally()) {
+                    throw e;
+                }
+                // The caller that made the call was cut short, not this one: try again
+                inFlight.remove(key, running);
+                running = inFlight.putIfAbsent(key, call);
+                continue;
+            } catch (RuntimeException | Error e) {
+                deduplicated.increment();
+                throw e;
+            } finally {
+                waiting.decrementAndGet();
+            }
+            deduplicated.increment();
+            return value;
+        }
+
+        calls.increment();
+        try {
+            V value = supplier.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    long calls() {
+        return calls.sum();
+    }
+
+    /**
+     * Callers that got the outcome of a call made by another one, its result or its exception. Not the ones that
+     * gave up waiting, nor the ones that had to make the call themselves.
+     */
+    long deduplicated() {
+        return deduplicated.sum();
+    }
+
+    // Callers waiting for a call made by another one
+    int waiting() {
+        return waiting.get();
+    }
+
+    private static <V> V await(CompletableFuture<V> running) {
+        try {
+            return running.get(RequestDeadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("Deadline exceeded waiting for an in flight call", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CallCancelledException("Cancelled waiting for an in flight call", e);
+        } catch (ExecutionException e) {
+            // Waiters get the very same exception the caller that made the call got
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
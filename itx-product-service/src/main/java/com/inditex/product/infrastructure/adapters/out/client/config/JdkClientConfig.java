@@ -0,0 +1,36 @@
+package com.inditex.product.infrastructure.adapters.out.client.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Client of the {@link com.inditex.product.infrastructure.adapters.out.client.jdk.JdkHttpSimuladoSimilarProducts JDK
+ * adapter} ({@code simulado.api.client=jdk}). Unlike the {@link RestClientConfig REST ones} it is a single client for
+ * both upstream operations: it negotiates HTTP/2 (h2c upgrade on plain HTTP) and then multiplexes every call on one
+ * connection, so there is no connection pool to split. Operations are still isolated by their bulkheads, which also
+ * keep the concurrent calls under the streams an HTTP/2 server accepts per connection. Upstreams speaking only
+ * HTTP/1.1 get a connection per concurrent call, as with the REST clients.
+ */
+@Configuration
+@ConditionalOnProperty(name = "simulado.api.client", havingValue = "jdk")
+public class JdkClientConfig {
+
+    public static final String SIMULADO_HTTP_CLIENT = "simuladoHttpClient";
+
+    @Value("${simulado.api.connect.timeout:5000}")
+    private Integer simuladoApiConnectTimeout;
+
+    @Bean(SIMULADO_HTTP_CLIENT)
+    public HttpClient simuladoHttpClient() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(simuladoApiConnectTimeout))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+}
@@ -0,0 +1,71 @@
+package com.inditex.product.infrastructure.adapters.out.client.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.json.JacksonJsonDecoder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+
+import static com.inditex.product.infrastructure.adapters.out.client.rest.RestSimuladoSimilarProducts.PRODUCT_DETAIL;
+import static com.inditex.product.infrastructure.adapters.out.client.rest.RestSimuladoSimilarProducts.SIMILAR_IDS;
+
+/**
+ * Non-blocking clients of the reactive mode, one per upstream operation like the {@link RestClientConfig REST ones},
+ * with their own connection pool of the same size and the same timeouts. They run on the Reactor Netty event loop, so
+ * a call waiting for the upstream takes a connection but no thread. The upstream JSON is read with the application's
+ * {@link JsonMapper}.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveClientConfig {
+
+    public static final String SIMILAR_IDS_WEB_CLIENT = "simuladoSimilarIdsWebClient";
+    public static final String PRODUCT_DETAIL_WEB_CLIENT = "simuladoProductDetailWebClient";
+
+    @Value("${simulado.api.host}")
+    private String simuladoApiHost;
+    @Value("${simulado.api.read.timeout:5000}")
+    private Integer simuladoApiReadTimeout;
+    @Value("${simulado.api.connect.timeout:5000}")
+    private Integer simuladoApiConnectTimeout;
+    @Value("${simulado.api.similar.ids.pool.size:25}")
+    private Integer similarIdsPoolSize;
+    @Value("${simulado.api.product.detail.pool.size:50}")
+    private Integer productDetailPoolSize;
+
+    @Bean(SIMILAR_IDS_WEB_CLIENT)
+    public WebClient similarIdsWebClient(JsonMapper jsonMapper) {
+        return webClient(SIMILAR_IDS, similarIdsPoolSize, jsonMapper);
+    }
+
+    @Bean(PRODUCT_DETAIL_WEB_CLIENT)
+    public WebClient productDetailWebClient(JsonMapper jsonMapper) {
+        return webClient(PRODUCT_DETAIL, productDetailPoolSize, jsonMapper);
+    }
+
+    private WebClient webClient(String name, int poolSize, JsonMapper jsonMapper) {
+        // Calls waiting for a connection don't wait longer than the connect timeout, like the REST clients
+        ConnectionProvider connectionProvider = ConnectionProvider.builder(name)
+                .maxConnections(poolSize)
+                .pendingAcquireTimeout(Duration.ofMillis(simuladoApiConnectTimeout))
+                .maxIdleTime(Duration.ofSeconds(15))
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, simuladoApiConnectTimeout)
+                .responseTimeout(Duration.ofMillis(simuladoApiReadTimeout));
+
+        return WebClient.builder()
+                .baseUrl(simuladoApiHost)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().jacksonJsonDecoder(new JacksonJsonDecoder(jsonMapper)))
+                .build();
+    }
+}
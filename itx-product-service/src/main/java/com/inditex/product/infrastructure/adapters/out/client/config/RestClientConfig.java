@@ -1,5 +1,8 @@
 package com.inditex.product.infrastructure.adapters.out.client.config;
 
+import com.inditex.product.shared.deadline.RequestDeadline;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
@@ -7,27 +10,58 @@ import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
 import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.restclient.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
+import static com.inditex.product.infrastructure.adapters.out.client.rest.RestSimuladoSimilarProducts.PRODUCT_DETAIL;
+import static com.inditex.product.infrastructure.adapters.out.client.rest.RestSimuladoSimilarProducts.SIMILAR_IDS;
+
+/**
+ * One client, with its own connection pool, per upstream operation: slow product detail calls can't take the connections
+ * needed by the similar ids ones (and the other way around). Calls made for a request wait for a connection and for the
+ * response no longer than the budget it has left.
+ */
 @Configuration
+@ConditionalOnProperty(name = "simulado.api.client", havingValue = "apache", matchIfMissing = true)
 public class RestClientConfig {
 
+    public static final String SIMILAR_IDS_CLIENT = "simuladoSimilarIdsClient";
+    public static final String PRODUCT_DETAIL_CLIENT = "simuladoProductDetailClient";
+
     @Value("${simulado.api.host}")
     private String simuladoApiHost;
     @Value("${simulado.api.read.timeout:5000}")
     private Integer simuladoApiReadTimeout;
     @Value("${simulado.api.connect.timeout:5000}")
     private Integer simuladoApiConnectTimeout;
+    @Value("${simulado.api.similar.ids.pool.size:25}")
+    private Integer similarIdsPoolSize;
+    @Value("${simulado.api.product.detail.pool.size:50}")
+    private Integer productDetailPoolSize;
+
+    @Bean(SIMILAR_IDS_CLIENT)
+    public RestTemplate similarIdsRestTemplate(MeterRegistry meterRegistry) {
+        return restTemplate(SIMILAR_IDS, similarIdsPoolSize, meterRegistry);
+    }
+
+    @Bean(PRODUCT_DETAIL_CLIENT)
+    public RestTemplate productDetailRestTemplate(MeterRegistry meterRegistry) {
+        return restTemplate(PRODUCT_DETAIL, productDetailPoolSize, meterRegistry);
+    }
 
-    @Bean("simuladoProductClient")
-    public RestTemplate restTemplate() {
+    private RestTemplate restTemplate(String name, int poolSize, MeterRegistry meterRegistry) {
+        // A single route (the simulado host), so the whole pool is available to it
         PoolingHttpClientConnectionManager cm = new PoolingHttpClientConnectionManager();
-        cm.setMaxTotal(200);
-        cm.setDefaultMaxPerRoute(50);
+        cm.setMaxTotal(poolSize);
+        cm.setDefaultMaxPerRoute(poolSize);
+        // Leased, available and pending connections, as the httpcomponents.httpclient.pool.* gauges
+        new PoolingHttpClientConnectionManagerMetricsBinder(cm, name).bindTo(meterRegistry);
 
         RequestConfig requestConfig = RequestConfig.custom()
                 .setConnectionRequestTimeout(Timeout.ofSeconds(simuladoApiConnectTimeout))
@@ -40,7 +74,8 @@ public class RestClientConfig {
                 .evictIdleConnections(TimeValue.ofSeconds(15))
                 .build();
 
-        HttpComponentsClientHttpRequestFactory rf = new HttpComponentsClientHttpRequestFactory(httpClient);
+        HttpComponentsClientHttpRequestFactory rf = new DeadlineRequestFactory(httpClient,
+                Duration.ofMillis(simuladoApiReadTimeout), Duration.ofMillis(simuladoApiConnectTimeout));
         rf.setConnectionRequestTimeout(simuladoApiConnectTimeout);
         rf.setReadTimeout(simuladoApiReadTimeout);
 
@@ -49,4 +84,27 @@ public class RestClientConfig {
                 .requestFactory(() -> rf)
                 .build();
     }
+
+    // The response and connection lease timeouts of every request are the configured ones, or the budget left of the
+    // request if shorter
+    private static class DeadlineRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+        private final Duration readTimeout;
+        private final Duration connectionRequestTimeout;
+
+        DeadlineRequestFactory(CloseableHttpClient httpClient, Duration readTimeout, Duration connectionRequestTimeout) {
+            super(httpClient);
+            this.readTimeout = readTimeout;
+            this.connectionRequestTimeout = connectionRequestTimeout;
+        }
+
+        @Override
+        protected RequestConfig createRequestConfig(Object client) {
+            RequestConfig config = super.createRequestConfig(client);
+            return RequestConfig.copy(config == null ? RequestConfig.DEFAULT : config)
+                    .setResponseTimeout(Timeout.of(RequestDeadline.remaining(readTimeout)))
+                    .setConnectionRequestTimeout(Timeout.of(RequestDeadline.remaining(connectionRequestTimeout)))
+                    .build();
+        }
+    }
 }
@@ -0,0 +1,37 @@
+package com.inditex.product.infrastructure.adapters.out.client.hedging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket limiting the extra load caused by hedged requests: every call earns {@code ratio} tokens and every hedge
+ * costs one, so there are at most {@code ratio} hedges per call in the long run (plus a burst of {@code maxTokens}).
+ */
+class HedgeBudget {
+
+    private static final long TOKEN = 1_000;
+
+    private final long earnedPerCall;
+    private final long maxTokens;
+    private final AtomicLong tokens;
+
+    HedgeBudget(double ratio, int maxTokens) {
+        this.earnedPerCall = (long) (ratio * TOKEN);
+        this.maxTokens = maxTokens * TOKEN;
+        this.tokens = new AtomicLong(0);
+    }
+
+    void onCall() {
+        tokens.accumulateAndGet(earnedPerCall, (current, earned) -> Math.min(maxTokens, current + earned));
+    }
+
+    boolean tryAcquire() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+}
@@ -0,0 +1,214 @@
+package com.inditex.product.infrastructure.adapters.out.client.hedging;
+
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.domain.model.ports.output.SimilarProducts;
+import com.inditex.product.shared.deadline.RequestDeadline;
+import com.inditex.product.shared.exception.CallCancelledException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * {@link SimilarProducts} decorator sending hedged requests: when a call hasn't answered within the hedge delay, a
+ * second identical call is made and the first successful response wins (the call only fails if both of them fail).
+ * <p>
+ * The hedge delay is either fixed or, when {@code fixedDelayMillis} is not positive, the observed latency percentile
+ * of the operation (p95 by default), never below {@code minDelayMillis}. Hedges are limited by a {@link HedgeBudget},
+ * so they add at most a given fraction of extra load to the upstream. Calls run with the request deadline of the caller.
+ * Once a call wins the other one is cancelled, and both are when the caller is interrupted.
+ */
+public class HedgingSimilarProducts implements SimilarProducts {
+
+    private static final String METER_HEDGES = "similar.products.hedges";
+
+    private final SimilarProducts delegate;
+    private final Executor executor;
+    private final HedgeBudget budget;
+    private final Operation productOperation;
+    private final Operation similarIdsOperation;
+
+    public HedgingSimilarProducts(SimilarProducts delegate, Executor executor, MeterRegistry meterRegistry,
+                                  long fixedDelayMillis, long minDelayMillis, double percentile, double budgetRatio) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.budget = new HedgeBudget(budgetRatio, 10);
+        this.productOperation = new Operation("getProductById", fixedDelayMillis, minDelayMillis, percentile, meterRegistry);
+        this.similarIdsOperation = new Operation("getSimilarProductIds", fixedDelayMillis, minDelayMillis, percentile, meterRegistry);
+    }
+
+    @Override
+    public ProductDetails getProductById(String productId) {
+        return execute(productOperation, () -> delegate.getProductById(productId));
+    }
+
+    @Override
+    public List<String> getSimilarProductIds(String productId) {
+        return execute(similarIdsOperation, () -> delegate.getSimilarProductIds(productId));
+    }
+
+    private <T> T execute(Operation operation, Supplier<T> call) {
+        budget.onCall();
+        Call<T> primary;
+        try {
+            primary = timed(operation, call);
+        } catch (RejectedExecutionException e) {
+            return call.get();
+        }
+
+        try {
+            return primary.result.get(operation.delayMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (!budget.tryAcquire()) {
+                return await(primary.result, primary);
+            }
+            return hedge(operation, primary, call);
+        } catch (InterruptedException e) {
+            throw interrupted(e, primary);
+        } catch (ExecutionException e) {
+            throw propagate(e.getCause());
+        }
+    }
+
+    // The result of the first call to succeed. The other one is cancelled right away, so it doesn't hold a bulkhead
+    // slot, a concurrency limit permit and a connection until it finishes for nothing
+    private <T> T hedge(Operation operation, Call<T> primary, Supplier<T> call) {
+        Call<T> hedge;
+        try {
+            hedge = timed(operation, call);
+        } catch (RejectedExecutionException e) {
+            return await(primary.result, primary);
+        }
+        operation.hedgesIssued.increment();
+
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicBoolean decided = new AtomicBoolean();
+        AtomicInteger failures = new AtomicInteger();
+        primary.result.whenComplete((value, error) ->
+                complete(winner, value, error, decided, failures, () -> hedge.cancel(true)));
+        hedge.result.whenComplete((value, error) -> complete(winner, value, error, decided, failures, () -> {
+            operation.hedgesWon.increment();
+            primary.cancel(true);
+        }));
+        return await(winner, primary, hedge);
+    }
+
+    // First success wins, running onWin before the caller gets it; the winner only fails once both calls have failed
+    private static <T> void complete(CompletableFuture<T> winner, T value, Throwable error, AtomicBoolean decided,
+                                     AtomicInteger failures, Runnable onWin) {
+        if (error == null) {
+            if (decided.compareAndSet(false, true)) {
+                onWin.run();
+                winner.complete(value);
+            }
+        } else if (failures.incrementAndGet() == 2 && decided.compareAndSet(false, true)) {
+            winner.completeExceptionally(error);
+        }
+    }
+
+    private <T> Call<T> timed(Operation operation, Supplier<T> call) {
+        Call<T> timed = new Call<>(() -> {
+            long start = System.nanoTime();
+            T value = call.get();
+            operation.latency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return value;
+        });
+        executor.execute(RequestDeadline.propagate(timed));
+        return timed;
+    }
+
+    private static <T> T await(CompletableFuture<T> future, Call<?>... calls) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            throw interrupted(e, calls);
+        } catch (ExecutionException e) {
+            throw propagate(e.getCause());
+        }
+    }
+
+    private static CallCancelledException interrupted(InterruptedException e, Call<?>... calls) {
+        for (Call<?> call : calls) {
+            call.cancel(true);
+        }
+        Thread.currentThread().interrupt();
+        return new CallCancelledException("Cancelled waiting for the product API", e);
+    }
+
+    private static RuntimeException propagate(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    /**
+     * A call run by the executor: unlike a {@link CompletableFuture}, cancelling it interrupts the thread running it,
+     * which cancels the upstream exchange. Its outcome is mirrored in {@link #result}.
+     */
+    private static final class Call<T> extends FutureTask<T> {
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Call(Callable<T> callable) {
+            super(callable);
+        }
+
+        @Override
+        protected void done() {
+            try {
+                result.complete(get());
+            } catch (ExecutionException e) {
+                result.completeExceptionally(e.getCause());
+            } catch (CancellationException | InterruptedException e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static class Operation {
+
+        private final long fixedDelayMillis;
+        private final long minDelayMillis;
+        private final LatencyTracker latency;
+        private final LongAdder hedgesIssued = new LongAdder();
+        private final LongAdder hedgesWon = new LongAdder();
+
+        Operation(String name, long fixedDelayMillis, long minDelayMillis, double percentile, MeterRegistry meterRegistry) {
+            this.fixedDelayMillis = fixedDelayMillis;
+            this.minDelayMillis = minDelayMillis;
+            this.latency = new LatencyTracker(1_000, percentile, Math.max(minDelayMillis, 1_000));
+            FunctionCounter.builder(METER_HEDGES, hedgesIssued, LongAdder::sum)
+                    .tags("operation", name, "result", "issued")
+                    .register(meterRegistry);
+            FunctionCounter.builder(METER_HEDGES, hedgesWon, LongAdder::sum)
+                    .tags("operation", name, "result", "won")
+                    .register(meterRegistry);
+            Gauge.builder("similar.products.hedge.delay", this, Operation::delayMillis)
+                    .tag("operation", name)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+
+        long delayMillis() {
+            return fixedDelayMillis > 0 ? fixedDelayMillis : Math.max(minDelayMillis, latency.percentileMillis());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.inditex.product.infrastructure.adapters.out.client.hedging;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps the latencies of the last {@code size} calls and periodically computes a percentile out of them. Cheap enough
+ * to be updated on every call: the percentile is only recomputed every {@code size / 10} samples.
+ */
+class LatencyTracker {
+
+    private final AtomicLongArray samples;
+    private final double percentile;
+    private final int recomputeEvery;
+    private final AtomicLong count = new AtomicLong();
+    private volatile long current;
+
+    LatencyTracker(int size, double percentile, long initialMillis) {
+        this.samples = new AtomicLongArray(size);
+        this.percentile = percentile;
+        this.recomputeEvery = Math.max(1, size / 10);
+        this.current = initialMillis;
+    }
+
+    void record(long millis) {
+        long n = count.getAndIncrement();
+        samples.set((int) (n % samples.length()), millis);
+        if ((n + 1) % recomputeEvery == 0) {
+            recompute((int) Math.min(n + 1, samples.length()));
+        }
+    }
+
+    long percentileMillis() {
+        return current;
+    }
+
+    private void recompute(int filled) {
+        long[] copy = new long[filled];
+        for (int i = 0; i < filled; i++) {
+            copy[i] = samples.get(i);
+        }
+        Arrays.sort(copy);
+        current = copy[(int) Math.min(copy.length - 1, Math.ceil(percentile * copy.length) - 1)];
+    }
+}
@@ -0,0 +1,202 @@
+package com.inditex.product.infrastructure.adapters.out.client.jdk;
+
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.domain.model.ports.output.SimilarProducts;
+import com.inditex.product.shared.deadline.RequestDeadline;
+import com.inditex.product.shared.exception.CallCancelledException;
+import com.inditex.product.shared.exception.CircuitBreakerException;
+import com.inditex.product.shared.exception.DeadlineExceededException;
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.UnknownHttpStatusCodeException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import static com.inditex.product.infrastructure.adapters.config.SimilarProductsConfig.SIMULADO_CLIENT;
+import static com.inditex.product.infrastructure.adapters.out.client.config.JdkClientConfig.SIMULADO_HTTP_CLIENT;
+import static com.inditex.product.infrastructure.adapters.out.client.rest.ResilientCalls.call;
+import static com.inditex.product.infrastructure.adapters.out.client.rest.RestSimuladoSimilarProducts.PRODUCT_DETAIL;
+import static com.inditex.product.infrastructure.adapters.out.client.rest.RestSimuladoSimilarProducts.SIMILAR_IDS;
+
+/**
+ * Client for the simulado API on the JDK {@link HttpClient}, multiplexing the calls on an HTTP/2 connection (see
+ * {@link com.inditex.product.infrastructure.adapters.out.client.config.JdkClientConfig}). Same semantics as the
+ * {@link com.inditex.product.infrastructure.adapters.out.client.rest.RestSimuladoSimilarProducts REST one}: the same
+ * circuit breaker and bulkhead instances, and errors are reported with the same exceptions (Spring's
+ * {@link HttpClientErrorException}, {@link HttpServerErrorException} and {@link ResourceAccessException}), so the
+ * decorators and the circuit breaker configuration treat them alike.
+ * <p>
+ * Calls are sent with {@code sendAsync} and awaited: an interrupted caller (a cancelled fan-out lookup) cancels its
+ * exchange, releasing its stream, and gets a {@link CallCancelledException}, which isn't an upstream failure. The read timeout, or the budget left of the request if shorter, bounds the whole
+ * exchange, the body included: the body is read whole before it's parsed, and an exchange still running when it runs
+ * out is cancelled, so a server sending its body slowly doesn't hold the caller past its budget.
+ */
+@Component(SIMULADO_CLIENT)
+@ConditionalOnProperty(name = "simulado.api.client", havingValue = "jdk")
+public class JdkHttpSimuladoSimilarProducts implements SimilarProducts {
+
+    private final Logger logger = LoggerFactory.getLogger(JdkHttpSimuladoSimilarProducts.class);
+
+    private final HttpClient httpClient;
+    private final JsonMapper jsonMapper;
+    private final URI baseUri;
+    private final Duration readTimeout;
+    private final CircuitBreaker similarIdsCircuitBreaker;
+    private final CircuitBreaker productDetailCircuitBreaker;
+    private final Bulkhead similarIdsBulkhead;
+    private final Bulkhead productDetailBulkhead;
+
+    @Autowired
+    public JdkHttpSimuladoSimilarProducts(@Qualifier(SIMULADO_HTTP_CLIENT) HttpClient httpClient,
+                                          JsonMapper jsonMapper,
+                                          @Value("${simulado.api.host}") String simuladoApiHost,
+                                          @Value("${simulado.api.read.timeout:5000}") long simuladoApiReadTimeout,
+                                          CircuitBreakerRegistry circuitBreakerRegistry,
+                                          BulkheadRegistry bulkheadRegistry) {
+        this.httpClient = httpClient;
+        this.jsonMapper = jsonMapper;
+        this.baseUri = URI.create(simuladoApiHost);
+        this.readTimeout = Duration.ofMillis(simuladoApiReadTimeout);
+        this.similarIdsCircuitBreaker = circuitBreakerRegistry.circuitBreaker(SIMILAR_IDS);
+        this.productDetailCircuitBreaker = circuitBreakerRegistry.circuitBreaker(PRODUCT_DETAIL);
+        this.similarIdsBulkhead = bulkheadRegistry.bulkhead(SIMILAR_IDS);
+        this.productDetailBulkhead = bulkheadRegistry.bulkhead(PRODUCT_DETAIL);
+    }
+
+    @Override
+    public ProductDetails getProductById(String productId) {
+        try {
+            return call(productDetailBulkhead, productDetailCircuitBreaker, () -> fetch("/product/" + productId,
+                    ProductDetails.class, () -> {
+                        logger.warn("Product not found: {}", productId);
+                        return new ProductNotFoundException("Product not found: " + productId);
+                    }));
+        } catch (ProductNotFoundException | DeadlineExceededException | CallCancelledException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw fallback("Product ID", "There has been an error fetching product for id: " + productId, e);
+        }
+    }
+
+    @Override
+    public List<String> getSimilarProductIds(String productId) {
+        try {
+            String[] products = call(similarIdsBulkhead, similarIdsCircuitBreaker, () -> fetch(
+                    "/product/" + productId + "/similarids", String[].class,
+                    () -> new ProductNotFoundException("Similar product ids not found for product: " + productId)));
+            return products == null ? List.of() : Arrays.asList(products);
+        } catch (ProductNotFoundException | DeadlineExceededException | CallCancelledException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw fallback("Similar product IDs", "There has been an error fetching similar product ids for product "
+                    + productId, e);
+        }
+    }
+
+    // The body of a successful response, null if it has none
+    private <T> T fetch(String path, Class<T> type, Supplier<ProductNotFoundException> notFound) {
+        Duration timeout = RequestDeadline.remaining(readTimeout);
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(timeout)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = await(request, timeout,
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()));
+        int status = response.statusCode();
+        if (status == HttpStatus.NOT_FOUND.value()) {
+            throw notFound.get();
+        }
+        if (status >= 300) {
+            throw error(response, response.body());
+        }
+        if (status == HttpStatus.NO_CONTENT.value()) {
+            return null;
+        }
+        return jsonMapper.readValue(response.body(), type);
+    }
+
+    // The request timeout only bounds the wait for the headers: the body is bounded here
+    private static <T> T await(HttpRequest request, Duration timeout, CompletableFuture<T> response) {
+        try {
+            return response.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            response.cancel(true);
+            throw new ResourceAccessException("Read timed out on GET request for \"" + request.uri() + "\"");
+        } catch (InterruptedException e) {
+            response.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CallCancelledException("Cancelled waiting for the response of \"" + request.uri() + "\"", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw new ResourceAccessException("I/O error on GET request: " + io.getMessage(), io);
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new ResourceAccessException("Error on GET request: " + cause.getMessage());
+        }
+    }
+
+    // The exceptions RestTemplate would have thrown
+    private static RuntimeException error(HttpResponse<?> response, byte[] body) {
+        HttpHeaders headers = new HttpHeaders();
+        response.headers().map().forEach(headers::addAll);
+        HttpStatusCode status = HttpStatusCode.valueOf(response.statusCode());
+        String statusText = status instanceof HttpStatus known ? known.getReasonPhrase() : "";
+        if (status.is4xxClientError()) {
+            return HttpClientErrorException.create(status, statusText, headers, body, StandardCharsets.UTF_8);
+        }
+        if (status.is5xxServerError()) {
+            return HttpServerErrorException.create(status, statusText, headers, body, StandardCharsets.UTF_8);
+        }
+        return new UnknownHttpStatusCodeException(response.statusCode(), statusText, headers, body, StandardCharsets.UTF_8);
+    }
+
+    private CircuitBreakerException fallback(String operation, String errorMessage, Throwable t) {
+        if (t instanceof CallNotPermittedException) {
+            logger.warn("{} - circuit open", operation, t);
+            return new CircuitBreakerException("Similar product service temporarily unavailable (circuit open)", t);
+        }
+        if (t instanceof BulkheadFullException) {
+            logger.warn("{} - too many concurrent calls", operation, t);
+            return new CircuitBreakerException("Similar product service temporarily unavailable (too many concurrent calls)", t);
+        }
+        logger.warn("{} - error fetching", operation, t);
+        return new CircuitBreakerException(errorMessage, t);
+    }
+}
@@ -0,0 +1,128 @@
+package com.inditex.product.infrastructure.adapters.out.client.limit;
+
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.domain.model.ports.output.SimilarProducts;
+import com.inditex.product.shared.deadline.RequestDeadline;
+import com.inditex.product.shared.exception.CallCancelledException;
+import com.inditex.product.shared.exception.ConcurrencyLimitExceededException;
+import com.inditex.product.shared.exception.DeadlineExceededException;
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * {@link SimilarProducts} decorator limiting the concurrent calls of every operation to an adaptive limit (see
+ * {@link GradientLimit}) driven by their round trip times. Calls over the limit are rejected right away with a
+ * {@link ConcurrencyLimitExceededException}, instead of waiting for a connection, so load is shed as soon as the
+ * upstream slows down, before a queue builds up.
+ * <p>
+ * Calls answered by the upstream (found or not) are samples. Failed and timed out calls are drops, which shrink the
+ * limit like a latency increase would: an overloaded upstream often fails or times out before it answers slowly.
+ * Calls the circuit breaker or the bulkhead didn't let through never reached the upstream, and calls cut short by the
+ * deadline of their request or cancelled by their caller say nothing about it either (a client asking for a tiny budget would shrink the limit of
+ * everyone), so they are neither. Calls of a request already out of budget fail fast, without taking a permit.
+ * The current limit, the calls in flight and the rejected calls are published as {@code similar.products.concurrency.*}.
+ */
+public class ConcurrencyLimitingSimilarProducts implements SimilarProducts {
+
+    private static final String METER_PREFIX = "similar.products.concurrency.";
+
+    private final SimilarProducts delegate;
+    private final Operation productOperation;
+    private final Operation similarIdsOperation;
+
+    public ConcurrencyLimitingSimilarProducts(SimilarProducts delegate, MeterRegistry meterRegistry, int initialLimit,
+                                              int minLimit, double tolerance, int maxProductLimit, int maxSimilarIdsLimit) {
+        this.delegate = delegate;
+        this.productOperation = new Operation("getProductById",
+                new GradientLimit(initialLimit, minLimit, maxProductLimit, tolerance), meterRegistry);
+        this.similarIdsOperation = new Operation("getSimilarProductIds",
+                new GradientLimit(initialLimit, minLimit, maxSimilarIdsLimit, tolerance), meterRegistry);
+    }
+
+    @Override
+    public ProductDetails getProductById(String productId) {
+        return execute(productOperation, () -> delegate.getProductById(productId));
+    }
+
+    @Override
+    public List<String> getSimilarProductIds(String productId) {
+        return execute(similarIdsOperation, () -> delegate.getSimilarProductIds(productId));
+    }
+
+    private static <T> T execute(Operation operation, Supplier<T> call) {
+        RequestDeadline.check("calling the product service");
+        int inFlight = operation.tryAcquire();
+        if (inFlight < 0) {
+            operation.rejected.increment();
+            throw new ConcurrencyLimitExceededException("Similar product service temporarily unavailable (concurrency limit of "
+                    + operation.limit.limit() + " " + operation.name + " calls reached)");
+        }
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            operation.limit.onSample(System.nanoTime() - start, inFlight);
+            return result;
+        } catch (ProductNotFoundException e) {
+            operation.limit.onSample(System.nanoTime() - start, inFlight);
+            throw e;
+        } catch (RuntimeException e) {
+            if (isDrop(e)) {
+                operation.limit.onDrop(System.nanoTime() - start, inFlight);
+            }
+            throw e;
+        } finally {
+            operation.inFlight.decrementAndGet();
+        }
+    }
+
+    // Failures of the upstream: not the calls that didn't reach it, nor the ones their caller cut short
+    private static boolean isDrop(RuntimeException e) {
+        return !(e instanceof DeadlineExceededException || e instanceof CallCancelledException
+                || e.getCause() instanceof CallNotPermittedException || e.getCause() instanceof BulkheadFullException);
+    }
+
+    private static class Operation {
+
+        private final String name;
+        private final GradientLimit limit;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder rejected = new LongAdder();
+
+        Operation(String name, GradientLimit limit, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.limit = limit;
+            Gauge.builder(METER_PREFIX + "limit", limit, GradientLimit::limit)
+                    .description("Current concurrency limit of the calls to the upstream product API")
+                    .tag("operation", name)
+                    .register(meterRegistry);
+            Gauge.builder(METER_PREFIX + "inflight", inFlight, AtomicInteger::get)
+                    .tag("operation", name)
+                    .register(meterRegistry);
+            FunctionCounter.builder(METER_PREFIX + "rejected", rejected, LongAdder::sum)
+                    .description("Calls to the upstream product API rejected by the concurrency limit")
+                    .tag("operation", name)
+                    .register(meterRegistry);
+        }
+
+        // The calls in flight, this one included, or -1 if the limit has been reached
+        int tryAcquire() {
+            int current;
+            do {
+                current = inFlight.get();
+                if (current >= limit.limit()) {
+                    return -1;
+                }
+            } while (!inFlight.compareAndSet(current, current + 1));
+            return current + 1;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.inditex.product.infrastructure.adapters.out.client.limit;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit adjusted from the observed round trip times. Every window of samples, the limit is multiplied by the
+ * gradient between the long term RTT (an exponential average of the last few hundred samples) and the short term one
+ * (the average of the window), between 0.5 and 1, and a queue of its square root is added:
+ * <ul>
+ *     <li>While latency stays within {@code tolerance} times its usual value the limit grows by about its square root,
+ *     but only if it's being used (at least half of it in flight), so it doesn't grow unbounded at low load</li>
+ *     <li>As latency grows over it the limit shrinks, at most by half</li>
+ * </ul>
+ * A window with a dropped call (failed or timed out) shrinks the limit as much as the worst latency would. Changes are
+ * smoothed, and the limit is kept between {@code minLimit} and {@code maxLimit}.
+ */
+class GradientLimit {
+
+    private static final int WINDOW = 10;
+    private static final double LONG_RTT_ALPHA = 2.0 / (600.0 / WINDOW + 1);
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private volatile int limit;
+    // Not a monitor, so virtual threads sampling concurrently don't pin their carrier threads
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by the lock
+    private double estimatedLimit;
+    private double longRtt;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+
+    GradientLimit(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    /**
+     * Records the round trip time of a call, with the number of calls that were in flight when it was made.
+     */
+    void onSample(long rttNanos, int inFlight) {
+        update(rttNanos, inFlight, false);
+    }
+
+    /**
+     * Records a call that failed or timed out, after the given time.
+     */
+    void onDrop(long rttNanos, int inFlight) {
+        update(rttNanos, inFlight, true);
+    }
+
+    private void update(long rttNanos, int inFlight, boolean dropped) {
+        lock.lock();
+        try {
+            sample(rttNanos, inFlight, dropped);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sample(long rttNanos, int inFlight, boolean dropped) {
+        windowDropped |= dropped;
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+        if (windowSamples < WINDOW) {
+            return;
+        }
+        double shortRtt = Math.max(1, (double) windowRttSum / windowSamples);
+        int maxInFlight = windowMaxInFlight;
+        boolean drop = windowDropped;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        windowDropped = false;
+
+        double gradient = 0.5;
+        // Failed calls are often faster than answered ones: they aren't the usual latency
+        if (!drop) {
+            longRtt = longRtt == 0 ? shortRtt : longRtt + (shortRtt - longRtt) * LONG_RTT_ALPHA;
+            // Once an overload is over, the long term RTT mustn't keep the limit down for long
+            if (longRtt / shortRtt > 2) {
+                longRtt *= 0.95;
+            }
+            gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        }
+        if (gradient == 1.0 && maxInFlight < estimatedLimit / 2) {
+            return;
+        }
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+}
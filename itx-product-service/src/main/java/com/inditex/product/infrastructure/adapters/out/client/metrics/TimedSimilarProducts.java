@@ -0,0 +1,76 @@
+package com.inditex.product.infrastructure.adapters.out.client.metrics;
+
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.domain.model.ports.output.SimilarProducts;
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link SimilarProducts} decorator timing every call, per operation and outcome ({@code success}, {@code not_found} or
+ * {@code error}), as the {@code similar.products.upstream} timer. Histograms are enabled with the
+ * {@code management.metrics.distribution.*} properties. The timers are registered up front, so calls only record.
+ */
+public class TimedSimilarProducts implements SimilarProducts {
+
+    private static final String METER_UPSTREAM = "similar.products.upstream";
+
+    private final SimilarProducts delegate;
+    private final Operation productOperation;
+    private final Operation similarIdsOperation;
+
+    public TimedSimilarProducts(SimilarProducts delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.productOperation = new Operation("getProductById", meterRegistry);
+        this.similarIdsOperation = new Operation("getSimilarProductIds", meterRegistry);
+    }
+
+    @Override
+    public ProductDetails getProductById(String productId) {
+        return time(productOperation, () -> delegate.getProductById(productId));
+    }
+
+    @Override
+    public List<String> getSimilarProductIds(String productId) {
+        return time(similarIdsOperation, () -> delegate.getSimilarProductIds(productId));
+    }
+
+    private static <T> T time(Operation operation, Supplier<T> call) {
+        long start = System.nanoTime();
+        Timer timer = operation.error;
+        try {
+            T result = call.get();
+            timer = operation.success;
+            return result;
+        } catch (ProductNotFoundException e) {
+            timer = operation.notFound;
+            throw e;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static class Operation {
+
+        private final Timer success;
+        private final Timer notFound;
+        private final Timer error;
+
+        Operation(String name, MeterRegistry meterRegistry) {
+            this.success = timer(name, "success", meterRegistry);
+            this.notFound = timer(name, "not_found", meterRegistry);
+            this.error = timer(name, "error", meterRegistry);
+        }
+
+        private static Timer timer(String operation, String outcome, MeterRegistry meterRegistry) {
+            return Timer.builder(METER_UPSTREAM)
+                    .description("Latency of the calls made to the upstream product API")
+                    .tags("operation", operation, "outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.inditex.product.infrastructure.adapters.out.client.negative;
+
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.domain.model.ports.output.SimilarProducts;
+import com.inditex.product.shared.exception.CallCancelledException;
+import com.inditex.product.shared.exception.CircuitBreakerException;
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * {@link SimilarProducts} decorator caching failed calls, so repeated calls for a product that doesn't exist, or that
+ * the upstream is failing to return, are answered locally.
+ * <ul>
+ *     <li>Not found products ({@link ProductNotFoundException}) are cached for {@code notFoundTtlMillis}</li>
+ *     <li>Upstream errors (5xx, timeouts, circuit open) are cached for the (much shorter) {@code errorTtlMillis}</li>
+ * </ul>
+ * Calls given up by their caller (interrupted or cancelled, as the siblings of a failed fan-out lookup are) aren't
+ * cached: they say nothing about the product. Every caller answered locally gets an exception of its own, with the same
+ * type, message and cause as the cached one, so it is mapped to the same HTTP status by the controller advice.
+ */
+public class NegativeCachingSimilarProducts implements SimilarProducts {
+
+    private static final String METER_GETS = "similar.products.negative.cache.gets";
+
+    private final SimilarProducts delegate;
+    private final long notFoundTtlMillis;
+    private final long errorTtlMillis;
+    private final int maxSize;
+    private final Clock clock;
+
+    private final Map<String, Failure> productFailures = new ConcurrentHashMap<>();
+    private final Map<String, Failure> similarIdsFailures = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public NegativeCachingSimilarProducts(SimilarProducts delegate, MeterRegistry meterRegistry, long notFoundTtlMillis,
+                                          long errorTtlMillis, int maxSize, Clock clock) {
+        this.delegate = delegate;
+        this.notFoundTtlMillis = notFoundTtlMillis;
+        this.errorTtlMillis = errorTtlMillis;
+        this.maxSize = maxSize;
+        this.clock = clock;
+        FunctionCounter.builder(METER_GETS, hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder(METER_GETS, misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ProductDetails getProductById(String productId) {
+        return execute(productFailures, productId, () -> delegate.getProductById(productId));
+    }
+
+    @Override
+    public List<String> getSimilarProductIds(String productId) {
+        return execute(similarIdsFailures, productId, () -> delegate.getSimilarProductIds(productId));
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    private <T> T execute(Map<String, Failure> failures, String productId, Supplier<T> call) {
+        long now = clock.millis();
+        Failure failure = failures.get(productId);
+        if (failure != null) {
+            if (now < failure.expiresAt()) {
+                hits.increment();
+                throw copyOf(failure.exception());
+            }
+            failures.remove(productId, failure);
+        }
+
+        misses.increment();
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            long ttl = ttlFor(e);
+            if (ttl > 0) {
+                store(failures, productId, new Failure(e, now + ttl), now);
+            }
+            throw e;
+        }
+    }
+
+    private long ttlFor(RuntimeException e) {
+        if (e instanceof ProductNotFoundException) {
+            return notFoundTtlMillis;
+        }
+        if (isCancellation(e)) {
+            return 0;
+        }
+        if (e instanceof CircuitBreakerException || e instanceof HttpServerErrorException || e instanceof ResourceAccessException) {
+            return errorTtlMillis;
+        }
+        return 0;
+    }
+
+    private static boolean isCancellation(RuntimeException e) {
+        if (Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CallCancelledException || cause instanceof CancellationException
+                    || cause instanceof InterruptedException || cause instanceof InterruptedIOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Thrown exceptions get the stack trace and the suppressed exceptions of their caller, they can't be shared
+    private static RuntimeException copyOf(RuntimeException e) {
+        if (e instanceof ProductNotFoundException) {
+            return new ProductNotFoundException(e.getMessage(), e.getCause());
+        }
+        if (e instanceof CircuitBreakerException) {
+            return new CircuitBreakerException(e.getMessage(), e.getCause());
+        }
+        if (e instanceof HttpServerErrorException serverError) {
+            return HttpServerErrorException.create(serverError.getMessage(), serverError.getStatusCode(),
+                    serverError.getStatusText(), serverError.getResponseHeaders(), serverError.getResponseBodyAsByteArray(),
+                    null);
+        }
+        return e.getCause() instanceof IOException io
+                ? new ResourceAccessException(e.getMessage(), io) : new ResourceAccessException(e.getMessage());
+    }
+
+    private void store(Map<String, Failure> failures, String productId, Failure failure, long now) {
+        if (failures.size() >= maxSize) {
+            failures.values().removeIf(stored -> now >= stored.expiresAt());
+            if (failures.size() >= maxSize) {
+                return;
+            }
+        }
+        failures.put(productId, failure);
+    }
+
+    private record Failure(RuntimeException exception, long expiresAt) {
+    }
+}
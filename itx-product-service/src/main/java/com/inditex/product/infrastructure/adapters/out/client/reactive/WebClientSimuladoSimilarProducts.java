@@ -0,0 +1,116 @@
+package com.inditex.product.infrastructure.adapters.out.client.reactive;
+
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.domain.model.ports.output.ReactiveSimilarProducts;
+import com.inditex.product.shared.exception.CircuitBreakerException;
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.inditex.product.infrastructure.adapters.out.client.config.ReactiveClientConfig.PRODUCT_DETAIL_WEB_CLIENT;
+import static com.inditex.product.infrastructure.adapters.out.client.config.ReactiveClientConfig.SIMILAR_IDS_WEB_CLIENT;
+import static com.inditex.product.infrastructure.adapters.out.client.rest.RestSimuladoSimilarProducts.PRODUCT_DETAIL;
+import static com.inditex.product.infrastructure.adapters.out.client.rest.RestSimuladoSimilarProducts.SIMILAR_IDS;
+
+/**
+ * Non-blocking client for the simulado API, used in the reactive mode. Same semantics as the
+ * {@link com.inditex.product.infrastructure.adapters.out.client.rest.RestSimuladoSimilarProducts REST one}: each
+ * operation has its own connection pool and the same circuit breaker and bulkhead instances, and errors are reported
+ * with the same exceptions. The bulkhead doesn't wait for a permission though: a saturated operation rejects the call
+ * right away, as waiting would mean blocking.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class WebClientSimuladoSimilarProducts implements ReactiveSimilarProducts {
+
+    private final Logger logger = LoggerFactory.getLogger(WebClientSimuladoSimilarProducts.class);
+
+    private final WebClient similarIdsWebClient;
+    private final WebClient productDetailWebClient;
+    private final CircuitBreaker similarIdsCircuitBreaker;
+    private final CircuitBreaker productDetailCircuitBreaker;
+    private final Bulkhead similarIdsBulkhead;
+    private final Bulkhead productDetailBulkhead;
+
+    @Autowired
+    public WebClientSimuladoSimilarProducts(@Qualifier(SIMILAR_IDS_WEB_CLIENT) WebClient similarIdsWebClient,
+                                            @Qualifier(PRODUCT_DETAIL_WEB_CLIENT) WebClient productDetailWebClient,
+                                            CircuitBreakerRegistry circuitBreakerRegistry,
+                                            BulkheadRegistry bulkheadRegistry) {
+        this.similarIdsWebClient = similarIdsWebClient;
+        this.productDetailWebClient = productDetailWebClient;
+        this.similarIdsCircuitBreaker = circuitBreakerRegistry.circuitBreaker(SIMILAR_IDS);
+        this.productDetailCircuitBreaker = circuitBreakerRegistry.circuitBreaker(PRODUCT_DETAIL);
+        this.similarIdsBulkhead = bulkheadRegistry.bulkhead(SIMILAR_IDS);
+        this.productDetailBulkhead = bulkheadRegistry.bulkhead(PRODUCT_DETAIL);
+    }
+
+    @Override
+    public Mono<ProductDetails> getProductById(String productId) {
+        Mono<ProductDetails> call = productDetailWebClient.get()
+                .uri("/product/{productId}", productId)
+                .retrieve()
+                .bodyToMono(ProductDetails.class)
+                .onErrorMap(WebClientResponseException.NotFound.class, e -> {
+                    logger.warn("Product not found: {}", productId);
+                    return new ProductNotFoundException("Product not found: " + productId, e);
+                });
+        return protect(call, productDetailBulkhead, productDetailCircuitBreaker)
+                .onErrorMap(e -> !(e instanceof ProductNotFoundException),
+                        e -> fallback("Product ID", "There has been an error fetching product for id: " + productId, e));
+    }
+
+    @Override
+    public Mono<List<String>> getSimilarProductIds(String productId) {
+        Mono<List<String>> call = similarIdsWebClient.get()
+                .uri("/product/{productId}/similarids", productId)
+                .retrieve()
+                .bodyToMono(String[].class)
+                .map(Arrays::asList)
+                .defaultIfEmpty(List.of())
+                .onErrorMap(WebClientResponseException.NotFound.class,
+                        e -> new ProductNotFoundException("Similar product ids not found for product: " + productId, e));
+        return protect(call, similarIdsBulkhead, similarIdsCircuitBreaker)
+                .onErrorMap(e -> !(e instanceof ProductNotFoundException),
+                        e -> fallback("Similar product IDs", "There has been an error fetching similar product ids for product "
+                                + productId, e));
+    }
+
+    private CircuitBreakerException fallback(String operation, String errorMessage, Throwable t) {
+        if (t instanceof CallNotPermittedException) {
+            logger.warn("{} - circuit open", operation, t);
+            return new CircuitBreakerException("Similar product service temporarily unavailable (circuit open)", t);
+        }
+        if (t instanceof BulkheadFullException) {
+            logger.warn("{} - too many concurrent calls", operation, t);
+            return new CircuitBreakerException("Similar product service temporarily unavailable (too many concurrent calls)", t);
+        }
+        logger.warn("{} - error fetching", operation, t);
+        return new CircuitBreakerException(errorMessage, t);
+    }
+
+    // The bulkhead goes first (it's the outermost operator): calls rejected because the operation is saturated don't
+    // count as circuit breaker failures
+    private static <T> Mono<T> protect(Mono<T> call, Bulkhead bulkhead, CircuitBreaker circuitBreaker) {
+        return call.transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead));
+    }
+}
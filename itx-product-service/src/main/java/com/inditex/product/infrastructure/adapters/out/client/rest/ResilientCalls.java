@@ -0,0 +1,53 @@
+package com.inditex.product.infrastructure.adapters.out.client.rest;
+
+import com.inditex.product.shared.deadline.RequestDeadline;
+import com.inditex.product.shared.exception.CallCancelledException;
+import com.inditex.product.shared.exception.DeadlineExceededException;
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import java.util.function.Supplier;
+
+/**
+ * Upstream calls through the bulkhead and the circuit breaker of their operation, shared by the REST and the JDK
+ * clients. The bulkhead goes first: calls rejected because the operation is saturated don't count as circuit breaker
+ * failures. Calls cut short by the request deadline don't count either, whatever the circuit breaker configuration:
+ * the request ran out of budget, the upstream didn't fail. They throw a {@link DeadlineExceededException}, and nothing
+ * is called once the deadline is reached. Nor do calls given up by an interrupted caller (a cancelled fan-out lookup, a
+ * warm-up shut down): they throw a {@link CallCancelledException}.
+ */
+public final class ResilientCalls {
+
+    private static final String CALLING = "calling the product service";
+
+    private ResilientCalls() {
+    }
+
+    public static <T> T call(Bulkhead bulkhead, CircuitBreaker circuitBreaker, Supplier<T> supplier) {
+        RequestDeadline.check(CALLING);
+        return Bulkhead.decorateSupplier(bulkhead, () -> call(circuitBreaker, supplier)).get();
+    }
+
+    private static <T> T call(CircuitBreaker circuitBreaker, Supplier<T> supplier) {
+        circuitBreaker.acquirePermission();
+        long start = circuitBreaker.getCurrentTimestamp();
+        try {
+            T result = supplier.get();
+            circuitBreaker.onResult(circuitBreaker.getCurrentTimestamp() - start, circuitBreaker.getTimestampUnit(), result);
+            return result;
+        } catch (RuntimeException e) {
+            if (e instanceof CallCancelledException
+                    || !(e instanceof ProductNotFoundException) && Thread.currentThread().isInterrupted()) {
+                circuitBreaker.releasePermission();
+                throw e instanceof CallCancelledException ? e : new CallCancelledException("Cancelled " + CALLING, e);
+            }
+            if (!(e instanceof ProductNotFoundException) && RequestDeadline.isExpired()) {
+                circuitBreaker.releasePermission();
+                throw e instanceof DeadlineExceededException ? e : new DeadlineExceededException("Deadline exceeded " + CALLING, e);
+            }
+            circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - start, circuitBreaker.getTimestampUnit(), e);
+            throw e;
+        }
+    }
+}
@@ -1,15 +1,22 @@
 package com.inditex.product.infrastructure.adapters.out.client.rest;
 
 import com.inditex.product.domain.model.ports.output.SimilarProducts;
+import com.inditex.product.shared.exception.CallCancelledException;
 import com.inditex.product.shared.exception.CircuitBreakerException;
+import com.inditex.product.shared.exception.DeadlineExceededException;
 import com.inditex.product.shared.exception.ProductNotFoundException;
 import com.inditex.product.domain.model.ProductDetails;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
@@ -17,23 +24,60 @@ import org.springframework.web.client.RestTemplate;
 import java.util.Arrays;
 import java.util.List;
 
-@Component
+import static com.inditex.product.infrastructure.adapters.config.SimilarProductsConfig.SIMULADO_CLIENT;
+import static com.inditex.product.infrastructure.adapters.out.client.config.RestClientConfig.PRODUCT_DETAIL_CLIENT;
+import static com.inditex.product.infrastructure.adapters.out.client.config.RestClientConfig.SIMILAR_IDS_CLIENT;
+import static com.inditex.product.infrastructure.adapters.out.client.rest.ResilientCalls.call;
+
+/**
+ * REST client for the simulado API. Each operation has its own connection pool, circuit breaker and bulkhead
+ * (configured in {@code resilience4j.circuitbreaker.instances.*} and {@code resilience4j.bulkhead.instances.*}), so a
+ * degraded endpoint can't starve or open the circuit of the other one. The default client
+ * ({@code simulado.api.client=apache}).
+ */
+@Component(SIMULADO_CLIENT)
+@ConditionalOnProperty(name = "simulado.api.client", havingValue = "apache", matchIfMissing = true)
 public class RestSimuladoSimilarProducts implements SimilarProducts {
 
+    public static final String SIMILAR_IDS = "similarIds";
+    public static final String PRODUCT_DETAIL = "productDetail";
+
     private final Logger logger = LoggerFactory.getLogger(RestSimuladoSimilarProducts.class);
 
-    private final RestTemplate restTemplate;
+    private final RestTemplate similarIdsRestTemplate;
+    private final RestTemplate productDetailRestTemplate;
+    private final CircuitBreaker similarIdsCircuitBreaker;
+    private final CircuitBreaker productDetailCircuitBreaker;
+    private final Bulkhead similarIdsBulkhead;
+    private final Bulkhead productDetailBulkhead;
 
     @Autowired
-    public RestSimuladoSimilarProducts(@Qualifier("simuladoProductClient") RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    public RestSimuladoSimilarProducts(@Qualifier(SIMILAR_IDS_CLIENT) RestTemplate similarIdsRestTemplate,
+                                       @Qualifier(PRODUCT_DETAIL_CLIENT) RestTemplate productDetailRestTemplate,
+                                       CircuitBreakerRegistry circuitBreakerRegistry,
+                                       BulkheadRegistry bulkheadRegistry) {
+        this.similarIdsRestTemplate = similarIdsRestTemplate;
+        this.productDetailRestTemplate = productDetailRestTemplate;
+        this.similarIdsCircuitBreaker = circuitBreakerRegistry.circuitBreaker(SIMILAR_IDS);
+        this.productDetailCircuitBreaker = circuitBreakerRegistry.circuitBreaker(PRODUCT_DETAIL);
+        this.similarIdsBulkhead = bulkheadRegistry.bulkhead(SIMILAR_IDS);
+        this.productDetailBulkhead = bulkheadRegistry.bulkhead(PRODUCT_DETAIL);
     }
 
-    @CircuitBreaker(name = "client", fallbackMethod = "fallbackGetProductById")
     public ProductDetails getProductById(String productId) {
+        try {
+            return call(productDetailBulkhead, productDetailCircuitBreaker, () -> fetchProductById(productId));
+        } catch (ProductNotFoundException | DeadlineExceededException | CallCancelledException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            return fallbackGetProductById(productId, e);
+        }
+    }
+
+    private ProductDetails fetchProductById(String productId) {
         String url = String.format("/product/%s" , productId);
         try {
-            return restTemplate.getForObject(url, ProductDetails.class);
+            return productDetailRestTemplate.getForObject(url, ProductDetails.class);
         } catch (HttpClientErrorException.NotFound e) {
             logger.warn("Product not found: {}", productId);
             throw new ProductNotFoundException("Product not found: " + productId, e);
@@ -45,19 +89,32 @@ public class RestSimuladoSimilarProducts implements SimilarProducts {
             logger.warn("Product ID - circuit open", t);
             throw new CircuitBreakerException("Similar product service temporarily unavailable (circuit open)", t);
         }
+        if (t instanceof BulkheadFullException) {
+            logger.warn("Product ID - too many concurrent calls", t);
+            throw new CircuitBreakerException("Similar product service temporarily unavailable (too many concurrent calls)", t);
+        }
         logger.warn("Product ID - error fetching", t);
         throw new CircuitBreakerException("There has been an error fetching product for id: " + productId, t);
     }
 
-    @CircuitBreaker(name = "client", fallbackMethod = "fallbackGetSimilarProductIds")
     public List<String> getSimilarProductIds(String productId) {
+        try {
+            return call(similarIdsBulkhead, similarIdsCircuitBreaker, () -> fetchSimilarProductIds(productId));
+        } catch (ProductNotFoundException | DeadlineExceededException | CallCancelledException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            return fallbackGetSimilarProductIds(productId, e);
+        }
+    }
+
+    private List<String> fetchSimilarProductIds(String productId) {
         String url = String.format("/product/%s/similarids" , productId);
 
-        String[] products = restTemplate.getForObject(url, String[].class);
         try {
-
+            String[] products = similarIdsRestTemplate.getForObject(url, String[].class);
             return (products == null) ? List.of() : Arrays.asList(products);
         } catch (HttpClientErrorException.NotFound e) {
+            logger.warn("Similar product ids not found: {}", productId);
             throw new ProductNotFoundException("Similar product ids not found for product: " + productId, e);
         }
     }
@@ -67,6 +124,9 @@ public class RestSimuladoSimilarProducts implements SimilarProducts {
         if (t instanceof CallNotPermittedException) {
             throw new CircuitBreakerException("Similar product service temporarily unavailable (circuit open)", t);
         }
+        if (t instanceof BulkheadFullException) {
+            throw new CircuitBreakerException("Similar product service temporarily unavailable (too many concurrent calls)", t);
+        }
         throw new CircuitBreakerException("There has been an error fetching similar product ids for product " + productId, t);
     }
 }
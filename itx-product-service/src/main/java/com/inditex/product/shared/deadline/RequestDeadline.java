@@ -0,0 +1,112 @@
+package com.inditex.product.shared.deadline;
+
+import com.inditex.product.shared.exception.DeadlineExceededException;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Deadline (a {@link System#nanoTime()} value) of the request being handled by the current thread, so every upstream
+ * call made for it only gets the budget left. It is set by the inbound adapters around the use case, and carried over
+ * to the threads the request fans out to with {@link #propagate}. Threads working for no request (cache refreshes,
+ * warm-up) have none: they are only bounded by the client timeouts.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+    private static final long MIN_TIMEOUT_NANOS = Duration.ofMillis(1).toNanos();
+
+    private RequestDeadline() {
+    }
+
+    /**
+     * Runs the call with the given deadline, restoring the previous one (if any) afterwards.
+     */
+    public static <T> T within(long deadline, Supplier<T> call) {
+        Long previous = DEADLINE.get();
+        DEADLINE.set(deadline);
+        try {
+            return call.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * The given deadline, or the one of the current request if it is earlier.
+     */
+    public static long earliest(long deadline) {
+        Long current = DEADLINE.get();
+        return current != null && current - deadline < 0 ? current : deadline;
+    }
+
+    /**
+     * The budget left, or the given timeout if it is shorter (or there is no deadline). Never below a millisecond, as a
+     * zero timeout means no timeout at all for some clients: the budget is {@link #check checked} before calling.
+     */
+    public static Duration remaining(Duration timeout) {
+        Long current = DEADLINE.get();
+        if (current == null) {
+            return timeout;
+        }
+        long remaining = Math.max(MIN_TIMEOUT_NANOS, current - System.nanoTime());
+        return remaining < timeout.toNanos() ? Duration.ofNanos(remaining) : timeout;
+    }
+
+    /**
+     * Nanoseconds left, {@link Long#MAX_VALUE} without a deadline.
+     */
+    public static long remainingNanos() {
+        Long current = DEADLINE.get();
+        return current == null ? Long.MAX_VALUE : current - System.nanoTime();
+    }
+
+    public static boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    /**
+     * Fails fast, without waiting for anything, once the budget is exhausted.
+     */
+    public static void check(String what) {
+        if (isExpired()) {
+            throw new DeadlineExceededException("Deadline exceeded " + what);
+        }
+    }
+
+    /**
+     * The task, run with the deadline of the current thread (if any) wherever it runs.
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        Long deadline = DEADLINE.get();
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            Long previous = DEADLINE.get();
+            DEADLINE.set(deadline);
+            try {
+                return task.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    public static Runnable propagate(Runnable task) {
+        Long deadline = DEADLINE.get();
+        return deadline == null ? task : () -> within(deadline, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    private static void restore(Long previous) {
+        if (previous == null) {
+            DEADLINE.remove();
+        } else {
+            DEADLINE.set(previous);
+        }
+    }
+}
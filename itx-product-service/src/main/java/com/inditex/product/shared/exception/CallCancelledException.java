@@ -0,0 +1,6 @@
+package com.inditex.product.shared.exception;
+
+public class CallCancelledException extends RuntimeException {
+    public CallCancelledException(String message) { super(message); }
+    public CallCancelledException(String message, Throwable cause) { super(message, cause); }
+}
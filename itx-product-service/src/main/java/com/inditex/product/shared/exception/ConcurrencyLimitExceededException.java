@@ -0,0 +1,5 @@
+package com.inditex.product.shared.exception;
+
+public class ConcurrencyLimitExceededException extends RuntimeException {
+    public ConcurrencyLimitExceededException(String message) { super(message); }
+}
@@ -0,0 +1,6 @@
+package com.inditex.product.shared.exception;
+
+public class DeadlineExceededException extends RuntimeException {
+    public DeadlineExceededException(String message) { super(message); }
+    public DeadlineExceededException(String message, Throwable cause) { super(message, cause); }
+}
@@ -0,0 +1,33 @@
+package com.inditex.product;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Clock that only moves when told to, for time based tests.
+ */
+public class MutableClock extends Clock {
+
+    private volatile long millis = 1_000_000;
+
+    public void advance(long delta) {
+        millis += delta;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return this;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis);
+    }
+}
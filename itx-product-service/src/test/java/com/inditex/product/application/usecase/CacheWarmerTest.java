@@ -0,0 +1,162 @@
+package com.inditex.product.application.usecase;
+
+import com.inditex.product.application.service.CacheWarmer;
+import com.inditex.product.application.service.CacheWarmer.State;
+import com.inditex.product.application.service.CacheWarmer.WarmUpProgress;
+import com.inditex.product.domain.model.ports.output.SimilarProducts;
+import com.inditex.product.infrastructure.adapters.cache.ProductDetailsCache;
+import com.inditex.product.infrastructure.adapters.cache.SimilarProductsCache;
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import static com.inditex.product.application.usecase.UseCaseHelpers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.*;
+
+class CacheWarmerTest {
+
+    private SimilarProducts similarProducts;
+    private SimilarProductsCache similarProductsCache;
+    private ProductDetailsCache productDetailsCache;
+
+    @BeforeEach
+    void setUp() {
+        similarProducts = mock(SimilarProducts.class);
+        similarProductsCache = buildSimilarProductsCache();
+        productDetailsCache = buildProductDetailsCache();
+    }
+
+    @Test
+    void warmUpShouldCacheTheSimilarIdsAndTheDetailsOfEveryProduct() {
+        when(similarProducts.getSimilarProductIds("1")).thenReturn(List.of("2", "3"));
+        when(similarProducts.getSimilarProductIds("2")).thenReturn(List.of("3"));
+        when(similarProducts.getProductById(anyString())).thenAnswer(call -> buildProductDetails(call.getArgument(0), "P", 1.0, true));
+        CacheWarmer warmer = warmer(1, 100, 1, 5_000);
+
+        WarmUpProgress progress = awaitFinished(warmer, warmer.warmUp(List.of("1", "2", " 1 ", "")));
+
+        assertThat(progress.state(), is(State.DONE));
+        assertThat(progress.total(), is(2));
+        assertThat(progress.warmed(), is(2));
+        assertThat(progress.completed(), is(1.0));
+        assertThat(similarProductsCache.get("1", id -> fail("Not cached: " + id)).ids(), is(List.of("2", "3")));
+        assertThat(productDetailsCache.get("3", id -> fail("Not cached: " + id)).id(), is("3"));
+        verify(similarProducts, times(1)).getProductById("3");
+    }
+
+    @Test
+    void failedProductsShouldBeCountedAsCompleted() {
+        when(similarProducts.getSimilarProductIds("1")).thenReturn(List.of("2"));
+        when(similarProducts.getSimilarProductIds("5")).thenThrow(new ProductNotFoundException("Product not found: 5"));
+        when(similarProducts.getProductById("2")).thenReturn(buildProductDetails("2", "P2", 1.0, true));
+        CacheWarmer warmer = warmer(2, 100, 1, 5_000);
+
+        WarmUpProgress progress = awaitFinished(warmer, warmer.warmUp(List.of("1", "5")));
+
+        assertThat(progress.warmed(), is(1));
+        assertThat(progress.failed(), is(1));
+        assertThat(warmer.isReady(), is(true));
+    }
+
+    @Test
+    void instanceShouldNotBeReadyUntilTheThresholdIsReached() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(similarProducts.getSimilarProductIds("1")).thenReturn(List.of());
+        when(similarProducts.getSimilarProductIds("2")).thenAnswer(call -> {
+            release.await();
+            return List.of();
+        });
+        CacheWarmer warmer = warmer(2, 100, 1, 5_000);
+
+        warmer.warmUp(List.of("1", "2"));
+        awaitCompleted(warmer, 1);
+        assertThat(warmer.isReady(), is(false));
+        assertThat(warmer.progress().state(), is(State.RUNNING));
+
+        release.countDown();
+        awaitFinished(warmer, warmer.progress());
+        assertThat(warmer.isReady(), is(true));
+    }
+
+    @Test
+    void pendingProductsShouldBeAbandonedAtTheTimeout() {
+        when(similarProducts.getSimilarProductIds("1")).thenAnswer(call -> {
+            new CountDownLatch(1).await();
+            return List.of();
+        });
+        CacheWarmer warmer = warmer(1, 100, 1, 200);
+
+        WarmUpProgress progress = awaitFinished(warmer, warmer.warmUp(List.of("1", "2")));
+
+        assertThat(progress.state(), is(State.TIMED_OUT));
+        assertThat(warmer.isReady(), is(true));
+    }
+
+    @Test
+    void upstreamCallsShouldBeRateLimited() {
+        when(similarProducts.getSimilarProductIds(anyString())).thenReturn(List.of());
+        CacheWarmer warmer = warmer(4, 5, 1, 10_000);
+        List<String> productIds = IntStream.rangeClosed(1, 15).mapToObj(String::valueOf).toList();
+
+        WarmUpProgress progress = awaitFinished(warmer, warmer.warmUp(productIds));
+
+        // 5 calls per second: the last 5 wait for the third period
+        assertThat(progress.warmed(), is(15));
+        assertThat(progress.elapsedMillis(), greaterThanOrEqualTo(1_000L));
+    }
+
+    @Test
+    void hotIdsShouldBeReadFromTheFileOnStartup(@TempDir Path dir) throws Exception {
+        Path file = Files.writeString(dir.resolve("hot-ids.txt"), "# Hot products\n1\n\n 2 \n");
+        when(similarProducts.getSimilarProductIds(anyString())).thenReturn(List.of());
+        CacheWarmer warmer = new CacheWarmer(similarProducts, similarProductsCache, productDetailsCache,
+                file.toString(), 1, 100, 1, 5_000);
+
+        warmer.run(new DefaultApplicationArguments());
+
+        assertThat(awaitFinished(warmer, warmer.progress()).warmed(), is(2));
+        verify(similarProducts).getSimilarProductIds("1");
+        verify(similarProducts).getSimilarProductIds("2");
+    }
+
+    private CacheWarmer warmer(int concurrency, int rate, double readyThreshold, long timeout) {
+        return new CacheWarmer(similarProducts, similarProductsCache, productDetailsCache, "", concurrency, rate,
+                readyThreshold, timeout);
+    }
+
+    private static WarmUpProgress awaitFinished(CacheWarmer warmer, WarmUpProgress progress) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (progress.state() == State.RUNNING && System.currentTimeMillis() < deadline) {
+            sleep();
+            progress = warmer.progress();
+        }
+        assertThat(progress.state(), not(State.RUNNING));
+        return progress;
+    }
+
+    private static void awaitCompleted(CacheWarmer warmer, int completed) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (warmer.progress().warmed() + warmer.progress().failed() < completed && System.currentTimeMillis() < deadline) {
+            sleep();
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.inditex.product.application.usecase;
+
+import com.inditex.product.application.service.ProductService;
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.domain.model.SimilarProductsResult;
+import com.inditex.product.domain.model.ports.output.SimilarProducts;
+import com.inditex.product.shared.exception.CircuitBreakerException;
+import com.inditex.product.shared.exception.DeadlineExceededException;
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.inditex.product.application.usecase.UseCaseHelpers.buildProductDetails;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductServiceBatchTest {
+
+    @Mock
+    private SimilarProducts productClient;
+
+    @RegisterExtension
+    final ProductServiceFixture fixture = new ProductServiceFixture();
+
+    private ProductService useCase;
+
+    @BeforeEach
+    void setUp() {
+        useCase = fixture.with("batch.max.size", 3).with("batch.timeout", 300).useCase(productClient);
+    }
+
+    @Test
+    @DisplayName("Products in several lists are fetched once per batch, every list keeps its order")
+    void shouldFetchSharedProductsOnce() {
+        when(productClient.getSimilarProductIds("1")).thenReturn(List.of("10", "11"));
+        when(productClient.getSimilarProductIds("2")).thenReturn(List.of("12", "11", "10"));
+        for (String id : List.of("10", "11", "12")) {
+            when(productClient.getProductById(id)).thenReturn(buildProductDetails(id, "P" + id, 10.0, true));
+        }
+
+        Map<String, SimilarProductsResult> results = useCase.getSimilarProducts(List.of("1", "2", "1"));
+
+        assertThat(results.keySet(), contains("1", "2"));
+        assertThat(ids(results.get("1")), contains("10", "11"));
+        assertThat(ids(results.get("2")), contains("12", "11", "10"));
+        verify(productClient, times(1)).getSimilarProductIds("1");
+        verify(productClient, times(1)).getProductById("10");
+        verify(productClient, times(1)).getProductById("11");
+        verify(productClient, times(1)).getProductById("12");
+    }
+
+    @Test
+    @DisplayName("A failing product only fails the lists it is in")
+    void shouldIsolateFailures() {
+        when(productClient.getSimilarProductIds("1")).thenReturn(List.of("10"));
+        when(productClient.getSimilarProductIds("2")).thenReturn(List.of("10", "404"));
+        when(productClient.getSimilarProductIds("3")).thenThrow(new CircuitBreakerException("Similar products temporarily unavailable"));
+        when(productClient.getProductById("10")).thenReturn(buildProductDetails("10", "P10", 10.0, true));
+        when(productClient.getProductById("404")).thenThrow(new ProductNotFoundException("Product not found: 404"));
+
+        Map<String, SimilarProductsResult> results = useCase.getSimilarProducts(List.of("1", "2", "3"));
+
+        assertThat(ids(results.get("1")), is(List.of("10")));
+        assertThat(results.get("2").error(), instanceOf(ProductNotFoundException.class));
+        assertThat(results.get("3").error(), instanceOf(CircuitBreakerException.class));
+    }
+
+    @Test
+    @DisplayName("Lookups not done by the batch deadline fail their lists without delaying the rest")
+    void shouldFailTheSlowListsOnDeadline() {
+        when(productClient.getSimilarProductIds("1")).thenReturn(List.of("10"));
+        when(productClient.getSimilarProductIds("2")).thenReturn(List.of("20"));
+        when(productClient.getProductById("10")).thenReturn(buildProductDetails("10", "P10", 10.0, true));
+        when(productClient.getProductById("20")).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return buildProductDetails("20", "P20", 20.0, true);
+        });
+
+        long start = System.nanoTime();
+        Map<String, SimilarProductsResult> results = useCase.getSimilarProducts(List.of("1", "2"));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(ids(results.get("1")), is(List.of("10")));
+        assertThat(results.get("2").error(), instanceOf(DeadlineExceededException.class));
+        assertThat(elapsedMillis, lessThan(1_000L));
+    }
+
+    @Test
+    @DisplayName("Rejects batches bigger than the configured maximum")
+    void shouldRejectTooManyProductIds() {
+        assertThrows(IllegalArgumentException.class, () -> useCase.getSimilarProducts(List.of("1", "2", "3", "4")));
+        verifyNoInteractions(productClient);
+    }
+
+    private static List<String> ids(SimilarProductsResult result) {
+        assertThat(result.isSuccess(), is(true));
+        return result.products().stream().map(ProductDetails::id).toList();
+    }
+}
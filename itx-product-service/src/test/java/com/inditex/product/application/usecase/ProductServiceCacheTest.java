@@ -4,6 +4,11 @@ import com.inditex.product.application.ports.input.SimilarProductsUseCase;
 import com.inditex.product.domain.model.ports.output.SimilarProducts;
 import com.inditex.product.domain.model.ProductDetails;
 import com.inditex.product.application.service.ProductService;
+import com.inditex.product.infrastructure.adapters.cache.ProductDetailsCache;
+import com.inditex.product.infrastructure.adapters.cache.SimilarProductsCache;
+import com.inditex.product.infrastructure.adapters.config.ProductServiceConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,26 +20,26 @@ import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
-import org.springframework.cloud.client.circuitbreaker.CircuitBreaker;
-import org.springframework.cloud.client.circuitbreaker.CircuitBreakerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.util.List;
-import java.util.function.Function;
-import java.util.function.Supplier;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static com.inditex.product.application.usecase.UseCaseHelpers.buildProductDetails;
+import static com.inditex.product.infrastructure.adapters.config.CacheConfig.CACHE_REFRESH_EXECUTOR;
+import static com.inditex.product.infrastructure.adapters.config.FanOutConfig.FAN_OUT_EXECUTOR;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.hamcrest.Matchers.contains;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(SpringExtension.class)
-@ContextConfiguration(classes = {ProductService.class, ProductServiceCacheTest.MockConfig.class, ProductServiceCacheTest.TestCacheConfig.class})
+@ContextConfiguration(classes = {ProductService.class, SimilarProductsCache.class, ProductDetailsCache.class, ProductServiceConfig.class, ProductServiceCacheTest.MockConfig.class, ProductServiceCacheTest.TestCacheConfig.class})
 class ProductServiceCacheTest {
 
     private static final String PRODUCT_A = "A";
@@ -49,10 +54,16 @@ class ProductServiceCacheTest {
     @Autowired
     private SimilarProducts similarProducts;
 
+    @Autowired
+    private SimilarProductsCache similarProductsCache;
+
+    @Autowired
+    private ProductDetailsCache productDetailsCache;
+
     @BeforeEach
     void clearCache() {
-        Cache cache = cacheManager.getCache("similarProductsCache");
-        if (cache != null) cache.clear();
+        similarProductsCache.clear();
+        productDetailsCache.clear();
         Mockito.reset(similarProducts);
     }
 
@@ -68,8 +79,8 @@ class ProductServiceCacheTest {
 
         assertThat(first, hasSize(2));
         assertThat(second, hasSize(2));
-        assertThat(second.get(0).getId(), is("1"));
-        assertThat(second.get(1).getId(), is("2"));
+        assertThat(second.get(0).id(), is("1"));
+        assertThat(second.get(1).id(), is("2"));
 
         verify(similarProducts, times(1)).getSimilarProductIds(PRODUCT_A);
         verify(similarProducts, times(1)).getProductById("1");
@@ -93,8 +104,8 @@ class ProductServiceCacheTest {
 
         assertThat(a, hasSize(2));
         assertThat(b, hasSize(2));
-        assertThat(a.stream().map(ProductDetails::getId).toList(), contains("1", "2"));
-        assertThat(b.stream().map(ProductDetails::getId).toList(), contains("3", "4"));
+        assertThat(a.stream().map(ProductDetails::id).toList(), contains("1", "2"));
+        assertThat(b.stream().map(ProductDetails::id).toList(), contains("3", "4"));
 
         verify(similarProducts, times(1)).getSimilarProductIds(PRODUCT_A);
         verify(similarProducts, times(1)).getSimilarProductIds(PRODUCT_B);
@@ -106,7 +117,7 @@ class ProductServiceCacheTest {
     }
 
     @Test
-    @DisplayName("Cache eviction: clearing cache forces re-fetch from client")
+    @DisplayName("Cache eviction: clearing caches forces re-fetch from client")
     void cacheEvictionForcesReload() {
         when(similarProducts.getSimilarProductIds(PRODUCT_A)).thenReturn(List.of("1"));
         when(similarProducts.getProductById("1")).thenReturn(buildProductDetails("1", "P1", 10.0, true));
@@ -115,9 +126,9 @@ class ProductServiceCacheTest {
         List<ProductDetails> first = useCase.getSimilarProducts(PRODUCT_A);
         assertThat(first, hasSize(1));
 
-        // Simulate clearing the cache (i.e. TTL reached)
-        Cache cache = cacheManager.getCache("similarProductsCache");
-        if (cache != null) cache.clear();
+        // Simulate clearing the caches (i.e. TTL reached)
+        similarProductsCache.clear();
+        productDetailsCache.clear();
 
         // The second call should use the client again
         List<ProductDetails> second = useCase.getSimilarProducts(PRODUCT_A);
@@ -128,6 +139,68 @@ class ProductServiceCacheTest {
         verifyNoMoreInteractions(similarProducts);
     }
 
+    @Test
+    @DisplayName("Product cache: product details shared by different similar lists are fetched once")
+    void productDetailsAreSharedAcrossLists() {
+        when(similarProducts.getSimilarProductIds(PRODUCT_A)).thenReturn(List.of("1", "2"));
+        when(similarProducts.getSimilarProductIds(PRODUCT_B)).thenReturn(List.of("1", "3"));
+
+        when(similarProducts.getProductById("1")).thenReturn(buildProductDetails("1", "P1", 10.0, true));
+        when(similarProducts.getProductById("2")).thenReturn(buildProductDetails("2", "P2", 20.0, false));
+        when(similarProducts.getProductById("3")).thenReturn(buildProductDetails("3", "P3", 30.0, true));
+
+        long l1HitsBefore = productDetailsCache.stats().l1Hits();
+        List<ProductDetails> a = useCase.getSimilarProducts(PRODUCT_A);
+        List<ProductDetails> b = useCase.getSimilarProducts(PRODUCT_B);
+
+        assertThat(a.stream().map(ProductDetails::id).toList(), contains("1", "2"));
+        assertThat(b.stream().map(ProductDetails::id).toList(), contains("1", "3"));
+
+        verify(similarProducts, times(1)).getProductById("1");
+        assertThat(productDetailsCache.stats().l1Hits() - l1HitsBefore, is(1L));
+    }
+
+    @Test
+    @DisplayName("Product cache: product details evicted from L1 are still served from L2")
+    void productDetailsAreServedFromL2() {
+        when(similarProducts.getSimilarProductIds(PRODUCT_A)).thenReturn(List.of("1"));
+        when(similarProducts.getProductById("1")).thenReturn(buildProductDetails("1", "P1", 10.0, true));
+
+        useCase.getSimilarProducts(PRODUCT_A);
+        similarProductsCache.clear();
+        // Only L2 keeps the product after this
+        Cache productCache = cacheManager.getCache("productCache");
+        Object cached = productCache.get("1").get();
+        productDetailsCache.clear();
+        productCache.put("1", cached);
+
+        long l2HitsBefore = productDetailsCache.stats().l2Hits();
+        List<ProductDetails> second = useCase.getSimilarProducts(PRODUCT_A);
+
+        assertThat(second.get(0).id(), is("1"));
+        verify(similarProducts, times(1)).getProductById("1");
+        assertThat(productDetailsCache.stats().l2Hits() - l2HitsBefore, is(1L));
+    }
+
+    @Test
+    @DisplayName("Similar products cache: lists keep the ids only, so product details are refreshed in one place")
+    void similarListsAreAssembledFromTheProductCache() {
+        when(similarProducts.getSimilarProductIds(PRODUCT_A)).thenReturn(List.of("1", "2"));
+        when(similarProducts.getProductById("1")).thenReturn(buildProductDetails("1", "P1", 10.0, true),
+                buildProductDetails("1", "P1", 12.5, true));
+        when(similarProducts.getProductById("2")).thenReturn(buildProductDetails("2", "P2", 20.0, false));
+
+        useCase.getSimilarProducts(PRODUCT_A);
+        productDetailsCache.evict("1");
+        List<ProductDetails> second = useCase.getSimilarProducts(PRODUCT_A);
+
+        assertThat(second.stream().map(ProductDetails::id).toList(), contains("1", "2"));
+        assertThat(second.get(0).price(), is(12.5));
+        verify(similarProducts, times(1)).getSimilarProductIds(PRODUCT_A);
+        verify(similarProducts, times(2)).getProductById("1");
+        verify(similarProducts, times(1)).getProductById("2");
+    }
+
     @TestConfiguration
     static class MockConfig {
         @Bean
@@ -135,6 +208,21 @@ class ProductServiceCacheTest {
             return Mockito.mock(SimilarProducts.class);
         }
 
+        @Bean(name = FAN_OUT_EXECUTOR, destroyMethod = "shutdownNow")
+        ExecutorService productFanOutExecutor() {
+            return Executors.newFixedThreadPool(4);
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean(name = CACHE_REFRESH_EXECUTOR)
+        Executor cacheRefreshExecutor() {
+            return Runnable::run;
+        }
+
         @Bean(name = "resilienceTaskExecutor")
         ThreadPoolTaskExecutor resilienceTaskExecutor() {
             ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
@@ -144,29 +232,6 @@ class ProductServiceCacheTest {
             executor.initialize();
             return executor;
         }
-
-        @Bean
-        CircuitBreaker circuitBreaker() {
-            CircuitBreaker cb = Mockito.mock(CircuitBreaker.class);
-            Mockito.when(cb.run(any(Supplier.class), any(Function.class)))
-                    .thenAnswer(invocation -> {
-                        Supplier<?> supplier = invocation.getArgument(0);
-                        try {
-                            return supplier.get();
-                        } catch (Throwable t) {
-                            Function<Throwable, ?> fallback = invocation.getArgument(1);
-                            return fallback.apply(t);
-                        }
-                    });
-            return cb;
-        }
-
-        @Bean
-        CircuitBreakerFactory<?, ?> circuitBreakerFactory(CircuitBreaker circuitBreaker) {
-            CircuitBreakerFactory<?, ?> factory = Mockito.mock(CircuitBreakerFactory.class);
-            Mockito.when(factory.create("productClient")).thenReturn(circuitBreaker);
-            return factory;
-        }
     }
 
     @TestConfiguration
@@ -174,7 +239,7 @@ class ProductServiceCacheTest {
     static class TestCacheConfig {
         @Bean
         CacheManager cacheManager() {
-            return new ConcurrentMapCacheManager("similarProductsCache");
+            return new ConcurrentMapCacheManager("similarProductsCache", "productCache");
         }
     }
 }
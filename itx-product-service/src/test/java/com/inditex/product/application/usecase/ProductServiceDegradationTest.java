@@ -0,0 +1,166 @@
+package com.inditex.product.application.usecase;
+
+import com.inditex.product.application.service.ProductService;
+import com.inditex.product.domain.model.PartialSimilarProducts;
+import com.inditex.product.domain.model.PartialSimilarProducts.Omission;
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.domain.model.ports.output.SimilarProducts;
+import com.inditex.product.shared.deadline.RequestDeadline;
+import com.inditex.product.shared.exception.CircuitBreakerException;
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.inditex.product.application.usecase.UseCaseHelpers.buildProductDetails;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductServiceDegradationTest {
+
+    private static final String PRODUCT_ID = "4";
+
+    @Mock
+    private SimilarProducts productClient;
+
+    @RegisterExtension
+    final ProductServiceFixture fixture = new ProductServiceFixture();
+
+    @Test
+    @DisplayName("The strict policy fails the whole list when a product is not found")
+    void shouldFailTheListWhenStrict() {
+        when(productClient.getSimilarProductIds(PRODUCT_ID)).thenReturn(List.of("1", "5"));
+        lenient().when(productClient.getProductById("1")).thenReturn(buildProductDetails("1", "P1", 10.0, true));
+        when(productClient.getProductById("5")).thenThrow(new ProductNotFoundException("Product not found: 5"));
+
+        assertThrows(ProductNotFoundException.class, () -> useCase("strict").getPartialSimilarProducts(PRODUCT_ID));
+    }
+
+    @Test
+    @DisplayName("Skipping missing products leaves the not found ones out and keeps the order of the rest")
+    void shouldSkipMissingProducts() {
+        when(productClient.getSimilarProductIds(PRODUCT_ID)).thenReturn(List.of("1", "5", "2"));
+        when(productClient.getProductById("1")).thenReturn(buildProductDetails("1", "P1", 10.0, true));
+        when(productClient.getProductById("5")).thenThrow(new ProductNotFoundException("Product not found: 5"));
+        when(productClient.getProductById("2")).thenReturn(buildProductDetails("2", "P2", 20.0, true));
+
+        PartialSimilarProducts result = useCase("skip-missing").getPartialSimilarProducts(PRODUCT_ID);
+
+        assertThat(result.products().stream().map(ProductDetails::id).toList(), contains("1", "2"));
+        assertThat(result.omitted(), is(aMapWithSize(1)));
+        assertThat(result.omitted(), hasEntry("5", Omission.MISSING));
+        assertThat(omittedCount("missing"), is(1.0));
+    }
+
+    @Test
+    @DisplayName("Skipping missing products still fails the list on any other error")
+    void shouldFailOnOtherErrorsWhenSkippingMissing() {
+        when(productClient.getSimilarProductIds(PRODUCT_ID)).thenReturn(List.of("1", "5"));
+        when(productClient.getProductById("1")).thenThrow(new CircuitBreakerException("circuit open"));
+        when(productClient.getProductById("5")).thenThrow(new ProductNotFoundException("Product not found: 5"));
+
+        assertThrows(CircuitBreakerException.class,
+                () -> useCase("skip-missing").getPartialSimilarProducts(PRODUCT_ID));
+    }
+
+    @Test
+    @DisplayName("Skipping slow products leaves out the ones over the cutoff without waiting for them")
+    void shouldSkipSlowProducts() {
+        when(productClient.getSimilarProductIds(PRODUCT_ID)).thenReturn(List.of("1", "3", "5"));
+        when(productClient.getProductById("1")).thenReturn(buildProductDetails("1", "P1", 10.0, true));
+        when(productClient.getProductById("3")).thenAnswer(invocation -> {
+            Thread.sleep(2_000);
+            return buildProductDetails("3", "P3", 30.0, true);
+        });
+        when(productClient.getProductById("5")).thenThrow(new ProductNotFoundException("Product not found: 5"));
+
+        long start = System.nanoTime();
+        PartialSimilarProducts result = useCase("skip-missing-and-slow").getPartialSimilarProducts(PRODUCT_ID);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(elapsedMillis, lessThan(1_000L));
+        assertThat(result.products().stream().map(ProductDetails::id).toList(), contains("1"));
+        assertThat(result.omitted(), hasEntry("3", Omission.SLOW));
+        assertThat(result.omitted(), hasEntry("5", Omission.MISSING));
+        assertThat(result.omitted(Omission.SLOW), is(1L));
+        assertThat(omittedCount("slow"), is(1.0));
+    }
+
+    @Test
+    @DisplayName("The slow cutoff counts from the start of every lookup, not from the start of the fan-out")
+    void shouldNotSkipProductsQueuedBehindSlowOnes() {
+        when(productClient.getSimilarProductIds(PRODUCT_ID)).thenReturn(List.of("3", "1"));
+        when(productClient.getProductById("3")).thenAnswer(invocation -> {
+            Thread.sleep(2_000);
+            return buildProductDetails("3", "P3", 30.0, true);
+        });
+        when(productClient.getProductById("1")).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return buildProductDetails("1", "P1", 10.0, true);
+        });
+
+        PartialSimilarProducts result = useCase("skip-missing-and-slow", 1).getPartialSimilarProducts(PRODUCT_ID);
+
+        assertThat(result.products().stream().map(ProductDetails::id).toList(), contains("1"));
+        assertThat(result.omitted(), is(aMapWithSize(1)));
+        assertThat(result.omitted(), hasEntry("3", Omission.SLOW));
+    }
+
+    @Test
+    @DisplayName("No lookup is started once the request deadline is reached")
+    void shouldNotStartLookupsAfterTheRequestDeadline() throws Exception {
+        when(productClient.getSimilarProductIds(PRODUCT_ID)).thenReturn(List.of("3", "1"));
+        when(productClient.getProductById("3")).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return buildProductDetails("3", "P3", 30.0, true);
+        });
+
+        PartialSimilarProducts result = RequestDeadline.within(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100),
+                () -> useCase("skip-missing-and-slow", 1).getPartialSimilarProducts(PRODUCT_ID));
+        Thread.sleep(500);
+
+        assertThat(result.omitted(), hasEntry("3", Omission.SLOW));
+        assertThat(result.omitted(), hasEntry("1", Omission.SLOW));
+        verify(productClient, never()).getProductById("1");
+    }
+
+    @Test
+    @DisplayName("Products not omitted are complete, like the strict lookup")
+    void shouldBeCompleteWhenNothingIsOmitted() {
+        when(productClient.getSimilarProductIds(PRODUCT_ID)).thenReturn(List.of("1", "2"));
+        when(productClient.getProductById("1")).thenReturn(buildProductDetails("1", "P1", 10.0, true));
+        when(productClient.getProductById("2")).thenReturn(buildProductDetails("2", "P2", 20.0, true));
+
+        PartialSimilarProducts result = useCase("skip-missing-and-slow").getPartialSimilarProducts(PRODUCT_ID);
+
+        assertThat(result.isComplete(), is(true));
+        assertThat(result.products(), hasSize(2));
+    }
+
+    private ProductService useCase(String degradationPolicy) {
+        return useCase(degradationPolicy, 4);
+    }
+
+    private ProductService useCase(String degradationPolicy, int maxConcurrency) {
+        return fixture.with("fanout.max.concurrency", maxConcurrency)
+                .with("degradation.policy", degradationPolicy)
+                .with("degradation.slow.cutoff", 200)
+                .useCase(productClient);
+    }
+
+    private double omittedCount(String reason) {
+        return fixture.meterRegistry().get("similar.products.omitted").tag("reason", reason).counter().count();
+    }
+}
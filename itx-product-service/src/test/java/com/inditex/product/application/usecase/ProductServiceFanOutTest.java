@@ -0,0 +1,160 @@
+package com.inditex.product.application.usecase;
+
+import com.inditex.product.application.service.ProductService;
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.domain.model.ports.output.SimilarProducts;
+import com.inditex.product.shared.deadline.RequestDeadline;
+import com.inditex.product.shared.exception.DeadlineExceededException;
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.inditex.product.application.usecase.UseCaseHelpers.buildProductDetails;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductServiceFanOutTest {
+
+    private static final String PRODUCT_ID = "123";
+
+    @Mock
+    private SimilarProducts productClient;
+
+    @RegisterExtension
+    final ProductServiceFixture fixture = new ProductServiceFixture();
+
+    private ProductService useCase;
+
+    @BeforeEach
+    void setUp() {
+        useCase = fixture.useCase(productClient);
+    }
+
+    @Test
+    @DisplayName("Keeps the order of the similar product IDs regardless of which lookup finishes first")
+    void shouldKeepOrderOfSimilarIds() {
+        when(productClient.getSimilarProductIds(PRODUCT_ID)).thenReturn(List.of("1", "2", "3"));
+        when(productClient.getProductById("1")).thenAnswer(invocation -> delayed(150, buildProductDetails("1", "P1", 10.0, true)));
+        when(productClient.getProductById("2")).thenAnswer(invocation -> delayed(50, buildProductDetails("2", "P2", 20.0, true)));
+        when(productClient.getProductById("3")).thenReturn(buildProductDetails("3", "P3", 30.0, false));
+
+        List<ProductDetails> result = useCase.getSimilarProducts(PRODUCT_ID);
+
+        assertThat(result.stream().map(ProductDetails::id).toList(), contains("1", "2", "3"));
+    }
+
+    @Test
+    @DisplayName("Latency is close to the slowest lookup instead of the sum of all of them")
+    void shouldFetchDetailsConcurrently() {
+        when(productClient.getSimilarProductIds(PRODUCT_ID)).thenReturn(List.of("1", "2", "3", "4"));
+        for (String id : List.of("1", "2", "3", "4")) {
+            when(productClient.getProductById(id)).thenAnswer(invocation -> delayed(200, buildProductDetails(id, "P" + id, 10.0, true)));
+        }
+
+        long start = System.nanoTime();
+        List<ProductDetails> result = useCase.getSimilarProducts(PRODUCT_ID);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(result, hasSize(4));
+        assertThat(elapsedMillis, lessThan(600L));
+    }
+
+    @Test
+    @DisplayName("Never runs more lookups at the same time than the configured per request cap")
+    void shouldHonourConcurrencyCap() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<String> ids = List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10");
+        when(productClient.getSimilarProductIds(PRODUCT_ID)).thenReturn(ids);
+        when(productClient.getProductById(anyString())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                return delayed(20, buildProductDetails(invocation.getArgument(0), "P", 1.0, true));
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+
+        List<ProductDetails> result = useCase.getSimilarProducts(PRODUCT_ID);
+
+        assertThat(result.stream().map(ProductDetails::id).toList(), contains(ids.toArray()));
+        assertThat(maxInFlight.get(), lessThanOrEqualTo(4));
+    }
+
+    @Test
+    @DisplayName("A not found product fails the request and cancels the lookups still in flight")
+    void shouldCancelRemainingLookupsOnNotFound() throws InterruptedException {
+        CountDownLatch cancelled = new CountDownLatch(1);
+        when(productClient.getSimilarProductIds(PRODUCT_ID)).thenReturn(List.of("1", "404"));
+        when(productClient.getProductById("1")).thenAnswer(invocation -> {
+            try {
+                return delayed(5_000, buildProductDetails("1", "P1", 10.0, true));
+            } catch (IllegalStateException e) {
+                cancelled.countDown();
+                throw e;
+            }
+        });
+        when(productClient.getProductById("404")).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            throw new ProductNotFoundException("Product not found: 404");
+        });
+
+        long start = System.nanoTime();
+        assertThrows(ProductNotFoundException.class, () -> useCase.getSimilarProducts(PRODUCT_ID));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(elapsedMillis, lessThan(1_000L));
+        assertThat(cancelled.await(1, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    @DisplayName("Fails once the request deadline is reached, cancelling the lookups still in flight, which run with it")
+    void shouldFailFastOnceTheRequestDeadlineIsReached() throws InterruptedException {
+        CountDownLatch cancelled = new CountDownLatch(1);
+        AtomicInteger withDeadline = new AtomicInteger();
+        when(productClient.getSimilarProductIds(PRODUCT_ID)).thenReturn(List.of("1", "2"));
+        when(productClient.getProductById(anyString())).thenAnswer(invocation -> {
+            if (RequestDeadline.remainingNanos() < TimeUnit.SECONDS.toNanos(1)) {
+                withDeadline.incrementAndGet();
+            }
+            try {
+                return delayed(5_000, buildProductDetails(invocation.getArgument(0), "P", 1.0, true));
+            } catch (IllegalStateException e) {
+                cancelled.countDown();
+                throw e;
+            }
+        });
+
+        long start = System.nanoTime();
+        assertThrows(DeadlineExceededException.class, () -> RequestDeadline.within(
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200), () -> useCase.getSimilarProducts(PRODUCT_ID)));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(elapsedMillis, lessThan(1_000L));
+        assertThat(cancelled.await(1, TimeUnit.SECONDS), is(true));
+        assertThat(withDeadline.get(), is(2));
+    }
+
+    private static ProductDetails delayed(long millis, ProductDetails productDetails) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        }
+        return productDetails;
+    }
+}
@@ -0,0 +1,66 @@
+package com.inditex.product.application.usecase;
+
+import com.inditex.product.application.service.ProductService;
+import com.inditex.product.domain.model.ports.output.SimilarProducts;
+import com.inditex.product.infrastructure.adapters.config.ProductServiceProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.inditex.product.application.usecase.UseCaseHelpers.buildProductDetailsCache;
+import static com.inditex.product.application.usecase.UseCaseHelpers.buildSimilarProductsCache;
+
+/**
+ * Builds the {@link ProductService} under test, with empty caches and a fan-out pool of 8 threads shut down after every
+ * test. Its settings are the defaults of {@link ProductServiceProperties} but a max concurrency of 4, unless set with
+ * {@link #with(String, Object)}:
+ * <pre>
+ * &#64;RegisterExtension
+ * final ProductServiceFixture fixture = new ProductServiceFixture();
+ * ...
+ * ProductService useCase = fixture.with("batch.max.size", 3).useCase(productClient);
+ * </pre>
+ */
+public class ProductServiceFixture implements AfterEachCallback {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Map<String, Object> properties = new HashMap<>(Map.of("fanout.max.concurrency", 4));
+
+    /**
+     * Sets a {@code product.*} property, e.g. {@code degradation.slow.cutoff}, of the use cases built next.
+     */
+    public ProductServiceFixture with(String property, Object value) {
+        properties.put(property, value);
+        return this;
+    }
+
+    public ProductService useCase(SimilarProducts productClient) {
+        return new ProductService(productClient, buildSimilarProductsCache(), buildProductDetailsCache(), executor,
+                meterRegistry, properties(properties));
+    }
+
+    public SimpleMeterRegistry meterRegistry() {
+        return meterRegistry;
+    }
+
+    /**
+     * The settings read from the given {@code product.*} properties, like the application does.
+     */
+    public static ProductServiceProperties properties(Map<String, ?> properties) {
+        MockEnvironment environment = new MockEnvironment();
+        properties.forEach((name, value) -> environment.setProperty("product." + name, String.valueOf(value)));
+        return ProductServiceProperties.from(environment);
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        executor.shutdownNow();
+    }
+}
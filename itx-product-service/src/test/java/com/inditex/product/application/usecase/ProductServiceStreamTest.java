@@ -0,0 +1,133 @@
+package com.inditex.product.application.usecase;
+
+import com.inditex.product.application.service.ProductService;
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.domain.model.ports.output.SimilarProducts;
+import com.inditex.product.shared.exception.DeadlineExceededException;
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.inditex.product.application.usecase.UseCaseHelpers.buildProductDetails;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductServiceStreamTest {
+
+    private static final String PRODUCT_ID = "123";
+
+    @Mock
+    private SimilarProducts productClient;
+
+    @RegisterExtension
+    final ProductServiceFixture fixture = new ProductServiceFixture();
+
+    private final List<String> streamed = new ArrayList<>();
+    private long firstProductMillis;
+    private long start;
+
+    @Test
+    @DisplayName("Keeps the order of the similar product IDs, handing over each one as soon as the previous ones are")
+    void shouldStreamInOrder() {
+        givenSlowFirstProduct();
+
+        Map<String, RuntimeException> failures = stream(useCase(true, 10_000));
+
+        assertThat(streamed, contains("1", "2", "3"));
+        assertThat(failures, is(anEmptyMap()));
+    }
+
+    @Test
+    @DisplayName("Hands over the products as they complete, the first one without waiting for the slowest")
+    void shouldStreamAsCompleted() {
+        givenSlowFirstProduct();
+
+        stream(useCase(false, 10_000));
+
+        assertThat(streamed, contains("2", "3", "1"));
+        assertThat(firstProductMillis, lessThan(200L));
+    }
+
+    @Test
+    @DisplayName("A failing product doesn't stop the stream, it is returned with the failures")
+    void shouldReturnFailuresAtTheEnd() {
+        when(productClient.getSimilarProductIds(PRODUCT_ID)).thenReturn(List.of("1", "404", "3"));
+        when(productClient.getProductById("1")).thenReturn(buildProductDetails("1", "P1", 10.0, true));
+        when(productClient.getProductById("404")).thenThrow(new ProductNotFoundException("Product not found: 404"));
+        when(productClient.getProductById("3")).thenReturn(buildProductDetails("3", "P3", 30.0, true));
+
+        Map<String, RuntimeException> failures = stream(useCase(true, 10_000));
+
+        assertThat(streamed, contains("1", "3"));
+        assertThat(failures.keySet(), is(Set.of("404")));
+        assertThat(failures.get("404"), instanceOf(ProductNotFoundException.class));
+    }
+
+    @Test
+    @DisplayName("Products not done by the stream timeout are returned as failures")
+    void shouldTimeOutSlowProducts() {
+        when(productClient.getSimilarProductIds(PRODUCT_ID)).thenReturn(List.of("1", "2"));
+        when(productClient.getProductById("1")).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return buildProductDetails("1", "P1", 10.0, true);
+        });
+        when(productClient.getProductById("2")).thenReturn(buildProductDetails("2", "P2", 20.0, true));
+
+        Map<String, RuntimeException> failures = stream(useCase(true, 200));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(streamed, is(List.of("2")));
+        assertThat(failures.get("1"), instanceOf(DeadlineExceededException.class));
+        assertThat(elapsedMillis, lessThan(1_000L));
+    }
+
+    @Test
+    @DisplayName("A failure looking up the similar product IDs is thrown before streaming anything")
+    void shouldThrowWhenSimilarIdsFail() {
+        when(productClient.getSimilarProductIds(PRODUCT_ID)).thenThrow(new ProductNotFoundException("Product not found: 123"));
+        ProductService useCase = useCase(true, 10_000);
+
+        assertThrows(ProductNotFoundException.class, () -> stream(useCase));
+        assertThat(streamed, is(empty()));
+    }
+
+    private ProductService useCase(boolean inOrder, long streamTimeout) {
+        return fixture.with("stream.in.order", inOrder).with("stream.timeout", streamTimeout).useCase(productClient);
+    }
+
+    private Map<String, RuntimeException> stream(ProductService useCase) {
+        start = System.nanoTime();
+        return useCase.streamSimilarProducts(PRODUCT_ID, productDetails -> {
+            if (streamed.isEmpty()) {
+                firstProductMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            }
+            streamed.add(productDetails.id());
+        });
+    }
+
+    private void givenSlowFirstProduct() {
+        when(productClient.getSimilarProductIds(PRODUCT_ID)).thenReturn(List.of("1", "2", "3"));
+        when(productClient.getProductById("1")).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return buildProductDetails("1", "P1", 10.0, true);
+        });
+        when(productClient.getProductById("2")).thenReturn(buildProductDetails("2", "P2", 20.0, true));
+        when(productClient.getProductById("3")).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return buildProductDetails("3", "P3", 30.0, true);
+        });
+    }
+}
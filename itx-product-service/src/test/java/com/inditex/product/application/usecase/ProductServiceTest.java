@@ -5,10 +5,11 @@ import com.inditex.product.shared.exception.CircuitBreakerException;
 import com.inditex.product.shared.exception.ProductNotFoundException;
 import com.inditex.product.domain.model.ProductDetails;
 import com.inditex.product.application.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -29,9 +30,17 @@ class ProductServiceTest {
     @Mock
     private SimilarProducts productClient;
 
-    @InjectMocks
+    @RegisterExtension
+    final ProductServiceFixture fixture = new ProductServiceFixture();
+
     private ProductService useCase;
 
+    @BeforeEach
+    void setUp() {
+        // Sequential lookups, the concurrent fan-out is covered by ProductServiceFanOutTest
+        useCase = fixture.with("fanout.enabled", false).useCase(productClient);
+    }
+
     @Test
     @DisplayName("Returns empty list when similar product IDs is null")
     void shouldReturnEmptyListWhenSimilarIdsIsNull() {
@@ -69,15 +78,15 @@ class ProductServiceTest {
         List<ProductDetails> result = useCase.getSimilarProducts(PRODUCT_ID);
 
         assertThat(result, hasSize(2));
-        assertThat(result.get(0).getId(), is("1"));
-        assertThat(result.get(0).getName(), is("P1"));
-        assertThat(result.get(0).getPrice(), is(10.0));
-        assertThat(result.get(0).isAvailability(), is(true));
+        assertThat(result.get(0).id(), is("1"));
+        assertThat(result.get(0).name(), is("P1"));
+        assertThat(result.get(0).price(), is(10.0));
+        assertThat(result.get(0).availability(), is(true));
 
-        assertThat(result.get(1).getId(), is("2"));
-        assertThat(result.get(1).getName(), is("P2"));
-        assertThat(result.get(1).getPrice(), is(20.0));
-        assertThat(result.get(1).isAvailability(), is(false));
+        assertThat(result.get(1).id(), is("2"));
+        assertThat(result.get(1).name(), is("P2"));
+        assertThat(result.get(1).price(), is(20.0));
+        assertThat(result.get(1).availability(), is(false));
 
         verify(productClient, times(1)).getSimilarProductIds(PRODUCT_ID);
         verify(productClient, times(1)).getProductById("1");
@@ -96,7 +105,7 @@ class ProductServiceTest {
         List<ProductDetails> result = useCase.getSimilarProducts(PRODUCT_ID);
 
         assertThat(result, hasSize(1));
-        assertThat(result.get(0).getId(), is("1"));
+        assertThat(result.get(0).id(), is("1"));
 
         verify(productClient, times(1)).getSimilarProductIds(PRODUCT_ID);
         verify(productClient, times(1)).getProductById("1");
@@ -0,0 +1,117 @@
+package com.inditex.product.application.usecase;
+
+import com.inditex.product.application.service.ReactiveProductService;
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.domain.model.ports.output.ReactiveSimilarProducts;
+import com.inditex.product.shared.exception.CircuitBreakerException;
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.inditex.product.application.usecase.UseCaseHelpers.buildProductDetails;
+import static com.inditex.product.application.usecase.UseCaseHelpers.buildProductDetailsCache;
+import static com.inditex.product.application.usecase.UseCaseHelpers.buildSimilarProductsCache;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveProductServiceTest {
+
+    private static final String PRODUCT_ID = "123";
+
+    @Mock
+    private ReactiveSimilarProducts productClient;
+
+    private ReactiveProductService useCase;
+
+    @BeforeEach
+    void setUp() {
+        useCase = new ReactiveProductService(productClient, buildSimilarProductsCache(), buildProductDetailsCache(), 8);
+    }
+
+    @Test
+    @DisplayName("Returns the products in the order of the similar ids, looking each one up once and caching them")
+    void shouldReturnProductsInOrderAndCacheThem() {
+        when(productClient.getSimilarProductIds(PRODUCT_ID)).thenReturn(Mono.just(List.of("2", "1", "2")));
+        // The first one answers last
+        when(productClient.getProductById("2")).thenReturn(Mono.delay(Duration.ofMillis(50))
+                .map(tick -> buildProductDetails("2", "P2", 20.0, true)));
+        when(productClient.getProductById("1")).thenReturn(Mono.just(buildProductDetails("1", "P1", 10.0, false)));
+
+        List<ProductDetails> result = useCase.getSimilarProducts(PRODUCT_ID).block();
+        List<ProductDetails> cached = useCase.getSimilarProducts(PRODUCT_ID).block();
+
+        assertThat(result.stream().map(ProductDetails::id).toList(), contains("2", "1", "2"));
+        assertThat(cached, is(result));
+        verify(productClient, times(1)).getSimilarProductIds(PRODUCT_ID);
+        verify(productClient, times(1)).getProductById("1");
+        verify(productClient, times(1)).getProductById("2");
+    }
+
+    @Test
+    @DisplayName("Returns empty list when there are no similar products")
+    void shouldReturnEmptyListWhenSimilarIdsIsEmpty() {
+        when(productClient.getSimilarProductIds(PRODUCT_ID)).thenReturn(Mono.just(List.of()));
+
+        assertThat(useCase.getSimilarProducts(PRODUCT_ID).block(), is(empty()));
+        verify(productClient, never()).getProductById(anyString());
+    }
+
+    @Test
+    @DisplayName("Fails with the error of the first product failing")
+    void shouldFailWithTheFirstProductError() {
+        when(productClient.getSimilarProductIds(PRODUCT_ID)).thenReturn(Mono.just(List.of("1", "2")));
+        when(productClient.getProductById("1")).thenReturn(Mono.error(new ProductNotFoundException("Product not found: 1")));
+        // Not looked up at all once the first one has failed
+        lenient().when(productClient.getProductById("2")).thenReturn(Mono.never());
+
+        assertThrows(ProductNotFoundException.class, () -> useCase.getSimilarProducts(PRODUCT_ID).block());
+    }
+
+    @Test
+    @DisplayName("Concurrent requests share the upstream calls of the products being loaded")
+    void concurrentRequestsShouldShareTheUpstreamCalls() throws Exception {
+        Sinks.One<ProductDetails> product = Sinks.one();
+        when(productClient.getSimilarProductIds(PRODUCT_ID)).thenReturn(Mono.just(List.of("1")));
+        when(productClient.getProductById("1")).thenReturn(product.asMono());
+
+        CompletableFuture<List<ProductDetails>> first = useCase.getSimilarProducts(PRODUCT_ID).toFuture();
+        CompletableFuture<List<ProductDetails>> second = useCase.getSimilarProducts(PRODUCT_ID).toFuture();
+        product.tryEmitValue(buildProductDetails("1", "P1", 10.0, true));
+
+        assertThat(first.get(5, TimeUnit.SECONDS), hasSize(1));
+        assertThat(second.get(5, TimeUnit.SECONDS), is(first.get()));
+        verify(productClient, times(1)).getProductById("1");
+    }
+
+    @Test
+    @DisplayName("A request failing doesn't fail the loads other requests are waiting for")
+    void failedRequestShouldNotCancelSharedLoads() throws Exception {
+        Sinks.One<ProductDetails> product = Sinks.one();
+        when(productClient.getSimilarProductIds(PRODUCT_ID)).thenReturn(Mono.just(List.of("1", "2")));
+        when(productClient.getSimilarProductIds("456")).thenReturn(Mono.just(List.of("1")));
+        when(productClient.getProductById("1")).thenReturn(product.asMono());
+        when(productClient.getProductById("2")).thenReturn(Mono.error(
+                new CircuitBreakerException("There has been an error fetching product for id: 2")));
+
+        CompletableFuture<List<ProductDetails>> other = useCase.getSimilarProducts("456").toFuture();
+        assertThrows(CircuitBreakerException.class, () -> useCase.getSimilarProducts(PRODUCT_ID).block());
+        product.tryEmitValue(buildProductDetails("1", "P1", 10.0, true));
+
+        assertThat(other.get(5, TimeUnit.SECONDS).get(0).id(), is("1"));
+    }
+}
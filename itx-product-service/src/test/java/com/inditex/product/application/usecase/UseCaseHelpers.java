@@ -1,15 +1,27 @@
 package com.inditex.product.application.usecase;
 
 import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.infrastructure.adapters.cache.ProductDetailsCache;
+import com.inditex.product.infrastructure.adapters.cache.SimilarProductsCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static com.inditex.product.infrastructure.adapters.config.CacheConfig.CACHE_PRODUCT;
+import static com.inditex.product.infrastructure.adapters.config.CacheConfig.CACHE_PRODUCT_LIST;
 
 public class UseCaseHelpers {
 
-    public static ProductDetails buildProductDetails(String id, String name, Double price, boolean availability) {
-        ProductDetails d = new ProductDetails();
-        d.setId(id);
-        d.setName(name);
-        d.setPrice(price);
-        d.setAvailability(availability);
-        return d;
+    public static ProductDetails buildProductDetails(String id, String name, double price, boolean availability) {
+        return new ProductDetails(id, name, price, availability);
+    }
+
+    public static ProductDetailsCache buildProductDetailsCache() {
+        return new ProductDetailsCache(new ConcurrentMapCacheManager(CACHE_PRODUCT), new SimpleMeterRegistry(), Runnable::run,
+                100, 60_000, 3_600_000, 0.8, 0, 0);
+    }
+
+    public static SimilarProductsCache buildSimilarProductsCache() {
+        return new SimilarProductsCache(new ConcurrentMapCacheManager(CACHE_PRODUCT_LIST), new SimpleMeterRegistry(), Runnable::run,
+                100, 60_000, 3_600_000, 0.8, 0, 0);
     }
 }
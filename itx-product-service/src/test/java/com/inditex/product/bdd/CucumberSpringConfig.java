@@ -1,9 +1,13 @@
 package com.inditex.product.bdd;
 
 import io.cucumber.spring.CucumberContextConfiguration;
+import org.springframework.boot.micrometer.metrics.test.autoconfigure.AutoConfigureMetrics;
 import org.springframework.boot.test.context.SpringBootTest;
 
+// Metrics export is disabled in tests by default, it's enabled to check the Prometheus endpoint. No cache snapshot, so
+// runs don't see the products cached by previous ones
 @CucumberContextConfiguration
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "product.cache.snapshot.enabled=false")
+@AutoConfigureMetrics
 public class CucumberSpringConfig {
 }
@@ -5,14 +5,14 @@ import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
 import com.inditex.product.bdd.CucumberSpringConfig;
-import com.inditex.product.infrastructure.adapters.in.dto.ProductDetailsDTO;
+import com.inditex.product.domain.model.ProductDetails;
 import io.cucumber.datatable.DataTable;
-import io.cucumber.java.After;
 import io.cucumber.java.Before;
 import io.cucumber.java.en.And;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
+import org.springframework.boot.test.web.server.LocalManagementPort;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -38,8 +38,13 @@ public class SimilarProductsSteps extends CucumberSpringConfig {
     @LocalServerPort
     private int port;
 
-    private WireMockServer wireMockServer;
-    private ResponseEntity<ProductDetailsDTO[]> response;
+    @LocalManagementPort
+    private int managementPort;
+
+    // Shared by all the scenarios (and suite runs) of the JVM: restarting it would leave stale keep-alive connections
+    // in the client pool, now that the product details are fetched concurrently
+    private static WireMockServer wireMockServer;
+    private ResponseEntity<ProductDetails[]> response;
     private HttpStatusCode lastStatus;
     private String lastErrorBody;
 
@@ -51,19 +56,11 @@ public class SimilarProductsSteps extends CucumberSpringConfig {
             wireMockServer = new WireMockServer(WireMockConfiguration.options().port(3001));
             wireMockServer.start();
             WireMock.configureFor("localhost", 3001);
-        } else if (!wireMockServer.isRunning()) {
-            wireMockServer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(wireMockServer::stop));
         }
         wireMockServer.resetAll();
     }
 
-    @After
-    public void stopWireMock() {
-        if (wireMockServer != null) {
-            wireMockServer.stop();
-        }
-    }
-
     @Given("there are the following products")
     public void thereAreTheFollowingProducts(DataTable dataTable) throws Exception {
         List<Map<String, String>> rows = dataTable.asMaps(String.class, String.class);
@@ -109,7 +106,7 @@ public class SimilarProductsSteps extends CucumberSpringConfig {
     public void i_search_by_product_id(String productId) {
         String url = "http://localhost:" + port + "/product/" + productId + "/similar";
         try {
-            this.response = restTemplate.getForEntity(url, ProductDetailsDTO[].class);
+            this.response = restTemplate.getForEntity(url, ProductDetails[].class);
             this.lastStatus = response.getStatusCode();
             this.lastErrorBody = null;
         } catch (HttpStatusCodeException e) {
@@ -142,17 +139,17 @@ public class SimilarProductsSteps extends CucumberSpringConfig {
     @Then("the result contains")
     public void the_result_contains(DataTable dataTable) {
         assertThat(response).isNotNull();
-        ProductDetailsDTO[] body = response.getBody();
+        ProductDetails[] body = response.getBody();
         assertThat(body).isNotNull();
 
         List<Map<String, String>> expected = dataTable.asMaps(String.class, String.class);
 
         List<Map<String, String>> actual = Arrays.stream(body)
                 .map(dto -> Map.of(
-                        "id", dto.getId(),
-                        "name", dto.getName(),
-                        "price", format(java.util.Locale.US, "%.2f", dto.getPrice()),
-                        "availability", Boolean.toString(dto.isAvailability())
+                        "id", dto.id(),
+                        "name", dto.name(),
+                        "price", format(java.util.Locale.US, "%.2f", dto.price()),
+                        "availability", Boolean.toString(dto.availability())
                 ))
                 .collect(Collectors.toList());
 
@@ -170,7 +167,7 @@ public class SimilarProductsSteps extends CucumberSpringConfig {
 
     @And("the result has {string} products")
     public void theResultHasProducts(String numProducts) {
-        ProductDetailsDTO[] body = response.getBody();
+        ProductDetails[] body = response.getBody();
         assertThat(body).isNotNull();
         assertThat(body.length).isEqualTo(parseInt(numProducts));
     }
@@ -190,4 +187,54 @@ public class SimilarProductsSteps extends CucumberSpringConfig {
         assertThat(lastErrorBody).isNotNull();
         assertThat(lastErrorBody).contains(expectedError);
     }
+
+    @And("the Prometheus metrics include")
+    public void thePrometheusMetricsInclude(DataTable dataTable) {
+        String metrics = restTemplate.getForObject("http://localhost:" + managementPort + "/actuator/prometheus", String.class);
+
+        assertThat(metrics).isNotNull();
+        for (String metric : dataTable.asMaps(String.class, String.class).stream().map(row -> row.get("metric").trim()).toList()) {
+            assertThat(metrics).contains(metric);
+        }
+    }
+
+    @When("I warm the caches up with product IDs {string}")
+    public void iWarmTheCachesUpWithProductIds(String productIds) {
+        restTemplate.postForObject("http://localhost:" + managementPort + "/actuator/warmup",
+                Map.of("productIds", productIds), Map.class);
+    }
+
+    @Then("the warm-up warms {int} and fails {int} product IDs")
+    public void theWarmUpWarmsAndFailsProductIds(int warmed, int failed) throws InterruptedException {
+        String url = "http://localhost:" + managementPort + "/actuator/warmup";
+        Map<?, ?> progress = restTemplate.getForObject(url, Map.class);
+        for (int i = 0; i < 100 && "RUNNING".equals(progress.get("state")); i++) {
+            Thread.sleep(50);
+            progress = restTemplate.getForObject(url, Map.class);
+        }
+
+        assertThat(progress.get("state")).isEqualTo("DONE");
+        assertThat(progress.get("warmed")).isEqualTo(warmed);
+        assertThat(progress.get("failed")).isEqualTo(failed);
+    }
+
+    @And("the readiness probe is {string}")
+    public void theReadinessProbeIs(String status) {
+        Map<?, ?> readiness = restTemplate.getForObject("http://localhost:" + managementPort + "/actuator/health/readiness", Map.class);
+
+        assertThat(readiness.get("status")).isEqualTo(status);
+    }
+
+    @And("the warm-up can't be started on the API port")
+    public void theWarmUpCantBeStartedOnTheApiPort() {
+        HttpStatusCode status = null;
+        try {
+            restTemplate.postForObject("http://localhost:" + port + "/actuator/warmup", Map.of("productIds", "11"), Map.class);
+        } catch (HttpStatusCodeException e) {
+            status = e.getStatusCode();
+        }
+
+        assertThat(status).isNotNull();
+        assertThat(status.is2xxSuccessful()).isFalse();
+    }
 }
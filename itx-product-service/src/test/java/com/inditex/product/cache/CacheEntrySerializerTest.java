@@ -0,0 +1,111 @@
+package com.inditex.product.cache;
+
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.infrastructure.adapters.cache.CacheEntry;
+import com.inditex.product.infrastructure.adapters.cache.ProductDetailsEntrySerializer;
+import com.inditex.product.infrastructure.adapters.cache.SimilarProductIds;
+import com.inditex.product.infrastructure.adapters.cache.SimilarProductIdsEntrySerializer;
+import org.ehcache.impl.serialization.PlainJavaSerializer;
+import org.ehcache.spi.serialization.SerializerException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static com.inditex.product.application.usecase.UseCaseHelpers.buildProductDetails;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SuppressWarnings({"rawtypes", "unchecked"})
+class CacheEntrySerializerTest {
+
+    private static final long NOW = 1_760_000_000_000L;
+
+    private final ProductDetailsEntrySerializer productSerializer = new ProductDetailsEntrySerializer();
+    private final SimilarProductIdsEntrySerializer idsSerializer = new SimilarProductIdsEntrySerializer();
+
+    @Test
+    void productDetailsEntriesShouldRoundTrip() {
+        CacheEntry<ProductDetails> entry = entry(buildProductDetails("123", "Camiseta básica", 19.99, true));
+
+        CacheEntry<ProductDetails> read = productSerializer.read(productSerializer.serialize(entry));
+
+        assertSameTimes(read, entry);
+        assertSameProduct(read.value(), entry.value());
+    }
+
+    @Test
+    void missingFieldsShouldRoundTrip() {
+        ProductDetails productDetails = new ProductDetails("1", null, 0, false);
+
+        CacheEntry<ProductDetails> read = productSerializer.read(productSerializer.serialize(entry(productDetails)));
+
+        assertThat(read.value().id(), is("1"));
+        assertThat(read.value().name(), nullValue());
+        assertThat(read.value().price(), is(0.0));
+        assertThat(read.value().availability(), is(false));
+    }
+
+    @Test
+    void similarProductIdsShouldRoundTripKeepingTheOrder() {
+        CacheEntry<SimilarProductIds> entry = entry(new SimilarProductIds(List.of("3", "1", "1000000", "2")));
+
+        CacheEntry<SimilarProductIds> read = idsSerializer.read(idsSerializer.serialize(entry));
+
+        assertSameTimes(read, entry);
+        assertThat(read.value().ids(), contains("3", "1", "1000000", "2"));
+    }
+
+    @Test
+    void nonNumericSimilarProductIdsShouldRoundTrip() {
+        List<String> ids = List.of("1", "007", "-2", "ABC", "12345678901234567890");
+
+        CacheEntry<SimilarProductIds> read = idsSerializer.read(idsSerializer.serialize(entry(new SimilarProductIds(ids))));
+
+        assertThat(read.value().ids(), is(ids));
+    }
+
+    @Test
+    void equalsShouldCompareTheBinaryForm() {
+        CacheEntry<ProductDetails> entry = entry(buildProductDetails("1", "Shirt", 9.99, true));
+        ByteBuffer binary = productSerializer.serialize(entry);
+
+        assertThat(productSerializer.equals(entry(buildProductDetails("1", "Shirt", 9.99, true)), binary), is(true));
+        assertThat(productSerializer.equals(entry(buildProductDetails("1", "Shirt", 10.99, true)), binary), is(false));
+    }
+
+    @Test
+    void unexpectedValuesShouldBeRejected() {
+        assertThrows(SerializerException.class, () -> productSerializer.serialize(entry(List.of())));
+        assertThrows(SerializerException.class, () -> idsSerializer.serialize(entry(List.of("1"))));
+    }
+
+    @Test
+    void compactFormShouldBeMuchSmallerThanJavaSerialization() {
+        PlainJavaSerializer<CacheEntry> javaSerializer = new PlainJavaSerializer<>(getClass().getClassLoader());
+        CacheEntry<ProductDetails> product = entry(buildProductDetails("123", "Product 123", 19.99, true));
+        CacheEntry<SimilarProductIds> ids = entry(new SimilarProductIds(List.of("1", "2", "3")));
+
+        assertThat(productSerializer.serialize(product).remaining(), lessThan(javaSerializer.serialize(product).remaining() / 5));
+        assertThat(idsSerializer.serialize(ids).remaining(), lessThan(javaSerializer.serialize(ids).remaining() / 5));
+    }
+
+    private static <V> CacheEntry<V> entry(V value) {
+        return new CacheEntry<>(value, NOW, NOW + 2_880_000, NOW + 3_600_000, NOW + 4_200_000);
+    }
+
+    private static void assertSameTimes(CacheEntry<?> actual, CacheEntry<?> expected) {
+        assertThat(actual.createdAt(), is(expected.createdAt()));
+        assertThat(actual.refreshAt(), is(expected.refreshAt()));
+        assertThat(actual.expiresAt(), is(expected.expiresAt()));
+        assertThat(actual.staleUntil(), is(expected.staleUntil()));
+    }
+
+    private static void assertSameProduct(ProductDetails actual, ProductDetails expected) {
+        assertThat(actual.id(), is(expected.id()));
+        assertThat(actual.name(), is(expected.name()));
+        assertThat(actual.price(), is(expected.price()));
+        assertThat(actual.availability(), is(expected.availability()));
+    }
+}
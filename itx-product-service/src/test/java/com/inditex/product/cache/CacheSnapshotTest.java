@@ -0,0 +1,146 @@
+package com.inditex.product.cache;
+
+import com.inditex.product.MutableClock;
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.infrastructure.adapters.cache.CacheSnapshot;
+import com.inditex.product.infrastructure.adapters.cache.ProductDetailsEntrySerializer;
+import com.inditex.product.infrastructure.adapters.cache.RefreshAheadPolicy;
+import com.inditex.product.infrastructure.adapters.cache.SimilarProductIds;
+import com.inditex.product.infrastructure.adapters.cache.SimilarProductIdsEntrySerializer;
+import com.inditex.product.infrastructure.adapters.cache.TieredCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static com.inditex.product.application.usecase.UseCaseHelpers.buildProductDetails;
+import static com.inditex.product.infrastructure.adapters.config.CacheConfig.CACHE_PRODUCT;
+import static com.inditex.product.infrastructure.adapters.config.CacheConfig.CACHE_PRODUCT_LIST;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class CacheSnapshotTest {
+
+    private static final long TTL = 60_000;
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+    private MutableClock clock;
+    private TieredCache<ProductDetails> products;
+    private TieredCache<SimilarProductIds> similarIds;
+
+    @BeforeEach
+    void setUp() {
+        file = dir.resolve("cache/snapshot.bin");
+        clock = new MutableClock();
+        newCaches();
+    }
+
+    @Test
+    void savedEntriesShouldBeRestoredAfterARestart() {
+        products.get("1", product("Shirt"));
+        products.get("2", product("Dress"));
+        similarIds.get("1", id -> new SimilarProductIds(List.of("2", "3")));
+
+        assertThat(snapshot(100).save(), is(Map.of(CACHE_PRODUCT_LIST, 1, CACHE_PRODUCT, 2)));
+        newCaches();
+        assertThat(snapshot(100).load(), is(Map.of(CACHE_PRODUCT_LIST, 1, CACHE_PRODUCT, 2)));
+
+        assertThat(products.get("1", notLoaded()).name(), is("Shirt"));
+        assertThat(products.get("2", notLoaded()).name(), is("Dress"));
+        assertThat(similarIds.get("1", notLoaded()).ids(), is(List.of("2", "3")));
+    }
+
+    @Test
+    void entriesExpiredInTheMeantimeShouldBeSkipped() {
+        products.get("1", product("Shirt"));
+        snapshot(100).save();
+        clock.advance(TTL / 2);
+        products.get("2", product("Dress"));
+        snapshot(100).save();
+
+        newCaches();
+        clock.advance(TTL / 2);
+
+        assertThat(snapshot(100).load(), is(Map.of(CACHE_PRODUCT, 1)));
+        assertThat(products.liveEntries(10).keySet(), is(Set.of("2")));
+    }
+
+    @Test
+    void snapshotShouldBeBoundedToTheHottestEntries() {
+        products.get("1", product("Shirt"));
+        products.get("2", product("Dress"));
+        products.get("3", product("Skirt"));
+        products.get("1", notLoaded());
+
+        assertThat(snapshot(2).save().get(CACHE_PRODUCT), is(2));
+        newCaches();
+        snapshot(2).load();
+
+        assertThat(products.liveEntries(10).keySet(), is(Set.of("1", "3")));
+    }
+
+    @Test
+    void cachedEntriesShouldNotBeOverwritten() {
+        products.get("1", product("Shirt"));
+        snapshot(100).save();
+        newCaches();
+        products.get("1", product("New shirt"));
+
+        assertThat(snapshot(100).load(), is(Map.of()));
+        assertThat(products.get("1", notLoaded()).name(), is("New shirt"));
+    }
+
+    @Test
+    void missingOrUnreadableSnapshotsShouldBeIgnored() throws Exception {
+        assertThat(snapshot(100).load(), is(Map.of()));
+
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[]{1, 2, 3, 4, 5});
+        assertThat(snapshot(100).load(), is(Map.of()));
+
+        products.get("1", product("Shirt"));
+        snapshot(100).save();
+        byte[] truncated = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(truncated, truncated.length - 3));
+        newCaches();
+        assertThat(snapshot(100).load(), is(Map.of()));
+    }
+
+    private void newCaches() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CACHE_PRODUCT_LIST, CACHE_PRODUCT);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RefreshAheadPolicy policy = new RefreshAheadPolicy(TTL, 1, 0, 0);
+        // L1 of 2 entries, the most recently used ones
+        products = new TieredCache<>(CACHE_PRODUCT, cacheManager, meterRegistry, Runnable::run, 2, TTL, policy, clock);
+        similarIds = new TieredCache<>(CACHE_PRODUCT_LIST, cacheManager, meterRegistry, Runnable::run, 2, TTL, policy, clock);
+    }
+
+    private CacheSnapshot snapshot(int maxEntries) {
+        return new CacheSnapshot(file, List.of(
+                new CacheSnapshot.Section<>(similarIds, new SimilarProductIdsEntrySerializer()),
+                new CacheSnapshot.Section<>(products, new ProductDetailsEntrySerializer())),
+                maxEntries, 1_000);
+    }
+
+    private static Function<String, ProductDetails> product(String name) {
+        return id -> buildProductDetails(id, name, 10.0, true);
+    }
+
+    private static <V> Function<String, V> notLoaded() {
+        return id -> {
+            throw new AssertionError("Unexpected load of " + id);
+        };
+    }
+}
@@ -0,0 +1,284 @@
+package com.inditex.product.cache;
+
+import com.inditex.product.MutableClock;
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.infrastructure.adapters.cache.RefreshAheadPolicy;
+import com.inditex.product.infrastructure.adapters.cache.TieredCache;
+import com.inditex.product.shared.exception.CircuitBreakerException;
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static com.inditex.product.application.usecase.UseCaseHelpers.buildProductDetails;
+import static com.inditex.product.infrastructure.adapters.config.CacheConfig.CACHE_PRODUCT;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TieredCacheTest {
+
+    private static final long TTL = 1_000;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrentMapCacheManager cacheManager;
+    private MutableClock clock;
+    private List<Runnable> refreshTasks;
+    private AtomicInteger loads;
+    private Function<String, ProductDetails> loader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cacheManager = new ConcurrentMapCacheManager(CACHE_PRODUCT);
+        clock = new MutableClock();
+        refreshTasks = new ArrayList<>();
+        loads = new AtomicInteger();
+        loader = id -> buildProductDetails(id, "P" + id + "-" + loads.incrementAndGet(), 10.0, true);
+    }
+
+    @Test
+    void getShouldServeFromL1ThenL2ThenLoader() {
+        TieredCache<ProductDetails> cache = cache(1, 60_000, new RefreshAheadPolicy(TTL, 1, 0, 0));
+
+        cache.get("1", loader); // miss
+        cache.get("1", loader); // L1 hit
+        cache.get("2", loader); // miss, evicts "1" from L1
+        ProductDetails fromL2 = cache.get("1", loader); // L2 hit
+
+        assertThat(fromL2.id(), is("1"));
+        assertThat(loads.get(), is(2));
+        TieredCache.Stats stats = cache.stats();
+        assertThat(stats.l1Hits(), is(1L));
+        assertThat(stats.l2Hits(), is(1L));
+        assertThat(stats.misses(), is(2L));
+        assertThat(stats.l1HitRatio(), closeTo(0.25, 0.001));
+        assertThat(stats.l2HitRatio(), closeTo(1.0 / 3, 0.001));
+    }
+
+    @Test
+    void getShouldGoToL2WhenL1EntryExpired() {
+        TieredCache<ProductDetails> cache = cache(10, 0, new RefreshAheadPolicy(TTL, 1, 0, 0));
+
+        cache.get("1", loader);
+        cache.get("1", loader);
+
+        assertThat(loads.get(), is(1));
+        assertThat(cache.stats().l1Hits(), is(0L));
+        assertThat(cache.stats().l2Hits(), is(1L));
+    }
+
+    @Test
+    void getShouldNotCacheNullValues() {
+        TieredCache<ProductDetails> cache = cache(10, 60_000, new RefreshAheadPolicy(TTL, 1, 0, 0));
+
+        assertThat(cache.get("1", id -> null), nullValue());
+        assertThat(cache.get("1", loader), notNullValue());
+        assertThat(cache.stats().misses(), is(2L));
+    }
+
+    @Test
+    void getPastRefreshTimeShouldReturnCachedValueAndReloadInBackgroundOnce() {
+        TieredCache<ProductDetails> cache = cache(10, 60_000, new RefreshAheadPolicy(TTL, 0.5, 0, 0));
+        cache.get("1", loader);
+
+        clock.advance(600);
+        ProductDetails first = cache.get("1", loader);
+        ProductDetails second = cache.get("1", loader);
+
+        assertThat(first.name(), is("P1-1"));
+        assertThat(second.name(), is("P1-1"));
+        assertThat(refreshTasks, hasSize(1));
+
+        refreshTasks.remove(0).run();
+
+        assertThat(cache.get("1", loader).name(), is("P1-2"));
+        assertThat(cache.stats().refreshes(), is(1L));
+    }
+
+    @Test
+    void getExpiredShouldServeStaleValueWithinGraceWhenReloadFails() {
+        TieredCache<ProductDetails> cache = cache(10, 60_000, new RefreshAheadPolicy(TTL, 1, 0, 500));
+        cache.get("1", loader);
+
+        clock.advance(TTL + 100);
+        ProductDetails stale = cache.get("1", id -> {
+            throw new CircuitBreakerException("Similar product service temporarily unavailable (circuit open)");
+        });
+
+        assertThat(stale.name(), is("P1-1"));
+        assertThat(cache.stats().staleHits(), is(1L));
+
+        clock.advance(500);
+        assertThrows(CircuitBreakerException.class, () -> cache.get("1", id -> {
+            throw new CircuitBreakerException("Similar product service temporarily unavailable (circuit open)");
+        }));
+    }
+
+    @Test
+    void getExpiredShouldNotServeStaleValueWhenProductIsNotFound() {
+        TieredCache<ProductDetails> cache = cache(10, 60_000, new RefreshAheadPolicy(TTL, 1, 0, 500));
+        cache.get("1", loader);
+
+        clock.advance(TTL + 100);
+
+        assertThrows(ProductNotFoundException.class, () -> cache.get("1", id -> {
+            throw new ProductNotFoundException("Product not found: 1");
+        }));
+        assertThat(cache.get("1", loader).name(), is("P1-2"));
+    }
+
+    @Test
+    void getAsyncShouldShareTheLoadOfConcurrentMissesAndCacheItsValue() throws Exception {
+        TieredCache<ProductDetails> cache = cache(10, 60_000, new RefreshAheadPolicy(TTL, 1, 0, 0));
+        CompletableFuture<ProductDetails> load = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<ProductDetails> first = cache.getAsync("1", id -> {
+            calls.incrementAndGet();
+            return load;
+        });
+        CompletableFuture<ProductDetails> second = cache.getAsync("1", id -> {
+            calls.incrementAndGet();
+            return load;
+        });
+        assertThat(first.isDone(), is(false));
+
+        load.complete(loader.apply("1"));
+
+        assertThat(first.get().name(), is("P1-1"));
+        assertThat(second.get(), sameInstance(first.get()));
+        assertThat(calls.get(), is(1));
+        assertThat(cache.get("1", loader).name(), is("P1-1"));
+        assertThat(cache.stats().misses(), is(2L));
+    }
+
+    @Test
+    void getAsyncExpiredShouldServeStaleValueWithinGraceWhenReloadFails() throws Exception {
+        TieredCache<ProductDetails> cache = cache(10, 60_000, new RefreshAheadPolicy(TTL, 1, 0, 500));
+        cache.get("1", loader);
+
+        clock.advance(TTL + 100);
+        ProductDetails stale = cache.getAsync("1", id -> CompletableFuture.failedFuture(
+                new CircuitBreakerException("Similar product service temporarily unavailable (circuit open)"))).get();
+
+        assertThat(stale.name(), is("P1-1"));
+        assertThat(cache.stats().staleHits(), is(1L));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> cache.getAsync("1",
+                id -> CompletableFuture.failedFuture(new ProductNotFoundException("Product not found: 1"))).get());
+        assertThat(e.getCause(), instanceOf(ProductNotFoundException.class));
+        assertThat(cache.get("1", loader).name(), is("P1-2"));
+    }
+
+    @Test
+    void getAsyncPastRefreshTimeShouldReturnCachedValueAndReloadWithoutTheRefreshExecutor() throws Exception {
+        TieredCache<ProductDetails> cache = cache(10, 60_000, new RefreshAheadPolicy(TTL, 0.5, 0, 0));
+        cache.get("1", loader);
+
+        clock.advance(600);
+        ProductDetails cached = cache.getAsync("1", id -> CompletableFuture.completedFuture(loader.apply(id))).get();
+
+        assertThat(cached.name(), is("P1-1"));
+        assertThat(refreshTasks, is(empty()));
+        assertThat(cache.get("1", loader).name(), is("P1-2"));
+        assertThat(cache.stats().refreshes(), is(1L));
+    }
+
+    @Test
+    void getAllPresentShouldReturnCachedValuesFromBothTiersAndSkipMissingOnes() {
+        TieredCache<ProductDetails> cache = cache(1, 60_000, new RefreshAheadPolicy(TTL, 1, 0, 0));
+        cache.get("1", loader);
+        cache.get("2", loader); // evicts "1" from L1
+
+        Map<String, ProductDetails> present = cache.getAllPresent(List.of("1", "2", "3", "2"), loader);
+
+        assertThat(present.keySet(), containsInAnyOrder("1", "2"));
+        assertThat(loads.get(), is(2));
+        TieredCache.Stats stats = cache.stats();
+        assertThat(stats.l1Hits(), is(1L));
+        assertThat(stats.l2Hits(), is(1L));
+        assertThat(stats.misses(), is(2L));
+    }
+
+    @Test
+    void getAllPresentShouldSkipExpiredEntriesAndRefreshTheOnesPastRefreshTime() {
+        TieredCache<ProductDetails> cache = cache(10, 60_000, new RefreshAheadPolicy(TTL, 0.5, 0, 500));
+        cache.get("1", loader);
+        clock.advance(300);
+        cache.get("2", loader);
+
+        clock.advance(900); // "1" expired, "2" past its refresh time
+        Map<String, ProductDetails> present = cache.getAllPresent(List.of("1", "2"), loader);
+
+        assertThat(present.keySet(), contains("2"));
+        assertThat(refreshTasks, hasSize(1));
+    }
+
+    @Test
+    void newEntriesShouldHaveJitteredExpiryWithinTtl() {
+        RefreshAheadPolicy policy = new RefreshAheadPolicy(TTL, 0.8, 0.2, 100);
+
+        long minExpiry = Long.MAX_VALUE;
+        long maxExpiry = Long.MIN_VALUE;
+        for (int i = 0; i < 100; i++) {
+            long expiresAt = policy.newEntry("value", 0).expiresAt();
+            minExpiry = Math.min(minExpiry, expiresAt);
+            maxExpiry = Math.max(maxExpiry, expiresAt);
+        }
+
+        assertThat(minExpiry, greaterThanOrEqualTo(800L));
+        assertThat(maxExpiry, lessThanOrEqualTo(TTL));
+        assertThat(maxExpiry, greaterThan(minExpiry));
+    }
+
+    @Test
+    void metersShouldBePublishedPerTier() {
+        TieredCache<ProductDetails> cache = cache(10, 60_000, new RefreshAheadPolicy(TTL, 1, 0, 0));
+
+        cache.get("1", loader);
+        cache.get("1", loader);
+
+        assertThat(meterRegistry.get("cache.tier.gets").tags("tier", "l1", "result", "hit").functionCounter().count(), is(1.0));
+        assertThat(meterRegistry.get("cache.tier.gets").tags("tier", "l2", "result", "miss").functionCounter().count(), is(1.0));
+        assertThat(meterRegistry.get("cache.tier.hit.ratio").tags("tier", "l1").gauge().value(), is(0.5));
+    }
+
+    @Test
+    void invalidationListenersShouldBeNotifiedOfEvictionsAndClears() {
+        TieredCache<ProductDetails> cache = cache(10, 60_000, new RefreshAheadPolicy(TTL, 1, 0, 0));
+        List<String> invalidations = new ArrayList<>();
+        cache.addInvalidationListener(new TieredCache.InvalidationListener() {
+            @Override
+            public void evicted(String key) {
+                invalidations.add(key);
+            }
+
+            @Override
+            public void cleared() {
+                invalidations.add("*");
+            }
+        });
+
+        cache.get("1", loader);
+        cache.evict("1");
+        cache.clear();
+
+        assertThat(invalidations, is(List.of("1", "*")));
+        assertThat(cache.get("1", loader).name(), is("P1-2"));
+    }
+
+    private TieredCache<ProductDetails> cache(int l1MaxSize, long l1TtlMillis, RefreshAheadPolicy policy) {
+        return new TieredCache<>(CACHE_PRODUCT, cacheManager, meterRegistry, refreshTasks::add, l1MaxSize, l1TtlMillis,
+                policy, clock);
+    }
+}
@@ -0,0 +1,207 @@
+package com.inditex.product.client.coalescing;
+
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.domain.model.ports.output.SimilarProducts;
+import com.inditex.product.infrastructure.adapters.out.client.coalescing.CoalescingSimilarProducts;
+import com.inditex.product.shared.deadline.RequestDeadline;
+import com.inditex.product.shared.exception.CallCancelledException;
+import com.inditex.product.shared.exception.DeadlineExceededException;
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.inditex.product.application.usecase.UseCaseHelpers.buildProductDetails;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class CoalescingSimilarProductsTest {
+
+    private static final int CALLERS = 10;
+
+    private SimilarProducts delegate;
+    private SimpleMeterRegistry meterRegistry;
+    private CoalescingSimilarProducts client;
+    private ExecutorService executor;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(SimilarProducts.class);
+        meterRegistry = new SimpleMeterRegistry();
+        client = new CoalescingSimilarProducts(delegate, meterRegistry);
+        executor = Executors.newFixedThreadPool(CALLERS);
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallsForSameIdShouldMakeOneUpstreamCall() throws Exception {
+        when(delegate.getProductById("1")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return buildProductDetails("1", "P1", 10.0, true);
+        });
+
+        List<Future<ProductDetails>> results = submit(() -> client.getProductById("1"));
+        awaitWaiters("getProductById");
+        release.countDown();
+
+        for (Future<ProductDetails> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS).id(), is("1"));
+        }
+        verify(delegate, times(1)).getProductById("1");
+        assertThat(client.deduplicatedCalls(), is((long) CALLERS - 1));
+    }
+
+    @Test
+    void errorsShouldPropagateToAllWaiters() throws Exception {
+        when(delegate.getSimilarProductIds("5")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            throw new ProductNotFoundException("Similar product ids not found for product: 5");
+        });
+
+        List<Future<List<String>>> results = submit(() -> client.getSimilarProductIds("5"));
+        awaitWaiters("getSimilarProductIds");
+        release.countDown();
+
+        for (Future<List<String>> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> result.get(5, TimeUnit.SECONDS));
+            assertThat(e.getCause(), instanceOf(ProductNotFoundException.class));
+        }
+        verify(delegate, times(1)).getSimilarProductIds("5");
+        assertThat(client.deduplicatedCalls(), is((long) CALLERS - 1));
+    }
+
+    @Test
+    void waitersShouldNotWaitLongerThanTheirOwnDeadline() throws Exception {
+        when(delegate.getProductById("1")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return buildProductDetails("1", "P1", 10.0, true);
+        });
+        Future<ProductDetails> leader = executor.submit(() -> client.getProductById("1"));
+        awaitCalls("getProductById", 1);
+
+        long start = System.nanoTime();
+        assertThrows(DeadlineExceededException.class, () -> RequestDeadline.within(
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100), () -> client.getProductById("1")));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+
+        assertThat(elapsedMillis, lessThan(1_000L));
+        assertThat(leader.get(5, TimeUnit.SECONDS).id(), is("1"));
+        assertThat(client.deduplicatedCalls(), is(0L));
+    }
+
+    @Test
+    void aCallCutShortByTheDeadlineOfItsCallerShouldNotFailTheWaiters() throws Exception {
+        when(delegate.getProductById("1"))
+                .thenAnswer(invocation -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    throw new DeadlineExceededException("Deadline exceeded calling the product service");
+                })
+                .thenReturn(buildProductDetails("1", "P1", 10.0, true));
+        Future<ProductDetails> leader = executor.submit(() -> client.getProductById("1"));
+        awaitCalls("getProductById", 1);
+        Future<ProductDetails> waiter = executor.submit(() -> client.getProductById("1"));
+        awaitWaiters("getProductById", 1);
+
+        release.countDown();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertThat(e.getCause(), instanceOf(DeadlineExceededException.class));
+        assertThat(waiter.get(5, TimeUnit.SECONDS).id(), is("1"));
+        verify(delegate, times(2)).getProductById("1");
+        assertThat(client.deduplicatedCalls(), is(0L));
+    }
+
+    @Test
+    void aCallCancelledByItsCallerShouldNotFailTheWaiters() throws Exception {
+        when(delegate.getProductById("1"))
+                .thenAnswer(invocation -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    throw new CallCancelledException("Cancelled waiting for the response");
+                })
+                .thenReturn(buildProductDetails("1", "P1", 10.0, true));
+        Future<ProductDetails> leader = executor.submit(() -> client.getProductById("1"));
+        awaitCalls("getProductById", 1);
+        Future<ProductDetails> waiter = executor.submit(() -> client.getProductById("1"));
+        awaitWaiters("getProductById", 1);
+
+        release.countDown();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertThat(e.getCause(), instanceOf(CallCancelledException.class));
+        assertThat(waiter.get(5, TimeUnit.SECONDS).id(), is("1"));
+        verify(delegate, times(2)).getProductById("1");
+        assertThat(client.deduplicatedCalls(), is(0L));
+    }
+
+    @Test
+    void callsShouldNotBeCoalescedOnceFinished() {
+        when(delegate.getSimilarProductIds("1")).thenReturn(List.of("2", "3"));
+
+        client.getSimilarProductIds("1");
+        client.getSimilarProductIds("1");
+
+        verify(delegate, times(2)).getSimilarProductIds("1");
+        assertThat(client.deduplicatedCalls(), is(0L));
+    }
+
+    @Test
+    void differentIdsShouldNotBeCoalesced() {
+        when(delegate.getProductById(anyString())).thenAnswer(invocation -> buildProductDetails(invocation.getArgument(0), "P", 1.0, true));
+
+        client.getProductById("1");
+        client.getProductById("2");
+
+        verify(delegate).getProductById("1");
+        verify(delegate).getProductById("2");
+    }
+
+    private <T> List<Future<T>> submit(Callable<T> call) {
+        List<Future<T>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(call));
+        }
+        return results;
+    }
+
+    // Waits until every caller but the one making the upstream call is waiting for it
+    private void awaitWaiters(String operation) throws InterruptedException {
+        awaitWaiters(operation, CALLERS - 1);
+    }
+
+    private void awaitWaiters(String operation, int waiters) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline && meterRegistry.get("similar.products.calls.waiting")
+                .tag("operation", operation).gauge().value() < waiters) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void awaitCalls(String operation, int calls) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline && meterRegistry.get("similar.products.calls")
+                .tag("operation", operation).functionCounter().count() < calls) {
+            Thread.sleep(10);
+        }
+    }
+}
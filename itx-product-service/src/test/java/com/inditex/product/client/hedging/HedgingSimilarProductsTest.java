@@ -0,0 +1,147 @@
+package com.inditex.product.client.hedging;
+
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.domain.model.ports.output.SimilarProducts;
+import com.inditex.product.infrastructure.adapters.out.client.hedging.HedgingSimilarProducts;
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.inditex.product.application.usecase.UseCaseHelpers.buildProductDetails;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class HedgingSimilarProductsTest {
+
+    private static final long HEDGE_DELAY = 100;
+
+    private SimilarProducts delegate;
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(SimilarProducts.class);
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void slowCallShouldBeHedgedAndFastestResponseWins() {
+        HedgingSimilarProducts client = client(1.0);
+        AtomicInteger calls = new AtomicInteger();
+        when(delegate.getProductById("3")).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() == 1) {
+                Thread.sleep(2_000);
+                return buildProductDetails("3", "slow", 29.99, false);
+            }
+            return buildProductDetails("3", "hedge", 29.99, false);
+        });
+
+        long start = System.nanoTime();
+        ProductDetails productDetails = client.getProductById("3");
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(productDetails.name(), is("hedge"));
+        assertThat(elapsedMillis, lessThan(1_000L));
+        assertThat(hedges("getProductById", "issued"), is(1.0));
+        assertThat(hedges("getProductById", "won"), is(1.0));
+    }
+
+    @Test
+    void losingCallShouldBeCancelledOnceTheOtherOneWins() throws Exception {
+        HedgingSimilarProducts client = client(1.0);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch loserInterrupted = new CountDownLatch(1);
+        when(delegate.getProductById("3")).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(5_000);
+                } catch (InterruptedException e) {
+                    loserInterrupted.countDown();
+                    throw e;
+                }
+                return buildProductDetails("3", "slow", 29.99, false);
+            }
+            return buildProductDetails("3", "hedge", 29.99, false);
+        });
+
+        assertThat(client.getProductById("3").name(), is("hedge"));
+
+        assertThat(loserInterrupted.await(1, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    void fastCallShouldNotBeHedged() {
+        HedgingSimilarProducts client = client(1.0);
+        when(delegate.getSimilarProductIds("1")).thenReturn(List.of("2", "3", "4"));
+
+        assertThat(client.getSimilarProductIds("1"), contains("2", "3", "4"));
+
+        verify(delegate, times(1)).getSimilarProductIds("1");
+        assertThat(hedges("getSimilarProductIds", "issued"), is(0.0));
+    }
+
+    @Test
+    void hedgesShouldBeLimitedByBudget() {
+        // 10% budget: the first call only earns a tenth of a hedge
+        HedgingSimilarProducts client = client(0.1);
+        when(delegate.getProductById("100")).thenAnswer(invocation -> {
+            Thread.sleep(HEDGE_DELAY + 50);
+            return buildProductDetails("100", "Trousers", 49.99, false);
+        });
+
+        client.getProductById("100");
+
+        verify(delegate, times(1)).getProductById("100");
+        assertThat(hedges("getProductById", "issued"), is(0.0));
+    }
+
+    @Test
+    void errorShouldPropagateWhenBothCallsFail() {
+        HedgingSimilarProducts client = client(1.0);
+        when(delegate.getProductById("5")).thenAnswer(invocation -> {
+            Thread.sleep(HEDGE_DELAY + 50);
+            throw new ProductNotFoundException("Product not found: 5");
+        });
+
+        assertThrows(ProductNotFoundException.class, () -> client.getProductById("5"));
+
+        verify(delegate, times(2)).getProductById("5");
+        assertThat(hedges("getProductById", "won"), is(0.0));
+    }
+
+    @Test
+    void errorBeforeHedgeDelayShouldPropagateWithoutHedging() {
+        HedgingSimilarProducts client = client(1.0);
+        when(delegate.getProductById("5")).thenThrow(new ProductNotFoundException("Product not found: 5"));
+
+        assertThrows(ProductNotFoundException.class, () -> client.getProductById("5"));
+
+        verify(delegate, times(1)).getProductById("5");
+    }
+
+    private HedgingSimilarProducts client(double budget) {
+        return new HedgingSimilarProducts(delegate, executor, meterRegistry, HEDGE_DELAY, 10, 0.95, budget);
+    }
+
+    private double hedges(String operation, String result) {
+        return meterRegistry.get("similar.products.hedges").tags("operation", operation, "result", result).functionCounter().count();
+    }
+}
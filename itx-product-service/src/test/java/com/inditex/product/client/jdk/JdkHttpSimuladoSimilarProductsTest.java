@@ -0,0 +1,215 @@
+package com.inditex.product.client.jdk;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.infrastructure.adapters.out.client.jdk.JdkHttpSimuladoSimilarProducts;
+import com.inditex.product.infrastructure.adapters.out.client.rest.RestSimuladoSimilarProducts;
+import com.inditex.product.shared.exception.CallCancelledException;
+import com.inditex.product.shared.exception.CircuitBreakerException;
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JdkHttpSimuladoSimilarProductsTest {
+
+    private WireMockServer wireMockServer;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private BulkheadRegistry bulkheadRegistry;
+    private JdkHttpSimuladoSimilarProducts client;
+
+    @BeforeEach
+    void setUp() {
+        wireMockServer = new WireMockServer(WireMockConfiguration.options().dynamicPort());
+        wireMockServer.start();
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        // The read timeout bounds the whole exchange, so the first one, which sets the client up, must fit in it too
+        client = new JdkHttpSimuladoSimilarProducts(httpClient, JsonMapper.builder().build(), wireMockServer.baseUrl(),
+                2000, circuitBreakerRegistry, bulkheadRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    void getProductByIdShouldReturnMappedProduct() {
+        stubProduct("123", "{\"id\":\"123\",\"name\":\"Product 123\",\"price\":19.99,\"availability\":true}", 0);
+
+        ProductDetails details = client.getProductById("123");
+
+        assertThat(details, is(new ProductDetails("123", "Product 123", 19.99, true)));
+    }
+
+    @Test
+    void getSimilarProductIdsShouldReturnIdsFromArray() {
+        stubSimilarIds("123", "[\"234\",\"345\",\"456\"]");
+
+        assertThat(client.getSimilarProductIds("123"), contains("234", "345", "456"));
+    }
+
+    @Test
+    void getSimilarProductIdsShouldReturnEmptyListOnNoContent() {
+        wireMockServer.stubFor(get("/product/999/similarids").willReturn(aResponse().withStatus(204)));
+
+        assertThat(client.getSimilarProductIds("999"), is(empty()));
+    }
+
+    @Test
+    void notFoundProductShouldBeReportedAsSuch() {
+        wireMockServer.stubFor(get("/product/404").willReturn(aResponse().withStatus(404)));
+
+        ProductNotFoundException e = assertThrows(ProductNotFoundException.class, () -> client.getProductById("404"));
+
+        assertThat(e.getMessage(), containsString("Product not found: 404"));
+    }
+
+    @Test
+    void serverErrorsAndTimeoutsShouldBeReportedAsTheRestClientDoes() {
+        wireMockServer.stubFor(get("/product/500").willReturn(aResponse().withStatus(500)));
+        stubProduct("2", "{\"id\":\"2\"}", 3000);
+
+        CircuitBreakerException serverError = assertThrows(CircuitBreakerException.class, () -> client.getProductById("500"));
+        CircuitBreakerException timeout = assertThrows(CircuitBreakerException.class, () -> client.getProductById("2"));
+
+        assertThat(serverError.getCause(), instanceOf(HttpServerErrorException.InternalServerError.class));
+        assertThat(timeout.getCause(), instanceOf(ResourceAccessException.class));
+    }
+
+    @Test
+    void slowBodiesShouldBeBoundedByTheReadTimeout() {
+        wireMockServer.stubFor(get("/product/2").willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", "application/json")
+                .withBody("{\"id\":\"2\",\"name\":\"Dress\",\"price\":19.99,\"availability\":true}")
+                .withChunkedDribbleDelay(10, 5000)));
+
+        long start = System.nanoTime();
+        CircuitBreakerException timeout = assertThrows(CircuitBreakerException.class, () -> client.getProductById("2"));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(timeout.getCause(), instanceOf(ResourceAccessException.class));
+        assertThat(elapsedMillis, lessThan(4_000L));
+    }
+
+    @Test
+    void interruptedCallsShouldBeCancelledWithoutCountingAsFailures() throws Exception {
+        stubProduct("2", "{\"id\":\"2\"}", 3000);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread caller = new Thread(() -> {
+            try {
+                client.getProductById("2");
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        caller.start();
+        awaitBulkheadFull(RestSimuladoSimilarProducts.PRODUCT_DETAIL);
+
+        caller.interrupt();
+        caller.join(5000);
+
+        assertThat(failure.get(), instanceOf(CallCancelledException.class));
+        CircuitBreaker.Metrics metrics = circuitBreakerRegistry.circuitBreaker(RestSimuladoSimilarProducts.PRODUCT_DETAIL)
+                .getMetrics();
+        assertThat(metrics.getNumberOfBufferedCalls(), is(0));
+        assertThat(bulkheadRegistry.bulkhead(RestSimuladoSimilarProducts.PRODUCT_DETAIL).getMetrics()
+                .getAvailableConcurrentCalls(), is(1));
+    }
+
+    @Test
+    void openProductDetailCircuitShouldNotAffectSimilarIds() {
+        stubSimilarIds("1", "[\"2\"]");
+        circuitBreakerRegistry.circuitBreaker(RestSimuladoSimilarProducts.PRODUCT_DETAIL).transitionToOpenState();
+
+        CircuitBreakerException e = assertThrows(CircuitBreakerException.class, () -> client.getProductById("2"));
+
+        assertThat(e.getCause(), instanceOf(CallNotPermittedException.class));
+        assertThat(client.getSimilarProductIds("1"), contains("2"));
+    }
+
+    @Test
+    void saturatedProductDetailBulkheadShouldRejectOnlyProductDetailCalls() throws Exception {
+        stubSimilarIds("1", "[\"2\"]");
+        stubProduct("2", "{\"id\":\"2\",\"name\":\"Dress\",\"price\":19.99,\"availability\":true}", 500);
+
+        CompletableFuture<ProductDetails> slowCall = CompletableFuture.supplyAsync(() -> client.getProductById("2"));
+        awaitBulkheadFull(RestSimuladoSimilarProducts.PRODUCT_DETAIL);
+
+        CircuitBreakerException e = assertThrows(CircuitBreakerException.class, () -> client.getProductById("2"));
+        assertThat(e.getCause(), instanceOf(BulkheadFullException.class));
+        assertThat(client.getSimilarProductIds("1"), contains("2"));
+        assertThat(slowCall.get(5, TimeUnit.SECONDS).id(), is("2"));
+    }
+
+    @Test
+    void callsShouldBeMadeOverHttp2OnceUpgraded() {
+        stubSimilarIds("1", "[\"2\"]");
+
+        client.getSimilarProductIds("1");
+        client.getSimilarProductIds("1");
+
+        // Newest first
+        List<ServeEvent> events = wireMockServer.getAllServeEvents();
+        assertThat(events.get(0).getRequest().getProtocol(), is("HTTP/2.0"));
+    }
+
+    private void stubProduct(String productId, String body, int delayMillis) {
+        wireMockServer.stubFor(get("/product/" + productId)
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody(body)
+                        .withFixedDelay(delayMillis)));
+    }
+
+    private void stubSimilarIds(String productId, String body) {
+        wireMockServer.stubFor(get("/product/" + productId + "/similarids")
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody(body)));
+    }
+
+    private void awaitBulkheadFull(String name) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline
+                && bulkheadRegistry.bulkhead(name).getMetrics().getAvailableConcurrentCalls() > 0) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.inditex.product.client.limit;
+
+import com.inditex.product.domain.model.ports.output.SimilarProducts;
+import com.inditex.product.infrastructure.adapters.out.client.limit.ConcurrencyLimitingSimilarProducts;
+import com.inditex.product.shared.deadline.RequestDeadline;
+import com.inditex.product.shared.exception.CallCancelledException;
+import com.inditex.product.shared.exception.CircuitBreakerException;
+import com.inditex.product.shared.exception.ConcurrencyLimitExceededException;
+import com.inditex.product.shared.exception.DeadlineExceededException;
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.inditex.product.application.usecase.UseCaseHelpers.buildProductDetails;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class ConcurrencyLimitingSimilarProductsTest {
+
+    private SimilarProducts delegate;
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(SimilarProducts.class);
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void callsOverTheLimitShouldBeRejectedRightAway() throws Exception {
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.getProductById(anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return buildProductDetails(invocation.getArgument(0), "P", 1.0, true);
+        });
+        SimilarProducts client = limited(2, 2, 2);
+
+        Future<?> first = executor.submit(() -> client.getProductById("1"));
+        Future<?> second = executor.submit(() -> client.getProductById("2"));
+        assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+
+        assertThrows(ConcurrencyLimitExceededException.class, () -> client.getProductById("3"));
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+
+        verify(delegate, never()).getProductById("3");
+        assertThat(meter("rejected", "getProductById"), is(1.0));
+        assertThat(meter("inflight", "getProductById"), is(0.0));
+        assertThat(client.getProductById("3").id(), is("3"));
+    }
+
+    @Test
+    void operationsShouldHaveTheirOwnLimit() {
+        when(delegate.getSimilarProductIds(anyString())).thenReturn(List.of("2"));
+        SimilarProducts client = new ConcurrencyLimitingSimilarProducts(delegate, meterRegistry, 10, 2, 1.5, 50, 5);
+
+        client.getSimilarProductIds("1");
+
+        assertThat(meter("limit", "getProductById"), is(10.0));
+        assertThat(meter("limit", "getSimilarProductIds"), is(5.0));
+    }
+
+    @Test
+    void limitShouldGrowWhileLatencyIsStableAndTheLimitIsUsed() throws Exception {
+        when(delegate.getSimilarProductIds(anyString())).thenAnswer(invocation -> delayed(2, List.of()));
+        SimilarProducts client = limited(4, 1, 50);
+
+        // As many callers as the limit, so it's used
+        List<Future<?>> callers = new ArrayList<>();
+        for (int caller = 0; caller < 4; caller++) {
+            callers.add(executor.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    client.getSimilarProductIds("1");
+                }
+            }));
+        }
+        for (Future<?> caller : callers) {
+            caller.get(10, TimeUnit.SECONDS);
+        }
+
+        assertThat(meter("limit", "getSimilarProductIds"), greaterThan(4.0));
+        assertThat(meter("rejected", "getSimilarProductIds"), is(0.0));
+    }
+
+    @Test
+    void limitShouldShrinkWhenLatencyGrows() {
+        AtomicLong delay = new AtomicLong(2);
+        when(delegate.getProductById(anyString())).thenAnswer(invocation -> delayed(delay.get(), null));
+        SimilarProducts client = limited(20, 1, 50);
+
+        for (int i = 0; i < 50; i++) {
+            client.getProductById("1");
+        }
+        assertThat(meter("limit", "getProductById"), is(20.0));
+
+        delay.set(40);
+        for (int i = 0; i < 30; i++) {
+            client.getProductById("1");
+        }
+        assertThat(meter("limit", "getProductById"), lessThan(20.0));
+    }
+
+    @Test
+    void limitShouldShrinkWhenCallsFailOrTimeOut() {
+        when(delegate.getProductById("1")).thenReturn(buildProductDetails("1", "P1", 10.0, true));
+        when(delegate.getProductById("500")).thenThrow(new CircuitBreakerException("error fetching product 500"));
+        when(delegate.getProductById("slow")).thenThrow(new CircuitBreakerException("error fetching product slow",
+                new ResourceAccessException("Read timed out")));
+        SimilarProducts client = limited(20, 1, 50);
+
+        for (int i = 0; i < 10; i++) {
+            client.getProductById("1");
+        }
+        assertThat(meter("limit", "getProductById"), is(20.0));
+
+        for (int i = 0; i < 10; i++) {
+            String productId = i % 2 == 0 ? "500" : "slow";
+            assertThrows(RuntimeException.class, () -> client.getProductById(productId));
+        }
+        assertThat(meter("limit", "getProductById"), lessThan(20.0));
+        assertThat(meter("inflight", "getProductById"), is(0.0));
+    }
+
+    @Test
+    void callsTheCircuitBreakerDidNotLetThroughShouldNotShrinkTheLimit() {
+        when(delegate.getProductById("1")).thenThrow(new CircuitBreakerException("circuit open",
+                CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("productDetail"))));
+        SimilarProducts client = limited(20, 1, 50);
+
+        for (int i = 0; i < 20; i++) {
+            assertThrows(CircuitBreakerException.class, () -> client.getProductById("1"));
+        }
+
+        assertThat(meter("limit", "getProductById"), is(20.0));
+    }
+
+    @Test
+    void callsCutShortByTheRequestDeadlineShouldNotShrinkTheLimit() {
+        when(delegate.getProductById("1")).thenThrow(new DeadlineExceededException("Deadline exceeded"));
+        SimilarProducts client = limited(20, 1, 50);
+
+        for (int i = 0; i < 20; i++) {
+            assertThrows(DeadlineExceededException.class, () -> client.getProductById("1"));
+        }
+
+        assertThat(meter("limit", "getProductById"), is(20.0));
+        assertThat(meter("inflight", "getProductById"), is(0.0));
+    }
+
+    @Test
+    void callsCancelledByTheirCallerShouldNotShrinkTheLimit() {
+        when(delegate.getProductById("1")).thenThrow(new CallCancelledException("Cancelled waiting for the response"));
+        SimilarProducts client = limited(20, 1, 50);
+
+        for (int i = 0; i < 20; i++) {
+            assertThrows(CallCancelledException.class, () -> client.getProductById("1"));
+        }
+
+        assertThat(meter("limit", "getProductById"), is(20.0));
+    }
+
+    @Test
+    void callsOfRequestsOutOfBudgetShouldFailFastWithoutTouchingTheLimit() {
+        SimilarProducts client = limited(20, 1, 50);
+
+        for (int i = 0; i < 20; i++) {
+            assertThrows(DeadlineExceededException.class,
+                    () -> RequestDeadline.within(System.nanoTime() - 1, () -> client.getProductById("1")));
+        }
+
+        verify(delegate, never()).getProductById(anyString());
+        assertThat(meter("limit", "getProductById"), is(20.0));
+        assertThat(meter("inflight", "getProductById"), is(0.0));
+    }
+
+    @Test
+    void notFoundProductsShouldBeSamplesAndPropagated() {
+        when(delegate.getProductById("404")).thenThrow(new ProductNotFoundException("Product not found: 404"));
+        SimilarProducts client = limited(2, 1, 50);
+
+        assertThrows(ProductNotFoundException.class, () -> client.getProductById("404"));
+        assertThat(meter("inflight", "getProductById"), is(0.0));
+        assertThat(meter("rejected", "getProductById"), is(0.0));
+    }
+
+    private SimilarProducts limited(int initialLimit, int minLimit, int maxLimit) {
+        return new ConcurrencyLimitingSimilarProducts(delegate, meterRegistry, initialLimit, minLimit, 1.5, maxLimit,
+                maxLimit);
+    }
+
+    private double meter(String name, String operation) {
+        return meterRegistry.get("similar.products.concurrency." + name).tag("operation", operation).meter()
+                .measure().iterator().next().getValue();
+    }
+
+    private static <T> T delayed(long millis, T value) throws InterruptedException {
+        Thread.sleep(millis);
+        return value;
+    }
+}
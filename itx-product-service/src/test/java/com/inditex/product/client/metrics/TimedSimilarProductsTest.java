@@ -0,0 +1,64 @@
+package com.inditex.product.client.metrics;
+
+import com.inditex.product.domain.model.ports.output.SimilarProducts;
+import com.inditex.product.infrastructure.adapters.out.client.metrics.TimedSimilarProducts;
+import com.inditex.product.shared.exception.CircuitBreakerException;
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.inditex.product.application.usecase.UseCaseHelpers.buildProductDetails;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class TimedSimilarProductsTest {
+
+    private SimilarProducts delegate;
+    private SimpleMeterRegistry meterRegistry;
+    private TimedSimilarProducts client;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(SimilarProducts.class);
+        meterRegistry = new SimpleMeterRegistry();
+        client = new TimedSimilarProducts(delegate, meterRegistry);
+    }
+
+    @Test
+    void callsShouldBeTimedPerOperationAndOutcome() {
+        when(delegate.getSimilarProductIds("1")).thenReturn(List.of("2"));
+        when(delegate.getProductById("2")).thenReturn(buildProductDetails("2", "P2", 20.0, true));
+        when(delegate.getProductById("404")).thenThrow(new ProductNotFoundException("Product not found: 404"));
+        when(delegate.getProductById("500")).thenThrow(new CircuitBreakerException("Error getting product details"));
+
+        assertThat(client.getSimilarProductIds("1"), is(List.of("2")));
+        assertThat(client.getProductById("2").id(), is("2"));
+        assertThrows(ProductNotFoundException.class, () -> client.getProductById("404"));
+        assertThrows(CircuitBreakerException.class, () -> client.getProductById("500"));
+
+        assertThat(timer("getSimilarProductIds", "success").count(), is(1L));
+        assertThat(timer("getProductById", "success").count(), is(1L));
+        assertThat(timer("getProductById", "not_found").count(), is(1L));
+        assertThat(timer("getProductById", "error").count(), is(1L));
+    }
+
+    @Test
+    void timersShouldBePublishedBeforeAnyCall() {
+        assertThat(timer("getSimilarProductIds", "success").count(), is(0L));
+        assertThat(timer("getProductById", "not_found").count(), is(0L));
+        assertThat(timer("getProductById", "error").count(), is(0L));
+        verifyNoInteractions(delegate);
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return meterRegistry.get("similar.products.upstream")
+                .tags("operation", operation, "outcome", outcome)
+                .timer();
+    }
+}
@@ -0,0 +1,148 @@
+package com.inditex.product.client.negative;
+
+import com.inditex.product.MutableClock;
+import com.inditex.product.domain.model.ports.output.SimilarProducts;
+import com.inditex.product.infrastructure.adapters.out.client.negative.NegativeCachingSimilarProducts;
+import com.inditex.product.shared.exception.CircuitBreakerException;
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.InterruptedIOException;
+import java.util.List;
+
+import static com.inditex.product.application.usecase.UseCaseHelpers.buildProductDetails;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class NegativeCachingSimilarProductsTest {
+
+    private static final long NOT_FOUND_TTL = 30_000;
+    private static final long ERROR_TTL = 2_000;
+
+    private SimilarProducts delegate;
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+    private NegativeCachingSimilarProducts client;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(SimilarProducts.class);
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock();
+        client = new NegativeCachingSimilarProducts(delegate, meterRegistry, NOT_FOUND_TTL, ERROR_TTL, 100, clock);
+    }
+
+    @Test
+    void notFoundProductShouldBeAnsweredLocallyUntilTtl() {
+        ProductNotFoundException notFound = new ProductNotFoundException("Product not found: 5");
+        when(delegate.getProductById("5")).thenThrow(notFound);
+
+        ProductNotFoundException first = assertThrows(ProductNotFoundException.class, () -> client.getProductById("5"));
+        clock.advance(NOT_FOUND_TTL - 1);
+        ProductNotFoundException second = assertThrows(ProductNotFoundException.class, () -> client.getProductById("5"));
+
+        assertThat(second, not(sameInstance(first)));
+        assertThat(second.getMessage(), is(first.getMessage()));
+        verify(delegate, times(1)).getProductById("5");
+
+        clock.advance(1);
+        assertThrows(ProductNotFoundException.class, () -> client.getProductById("5"));
+        verify(delegate, times(2)).getProductById("5");
+        assertThat(client.hits(), is(1L));
+        assertThat(client.misses(), is(2L));
+    }
+
+    @Test
+    void upstreamErrorsShouldBeCachedForTheErrorTtl() {
+        when(delegate.getProductById("6")).thenThrow(HttpServerErrorException.create(HttpStatus.INTERNAL_SERVER_ERROR,
+                "Internal Server Error", null, null, null));
+
+        assertThrows(HttpServerErrorException.class, () -> client.getProductById("6"));
+        assertThrows(HttpServerErrorException.class, () -> client.getProductById("6"));
+        verify(delegate, times(1)).getProductById("6");
+
+        clock.advance(ERROR_TTL);
+        assertThrows(HttpServerErrorException.class, () -> client.getProductById("6"));
+        verify(delegate, times(2)).getProductById("6");
+    }
+
+    @Test
+    void circuitBreakerErrorsShouldBeAnsweredWithTheSameCause() {
+        CallNotPermittedException circuitOpen = CallNotPermittedException.createCallNotPermittedException(
+                CircuitBreaker.ofDefaults("productDetail"));
+        when(delegate.getProductById("6")).thenThrow(new CircuitBreakerException("circuit open", circuitOpen));
+
+        CircuitBreakerException first = assertThrows(CircuitBreakerException.class, () -> client.getProductById("6"));
+        CircuitBreakerException second = assertThrows(CircuitBreakerException.class, () -> client.getProductById("6"));
+
+        assertThat(second, not(sameInstance(first)));
+        assertThat(second.getCause(), sameInstance(circuitOpen));
+        verify(delegate, times(1)).getProductById("6");
+    }
+
+    @Test
+    void cancelledCallsShouldNotBeCached() {
+        when(delegate.getProductById("2")).thenThrow(new CircuitBreakerException("error fetching product 2",
+                new ResourceAccessException("I/O error", new InterruptedIOException())));
+        when(delegate.getProductById("3")).thenAnswer(invocation -> {
+            Thread.currentThread().interrupt();
+            throw new CircuitBreakerException("error fetching product 3");
+        });
+
+        assertThrows(CircuitBreakerException.class, () -> client.getProductById("2"));
+        assertThrows(CircuitBreakerException.class, () -> client.getProductById("2"));
+        assertThrows(CircuitBreakerException.class, () -> client.getProductById("3"));
+        assertThat(Thread.interrupted(), is(true));
+        assertThrows(CircuitBreakerException.class, () -> client.getProductById("3"));
+        Thread.interrupted();
+
+        verify(delegate, times(2)).getProductById("2");
+        verify(delegate, times(2)).getProductById("3");
+        assertThat(client.hits(), is(0L));
+    }
+
+    @Test
+    void otherErrorsShouldNotBeCached() {
+        when(delegate.getSimilarProductIds("1")).thenThrow(new IllegalStateException("Unexpected"));
+
+        assertThrows(IllegalStateException.class, () -> client.getSimilarProductIds("1"));
+        assertThrows(IllegalStateException.class, () -> client.getSimilarProductIds("1"));
+
+        verify(delegate, times(2)).getSimilarProductIds("1");
+    }
+
+    @Test
+    void successfulCallsShouldNotBeCached() {
+        when(delegate.getSimilarProductIds("1")).thenReturn(List.of("2", "3"));
+        when(delegate.getProductById("2")).thenReturn(buildProductDetails("2", "P2", 20.0, true));
+
+        client.getSimilarProductIds("1");
+        client.getSimilarProductIds("1");
+        client.getProductById("2");
+        client.getProductById("2");
+
+        verify(delegate, times(2)).getSimilarProductIds("1");
+        verify(delegate, times(2)).getProductById("2");
+        assertThat(meterRegistry.get("similar.products.negative.cache.gets").tag("result", "miss").functionCounter().count(), is(4.0));
+        assertThat(meterRegistry.get("similar.products.negative.cache.gets").tag("result", "hit").functionCounter().count(), is(0.0));
+    }
+
+    @Test
+    void operationsShouldBeCachedSeparately() {
+        when(delegate.getProductById("5")).thenThrow(new ProductNotFoundException("Product not found: 5"));
+        when(delegate.getSimilarProductIds("5")).thenReturn(List.of("1", "2", "6"));
+
+        assertThrows(ProductNotFoundException.class, () -> client.getProductById("5"));
+
+        assertThat(client.getSimilarProductIds("5"), contains("1", "2", "6"));
+    }
+}
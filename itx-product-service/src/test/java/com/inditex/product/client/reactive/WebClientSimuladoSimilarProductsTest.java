@@ -0,0 +1,153 @@
+package com.inditex.product.client.reactive;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.infrastructure.adapters.out.client.reactive.WebClientSimuladoSimilarProducts;
+import com.inditex.product.infrastructure.adapters.out.client.rest.RestSimuladoSimilarProducts;
+import com.inditex.product.shared.exception.CircuitBreakerException;
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Hooks;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WebClientSimuladoSimilarProductsTest {
+
+    private WireMockServer wireMockServer;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private BulkheadRegistry bulkheadRegistry;
+    private WebClientSimuladoSimilarProducts client;
+    private final List<Throwable> droppedErrors = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        wireMockServer = new WireMockServer(WireMockConfiguration.options().dynamicPort());
+        wireMockServer.start();
+        Hooks.onErrorDropped(droppedErrors::add);
+
+        WebClient webClient = WebClient.builder()
+                .baseUrl(wireMockServer.baseUrl())
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create()
+                        .responseTimeout(Duration.ofSeconds(1))))
+                .build();
+
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        client = new WebClientSimuladoSimilarProducts(webClient, webClient, circuitBreakerRegistry, bulkheadRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Hooks.resetOnErrorDropped();
+        wireMockServer.stop();
+    }
+
+    @Test
+    void getProductById_shouldReturnTheProduct() {
+        stubProduct("123", "{\"id\":\"123\",\"name\":\"Product 123\",\"price\":19.99,\"availability\":true}", 0);
+
+        ProductDetails details = client.getProductById("123").block();
+
+        assertThat(details, is(new ProductDetails("123", "Product 123", 19.99, true)));
+    }
+
+    @Test
+    void getSimilarProductIds_shouldReturnIdsFromArray() {
+        stubSimilarIds("123", "[\"234\",\"345\",\"456\"]");
+
+        assertThat(client.getSimilarProductIds("123").block(), contains("234", "345", "456"));
+    }
+
+    @Test
+    void getSimilarProductIds_shouldReturnEmptyListOnNoContent() {
+        wireMockServer.stubFor(get("/product/999/similarids").willReturn(aResponse().withStatus(204)));
+
+        assertThat(client.getSimilarProductIds("999").block(), is(empty()));
+    }
+
+    @Test
+    void notFoundShouldBeAProductNotFoundException() {
+        wireMockServer.stubFor(get("/product/404").willReturn(aResponse().withStatus(404)));
+
+        ProductNotFoundException e = assertThrows(ProductNotFoundException.class, () -> client.getProductById("404").block());
+
+        assertThat(e.getMessage(), is("Product not found: 404"));
+    }
+
+    @Test
+    void timeoutShouldBeACircuitBreakerFailure() {
+        stubProduct("2", "{\"id\":\"2\",\"name\":\"Dress\",\"price\":19.99,\"availability\":true}", 3000);
+
+        CircuitBreakerException e = assertThrows(CircuitBreakerException.class, () -> client.getProductById("2").block());
+
+        assertThat(e.getMessage(), is("There has been an error fetching product for id: 2"));
+        assertThat(circuitBreakerRegistry.circuitBreaker(RestSimuladoSimilarProducts.PRODUCT_DETAIL).getMetrics()
+                .getNumberOfFailedCalls(), is(1));
+        assertThat(droppedErrors, is(empty()));
+    }
+
+    @Test
+    void openProductDetailCircuitShouldNotAffectSimilarIds() {
+        stubSimilarIds("1", "[\"2\"]");
+        circuitBreakerRegistry.circuitBreaker(RestSimuladoSimilarProducts.PRODUCT_DETAIL).transitionToOpenState();
+
+        CircuitBreakerException e = assertThrows(CircuitBreakerException.class, () -> client.getProductById("2").block());
+
+        assertThat(e.getCause(), instanceOf(CallNotPermittedException.class));
+        assertThat(client.getSimilarProductIds("1").block(), contains("2"));
+    }
+
+    @Test
+    void saturatedProductDetailBulkheadShouldRejectOnlyProductDetailCalls() throws Exception {
+        stubSimilarIds("1", "[\"2\"]");
+        stubProduct("2", "{\"id\":\"2\",\"name\":\"Dress\",\"price\":19.99,\"availability\":true}", 200);
+
+        CompletableFuture<ProductDetails> slowCall = client.getProductById("2").toFuture();
+
+        CircuitBreakerException e = assertThrows(CircuitBreakerException.class, () -> client.getProductById("2").block());
+        assertThat(e.getCause(), instanceOf(BulkheadFullException.class));
+        assertThat(client.getSimilarProductIds("1").block(), contains("2"));
+        assertThat(slowCall.get(5, TimeUnit.SECONDS).id(), is("2"));
+    }
+
+    private void stubProduct(String productId, String body, int delayMillis) {
+        wireMockServer.stubFor(get("/product/" + productId)
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody(body)
+                        .withFixedDelay(delayMillis)));
+    }
+
+    private void stubSimilarIds(String productId, String body) {
+        wireMockServer.stubFor(get("/product/" + productId + "/similarids")
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody(body)));
+    }
+}
@@ -3,25 +3,40 @@ package com.inditex.product.client.rest;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.inditex.product.shared.deadline.RequestDeadline;
+import com.inditex.product.shared.exception.CircuitBreakerException;
+import com.inditex.product.shared.exception.DeadlineExceededException;
 import com.inditex.product.shared.exception.ProductNotFoundException;
 import com.inditex.product.domain.model.ProductDetails;
 import com.inditex.product.infrastructure.adapters.out.client.rest.RestSimuladoSimilarProducts;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.restclient.RestTemplateBuilder;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class RestSimuladoSimilarProductsTest {
 
     private WireMockServer wireMockServer;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private BulkheadRegistry bulkheadRegistry;
     private RestSimuladoSimilarProducts client;
 
     @BeforeEach
@@ -34,7 +49,12 @@ class RestSimuladoSimilarProductsTest {
                 .rootUri(wireMockServer.baseUrl())
                 .build();
 
-        client = new RestSimuladoSimilarProducts(restTemplate);
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        client = new RestSimuladoSimilarProducts(restTemplate, restTemplate, circuitBreakerRegistry, bulkheadRegistry);
     }
 
     @AfterEach
@@ -62,10 +82,10 @@ class RestSimuladoSimilarProductsTest {
         ProductDetails details = client.getProductById(productId);
 
         assertThat(details, notNullValue());
-        assertThat(details.getId(), is("123"));
-        assertThat(details.getName(), is("Product 123"));
-        assertThat(details.getPrice(), is(19.99));
-        assertThat(details.isAvailability(), is(true));
+        assertThat(details.id(), is("123"));
+        assertThat(details.name(), is("Product 123"));
+        assertThat(details.price(), is(19.99));
+        assertThat(details.availability(), is(true));
     }
 
     @Test
@@ -115,4 +135,89 @@ class RestSimuladoSimilarProductsTest {
         }
         throw new AssertionError("Expected ClientException to be thrown");
     }
-}
\ No newline at end of file
+
+    @Test
+    void getSimilarProductIds_shouldThrowNotFoundOnNotFound() {
+        String productId = "404";
+
+        wireMockServer.stubFor(get("/product/" + productId + "/similarids")
+                .willReturn(aResponse()
+                        .withStatus(404)));
+
+        ProductNotFoundException ex = assertThrows(ProductNotFoundException.class,
+                () -> client.getSimilarProductIds(productId));
+        assertThat(ex.getMessage(), containsString("Similar product ids not found for product: " + productId));
+    }
+
+    @Test
+    void openProductDetailCircuitShouldNotAffectSimilarIds() {
+        stubSimilarIds("1", "[\"2\"]");
+        circuitBreakerRegistry.circuitBreaker(RestSimuladoSimilarProducts.PRODUCT_DETAIL).transitionToOpenState();
+
+        CircuitBreakerException e = assertThrows(CircuitBreakerException.class, () -> client.getProductById("2"));
+
+        assertThat(e.getCause(), instanceOf(CallNotPermittedException.class));
+        assertThat(client.getSimilarProductIds("1"), contains("2"));
+    }
+
+    @Test
+    void saturatedProductDetailBulkheadShouldRejectOnlyProductDetailCalls() throws Exception {
+        stubSimilarIds("1", "[\"2\"]");
+        wireMockServer.stubFor(get("/product/2")
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"id\":\"2\",\"name\":\"Dress\",\"price\":19.99,\"availability\":true}")
+                        .withFixedDelay(500)));
+
+        CompletableFuture<ProductDetails> slowCall = CompletableFuture.supplyAsync(() -> client.getProductById("2"));
+        awaitBulkheadFull(RestSimuladoSimilarProducts.PRODUCT_DETAIL);
+
+        CircuitBreakerException e = assertThrows(CircuitBreakerException.class, () -> client.getProductById("2"));
+        assertThat(e.getCause(), instanceOf(BulkheadFullException.class));
+        assertThat(client.getSimilarProductIds("1"), contains("2"));
+        assertThat(slowCall.get(5, TimeUnit.SECONDS).id(), is("2"));
+    }
+
+    @Test
+    void callsCutShortByTheRequestDeadlineShouldNotCountAsCircuitBreakerFailures() {
+        wireMockServer.stubFor(get("/product/2")
+                .willReturn(aResponse()
+                        .withStatus(500)
+                        .withFixedDelay(300)));
+
+        assertThrows(DeadlineExceededException.class, () -> RequestDeadline.within(
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50), () -> client.getProductById("2")));
+
+        CircuitBreaker.Metrics metrics = circuitBreakerRegistry.circuitBreaker(RestSimuladoSimilarProducts.PRODUCT_DETAIL)
+                .getMetrics();
+        assertThat(metrics.getNumberOfFailedCalls(), is(0));
+        assertThat(metrics.getNumberOfBufferedCalls(), is(0));
+    }
+
+    @Test
+    void nothingShouldBeCalledOnceTheRequestDeadlineIsReached() {
+        stubSimilarIds("1", "[\"2\"]");
+
+        assertThrows(DeadlineExceededException.class, () -> RequestDeadline.within(
+                System.nanoTime() - 1, () -> client.getSimilarProductIds("1")));
+
+        wireMockServer.verify(0, WireMock.getRequestedFor(WireMock.anyUrl()));
+    }
+
+    private void stubSimilarIds(String productId, String body) {
+        wireMockServer.stubFor(get("/product/" + productId + "/similarids")
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody(body)));
+    }
+
+    private void awaitBulkheadFull(String name) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline
+                && bulkheadRegistry.bulkhead(name).getMetrics().getAvailableConcurrentCalls() > 0) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.inditex.product.service;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+
+/**
+ * Runs the service on virtual threads against a slow upstream while JFR records the {@code jdk.VirtualThreadPinned}
+ * events: a virtual thread blocking while pinned to its carrier (parked inside a {@code synchronized} block, or in a
+ * native frame) fails the test, with the stack traces of where it happened.
+ * <p>
+ * Its context is closed afterwards: the caches are created in the JVM's default JCache manager, so it can't be kept
+ * open along with the one of the Cucumber scenarios.
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+@DirtiesContext
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=true",
+        "product.cache.snapshot.enabled=false",
+        "product.hedging.enabled=true",
+        "product.hedging.delay=50"
+})
+class VirtualThreadPinningTest {
+
+    private static final int REQUESTS = 200;
+    private static final int CLIENTS = 50;
+
+    private static final WireMockServer simulado = startSimulado();
+
+    @LocalServerPort
+    private int port;
+
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    @DynamicPropertySource
+    static void simuladoProperties(DynamicPropertyRegistry registry) {
+        registry.add("simulado.api.host", () -> "http://localhost:" + simulado.port());
+    }
+
+    @AfterAll
+    static void stopSimulado() {
+        simulado.stop();
+    }
+
+    @Test
+    void slowUpstreamCallsShouldNotPinCarrierThreads() throws Exception {
+        // Classes are loaded and initialized (which may pin) before recording
+        request(0);
+
+        List<RecordedEvent> pinned;
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+            // Requests are made from platform threads, so only the service's virtual threads are recorded
+            ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+            try {
+                List<Future<?>> requests = new ArrayList<>();
+                for (int i = 1; i <= REQUESTS; i++) {
+                    int productId = i;
+                    requests.add(clients.submit(() -> request(productId)));
+                }
+                for (Future<?> request : requests) {
+                    request.get(30, TimeUnit.SECONDS);
+                }
+            } finally {
+                clients.shutdownNow();
+            }
+            recording.stop();
+            Path file = Files.createTempFile("pinning", ".jfr");
+            try {
+                recording.dump(file);
+                pinned = RecordingFile.readAllEvents(file);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        assertThat(pinned.stream().map(VirtualThreadPinningTest::describe).collect(Collectors.toList()), empty());
+    }
+
+    // Any status will do: load shedding or timeouts aren't what's being checked
+    private void request(int productId) {
+        try {
+            restTemplate.getForEntity("http://localhost:" + port + "/product/" + productId + "/similar", String.class);
+        } catch (HttpStatusCodeException e) {
+            // Ignored
+        }
+    }
+
+    private static String describe(RecordedEvent event) {
+        return event.getDuration().toMillis() + "ms pinned on " + event.getThread().getJavaName()
+                + (event.getStackTrace() == null ? "" : event.getStackTrace().getFrames().stream()
+                .map(frame -> "\n\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .collect(Collectors.joining()));
+    }
+
+    // Every product has 4 similar products of its own, so every request misses the caches, and each of them takes
+    // 100-200ms to be returned
+    private static WireMockServer startSimulado() {
+        WireMockServer server = new WireMockServer(WireMockConfiguration.options().dynamicPort());
+        server.start();
+        server.stubFor(get(urlPathMatching("/product/\\d+/similarids")).willReturn(aResponse()
+                .withHeader("Content-Type", "application/json")
+                .withBody("[\"1{{request.pathSegments.[1]}}1\",\"1{{request.pathSegments.[1]}}2\","
+                        + "\"1{{request.pathSegments.[1]}}3\",\"1{{request.pathSegments.[1]}}4\"]")
+                .withTransformers("response-template")
+                .withFixedDelay(20)));
+        server.stubFor(get(urlMatching("/product/\\d+")).willReturn(aResponse()
+                .withHeader("Content-Type", "application/json")
+                .withBody("{\"id\":\"{{request.pathSegments.[1]}}\",\"name\":\"Product\",\"price\":9.99,"
+                        + "\"availability\":true}")
+                .withTransformers("response-template")
+                .withUniformRandomDelay(100, 200)));
+        return server;
+    }
+}
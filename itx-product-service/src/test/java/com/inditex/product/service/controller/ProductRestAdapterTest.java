@@ -1,44 +1,88 @@
 package com.inditex.product.service.controller;
 
 import com.inditex.product.application.ports.input.SimilarProductsUseCase;
+import com.inditex.product.domain.model.PartialSimilarProducts;
+import com.inditex.product.domain.model.PartialSimilarProducts.Omission;
 import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.domain.model.SimilarProductsResult;
 import com.inditex.product.infrastructure.adapters.in.ProductRestAdapter;
-import com.inditex.product.infrastructure.adapters.in.dto.ProductDetailsDTO;
+import com.inditex.product.infrastructure.adapters.in.RequestTimeouts;
+import com.inditex.product.infrastructure.adapters.cache.ProductDetailsCache;
+import com.inditex.product.infrastructure.adapters.cache.SimilarProductsCache;
+import com.inditex.product.infrastructure.adapters.cache.TieredCache.InvalidationListener;
+import com.inditex.product.infrastructure.adapters.in.SimilarProductsResponses;
 import com.inditex.product.infrastructure.adapters.in.exception.RestAdapterExceptionHandler;
+import com.inditex.product.shared.deadline.RequestDeadline;
+import com.inditex.product.shared.exception.DeadlineExceededException;
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
+import static com.inditex.product.domain.model.PartialSimilarProducts.complete;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 class ProductRestAdapterTest {
 
     private static final String PRODUCT_ID = "123";
+    private static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
 
     @Mock
     private SimilarProductsUseCase similarProductsUseCase;
+    @Mock
+    private SimilarProductsCache similarProductsCache;
+    @Mock
+    private ProductDetailsCache productDetailsCache;
 
+    private SimpleMeterRegistry meterRegistry;
     private ProductRestAdapter testee;
     private MockMvc mockMvc;
 
     @BeforeEach
     void beforeEach() {
-        this.testee = new ProductRestAdapter(similarProductsUseCase);
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.testee = adapter(true, 60, 0);
         mockMvc = MockMvcBuilders.standaloneSetup(testee)
                 .setControllerAdvice(new RestAdapterExceptionHandler())
                 .build();
@@ -54,23 +98,354 @@ class ProductRestAdapterTest {
 
     @Test
     void shouldReturnSimilarProducts() {
-        List<ProductDetails> productDetailsList = List.of(new ProductDetails() {{
-            setId("234");
-            setName("Product 2");
-            setPrice(100.0);
-            setAvailability(true);
-        }});
-        given(similarProductsUseCase.getSimilarProducts(PRODUCT_ID)).willReturn(productDetailsList);
-        final ResponseEntity<List<ProductDetailsDTO>> similarProducts = testee.getSimilarProducts(PRODUCT_ID);
+        List<ProductDetails> productDetailsList = List.of(new ProductDetails("234", "Product 2", 100.0, true));
+        given(similarProductsUseCase.getPartialSimilarProducts(PRODUCT_ID)).willReturn(complete(productDetailsList));
+        final ResponseEntity<byte[]> similarProducts = testee.getSimilarProducts(PRODUCT_ID, null, null, null);
 
-        then(similarProductsUseCase).should().getSimilarProducts(PRODUCT_ID);
+        then(similarProductsUseCase).should().getPartialSimilarProducts(PRODUCT_ID);
 
         assertThat(similarProducts.getBody(), notNullValue());
-        assertThat(similarProducts.getBody().size(), is(1));
-        ProductDetailsDTO dto = similarProducts.getBody().get(0);
-        assertThat(dto.getId(), is("234"));
-        assertThat(dto.getName(), is("Product 2"));
-        assertThat(dto.getPrice(), is(100.0));
-        assertThat(dto.isAvailability(), is(true));
-    }
-}
\ No newline at end of file
+        ProductDetails[] products = JSON_MAPPER.readValue(similarProducts.getBody(), ProductDetails[].class);
+        assertThat(products.length, is(1));
+        ProductDetails product = products[0];
+        assertThat(product.id(), is("234"));
+        assertThat(product.name(), is("Product 2"));
+        assertThat(product.price(), is(100.0));
+        assertThat(product.availability(), is(true));
+    }
+
+    @Test
+    void shouldLookUpTheSimilarProductsWithinTheRequestTimeout() throws Exception {
+        long[] remainingMillis = new long[1];
+        given(similarProductsUseCase.getPartialSimilarProducts(PRODUCT_ID)).willAnswer(invocation -> {
+            remainingMillis[0] = TimeUnit.NANOSECONDS.toMillis(RequestDeadline.remainingNanos());
+            return complete(List.of(product("2")));
+        });
+
+        mockMvc.perform(get("/product/123/similar").header(RequestTimeouts.REQUEST_TIMEOUT, "500"))
+                .andExpect(status().isOk());
+
+        assertThat(remainingMillis[0], is(both(greaterThan(0L)).and(lessThanOrEqualTo(500L))));
+    }
+
+    @Test
+    void shouldLookUpTheSimilarProductsWithinTheDefaultTimeoutCappingTheRequestedOne() throws Exception {
+        long[] remainingMillis = new long[2];
+        int[] calls = {0};
+        given(similarProductsUseCase.getPartialSimilarProducts(PRODUCT_ID)).willAnswer(invocation -> {
+            remainingMillis[calls[0]++] = TimeUnit.NANOSECONDS.toMillis(RequestDeadline.remainingNanos());
+            return complete(List.of(product("2")));
+        });
+
+        mockMvc.perform(get("/product/123/similar"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/product/123/similar").header(RequestTimeouts.REQUEST_TIMEOUT, "60000"))
+                .andExpect(status().isOk());
+
+        assertThat(remainingMillis[0], is(both(greaterThan(2_000L)).and(lessThanOrEqualTo(3_000L))));
+        assertThat(remainingMillis[1], is(both(greaterThan(9_000L)).and(lessThanOrEqualTo(10_000L))));
+    }
+
+    @Test
+    void shouldReturnBadRequestWhenTheRequestTimeoutIsInvalid() throws Exception {
+        mockMvc.perform(get("/product/123/similar").header(RequestTimeouts.REQUEST_TIMEOUT, "soon"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid X-Request-Timeout"));
+        verifyNoInteractions(similarProductsUseCase);
+    }
+
+    @Test
+    void shouldReturnGatewayTimeoutWhenTheDeadlineIsExceeded() throws Exception {
+        given(similarProductsUseCase.getPartialSimilarProducts(PRODUCT_ID))
+                .willThrow(new DeadlineExceededException("Deadline exceeded calling the product service"));
+
+        mockMvc.perform(get("/product/123/similar").header(RequestTimeouts.REQUEST_TIMEOUT, "100"))
+                .andExpect(status().isGatewayTimeout());
+    }
+
+    @Test
+    void shouldTellTheOmittedProductsOfAPartialResponseWithoutCachingIt() throws Exception {
+        Map<String, Omission> omitted = new LinkedHashMap<>();
+        omitted.put("5", Omission.MISSING);
+        omitted.put("6", Omission.SLOW);
+        omitted.put("7", Omission.SLOW);
+        given(similarProductsUseCase.getPartialSimilarProducts(PRODUCT_ID))
+                .willReturn(new PartialSimilarProducts(List.of(product("2")), omitted));
+
+        mockMvc.perform(get("/product/123/similar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("2"))
+                .andExpect(header().string(ProductRestAdapter.OMITTED_PRODUCTS, "3"))
+                .andExpect(header().string(ProductRestAdapter.OMITTED_REASONS, "missing=1, slow=2"))
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
+    @Test
+    void shouldNotTellOmittedProductsOfACompleteResponse() throws Exception {
+        given(similarProductsUseCase.getPartialSimilarProducts(PRODUCT_ID)).willReturn(complete(List.of(product("2"))));
+
+        mockMvc.perform(get("/product/123/similar"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(ProductRestAdapter.OMITTED_PRODUCTS))
+                .andExpect(header().exists("ETag"));
+    }
+
+    @Test
+    void shouldReturnTheStatusOfEveryProductOfABatch() throws Exception {
+        Map<String, SimilarProductsResult> results = new LinkedHashMap<>();
+        results.put("1", SimilarProductsResult.success(List.of(product("2"))));
+        results.put("404", SimilarProductsResult.failure(new ProductNotFoundException("Product not found: 404")));
+        results.put("5", SimilarProductsResult.failure(new DeadlineExceededException("Deadline exceeded looking up product 50")));
+        given(similarProductsUseCase.getSimilarProducts(List.of("1", "404", "5"))).willReturn(results);
+
+        mockMvc.perform(get("/product/similar").param("productIds", "1,invalid,404,5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.1.status").value(200))
+                .andExpect(jsonPath("$.1.products[0].id").value("2"))
+                .andExpect(jsonPath("$.invalid.status").value(400))
+                .andExpect(jsonPath("$.invalid.error").value("Invalid productId"))
+                .andExpect(jsonPath("$.404.status").value(404))
+                .andExpect(jsonPath("$.5.status").value(504));
+    }
+
+    @Test
+    void shouldReturnBadRequestWhenBatchIsEmpty() throws Exception {
+        mockMvc.perform(get("/product/similar"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Missing productIds"));
+        verifyNoInteractions(similarProductsUseCase);
+    }
+
+    @Test
+    void shouldReturnJsonUnlessStreamingIsAccepted() throws Exception {
+        given(similarProductsUseCase.getPartialSimilarProducts(PRODUCT_ID)).willReturn(complete(List.of(product("2"))));
+
+        mockMvc.perform(get("/product/123/similar"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/json"))
+                .andExpect(content().string("""
+                        [{"availability":false,"id":"2","name":"Product 2","price":9.99}]"""));
+    }
+
+    @Test
+    void shouldReturnAnETagAndTheCacheControl() throws Exception {
+        given(similarProductsUseCase.getPartialSimilarProducts(PRODUCT_ID)).willReturn(complete(List.of(product("2"))));
+
+        mockMvc.perform(get("/product/123/similar"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", matchesPattern("\"[\\w-]{22}\"")))
+                .andExpect(header().string("Cache-Control", "max-age=60"));
+    }
+
+    @Test
+    void shouldReturnNotModifiedWhenTheETagMatches() throws Exception {
+        List<ProductDetails> products = List.of(product("2"));
+        given(similarProductsUseCase.getPartialSimilarProducts(PRODUCT_ID)).willReturn(complete(products));
+        String etag = mockMvc.perform(get("/product/123/similar")).andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/product/123/similar").header("If-None-Match", "\"other\", W/" + etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(header().string("Cache-Control", "max-age=60"))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void shouldReturnTheProductsWhenTheyChanged() throws Exception {
+        given(similarProductsUseCase.getPartialSimilarProducts(PRODUCT_ID)).willReturn(complete(List.of(product("2"))));
+        String etag = mockMvc.perform(get("/product/123/similar")).andReturn().getResponse().getHeader("ETag");
+        ProductDetails changed = new ProductDetails("2", "Product 2", 10.0, false);
+        given(similarProductsUseCase.getPartialSimilarProducts(PRODUCT_ID)).willReturn(complete(List.of(changed)));
+
+        mockMvc.perform(get("/product/123/similar").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$[0].price").value(10.0));
+    }
+
+    @Test
+    void shouldAllowSharedCachesWhenASharedMaxAgeIsSet() throws Exception {
+        ProductRestAdapter adapter = adapter(true, 30, 600);
+        given(similarProductsUseCase.getPartialSimilarProducts(PRODUCT_ID)).willReturn(complete(List.of(product("2"))));
+
+        ResponseEntity<byte[]> response = adapter.getSimilarProducts(PRODUCT_ID, null, null, null);
+
+        assertThat(response.getHeaders().getCacheControl(), is("max-age=30, public, s-maxage=600"));
+    }
+
+    @Test
+    void shouldSerializeTheResponseOnceWhileTheProductsDoNotChange() throws Exception {
+        given(similarProductsUseCase.getPartialSimilarProducts(PRODUCT_ID))
+                .willReturn(complete(List.of(product("2"))))
+                // Read again from the off-heap cache: other instances, same content
+                .willReturn(complete(List.of(product("2"))));
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/product/123/similar"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].id").value("2"));
+        }
+
+        assertThat(serializations(), is(1L));
+    }
+
+    @Test
+    void shouldSerializeTheResponseEveryTimeUnlessBodiesAreCached() throws Exception {
+        ProductRestAdapter adapter = adapter(false, 60, 0);
+        given(similarProductsUseCase.getPartialSimilarProducts(PRODUCT_ID)).willReturn(complete(List.of(product("2"))));
+
+        adapter.getSimilarProducts(PRODUCT_ID, null, null, null);
+        ResponseEntity<byte[]> response = adapter.getSimilarProducts(PRODUCT_ID, null, "gzip", null);
+
+        assertThat(serializations(), is(2L));
+        assertThat(response.getHeaders().getFirst("Content-Encoding"), is((String) null));
+    }
+
+    @Test
+    void shouldReturnTheGzippedBodyWhenAccepted() throws Exception {
+        given(similarProductsUseCase.getPartialSimilarProducts(PRODUCT_ID)).willReturn(complete(List.of(product("2"))));
+        String json = mockMvc.perform(get("/product/123/similar")).andReturn().getResponse().getContentAsString();
+
+        byte[] gzipped = mockMvc.perform(get("/product/123/similar").header("Accept-Encoding", "deflate, gzip;q=0.5"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andExpect(header().string("ETag", matchesPattern("W/\"[\\w-]{22}\"")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(gunzip(gzipped), is(json));
+        assertThat(serializations(), is(1L));
+    }
+
+    @Test
+    void shouldNotGzipTheBodyWhenRejected() throws Exception {
+        given(similarProductsUseCase.getPartialSimilarProducts(PRODUCT_ID)).willReturn(complete(List.of(product("2"))));
+
+        mockMvc.perform(get("/product/123/similar").header("Accept-Encoding", "gzip;q=0, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$[0].id").value("2"));
+    }
+
+    @Test
+    void shouldNotGzipTheBodyWhenRejectedAheadOfAWildcard() throws Exception {
+        given(similarProductsUseCase.getPartialSimilarProducts(PRODUCT_ID)).willReturn(complete(List.of(product("2"))));
+
+        mockMvc.perform(get("/product/123/similar").header("Accept-Encoding", "gzip;q=0, *"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$[0].id").value("2"));
+    }
+
+    @Test
+    void anExplicitGzipEntryShouldWinOverTheWildcard() {
+        assertThat(SimilarProductsResponses.acceptsGzip("gzip;q=0, *"), is(false));
+        assertThat(SimilarProductsResponses.acceptsGzip("*, gzip;q=0"), is(false));
+        assertThat(SimilarProductsResponses.acceptsGzip("gzip;q=0.5, *;q=0"), is(true));
+        assertThat(SimilarProductsResponses.acceptsGzip("br, *"), is(true));
+        assertThat(SimilarProductsResponses.acceptsGzip("br, *;q=0"), is(false));
+    }
+
+    @Test
+    void shouldBuildTheResponseAgainWhenTheCachedProductsAreEvicted() throws Exception {
+        ArgumentCaptor<InvalidationListener> listener = ArgumentCaptor.forClass(InvalidationListener.class);
+        verify(productDetailsCache).addInvalidationListener(listener.capture());
+        given(similarProductsUseCase.getPartialSimilarProducts(PRODUCT_ID)).willReturn(complete(List.of(product("2"))));
+
+        mockMvc.perform(get("/product/123/similar")).andExpect(status().isOk());
+        listener.getValue().evicted("2");
+        mockMvc.perform(get("/product/123/similar")).andExpect(status().isOk());
+
+        assertThat(serializations(), is(2L));
+    }
+
+    @Test
+    void shouldStreamProductsAsNdjsonEndingWithTheFailures() throws Exception {
+        givenStreamedProducts(Map.of("3", new ProductNotFoundException("Product not found: 3")), "1", "2");
+
+        MvcResult result = mockMvc.perform(get("/product/123/similar").accept(ProductRestAdapter.APPLICATION_NDJSON_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", ProductRestAdapter.APPLICATION_NDJSON_VALUE))
+                .andExpect(content().string("""
+                        {"availability":false,"id":"1","name":"Product 1","price":9.99}
+                        {"availability":false,"id":"2","name":"Product 2","price":9.99}
+                        {"failures":[{"error":"Product not found: 3","id":"3","status":404}]}
+                        """));
+    }
+
+    @Test
+    void shouldStreamProductsAsServerSentEvents() throws Exception {
+        givenStreamedProducts(Map.of(), "1");
+
+        MvcResult result = mockMvc.perform(get("/product/123/similar").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("""
+                        event: product
+                        data: {"availability":false,"id":"1","name":"Product 1","price":9.99}
+
+                        event: complete
+                        data: {"failures":[]}
+
+                        """));
+    }
+
+    @Test
+    void shouldReturnBadRequestBeforeStreamingWhenProductIdIsInvalid() throws Exception {
+        mockMvc.perform(get("/product/invalid/similar").accept(ProductRestAdapter.APPLICATION_NDJSON_VALUE))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(similarProductsUseCase);
+    }
+
+    @Test
+    void shouldReturnNotFoundWhenTheStreamedProductIsNotFound() throws Exception {
+        given(similarProductsUseCase.streamSimilarProducts(eq(PRODUCT_ID), any()))
+                .willThrow(new ProductNotFoundException("Product not found: 123"));
+
+        MvcResult result = mockMvc.perform(get("/product/123/similar").accept(ProductRestAdapter.APPLICATION_NDJSON_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+
+    private ProductRestAdapter adapter(boolean cacheBodies, long maxAge, long sharedMaxAge) {
+        SimilarProductsResponses responses = new SimilarProductsResponses(similarProductsCache, productDetailsCache, 100,
+                cacheBodies, 0);
+        return new ProductRestAdapter(similarProductsUseCase, JSON_MAPPER, meterRegistry, responses,
+                new RequestTimeouts(3000, 10000), maxAge, sharedMaxAge);
+    }
+
+    private long serializations() {
+        return meterRegistry.get("similar.products.response").tag("stage", "serialization").timer().count();
+    }
+
+    private static String gunzip(byte[] gzipped) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private void givenStreamedProducts(Map<String, RuntimeException> failures, String... productIds) {
+        given(similarProductsUseCase.streamSimilarProducts(eq(PRODUCT_ID), any())).willAnswer(invocation -> {
+            Consumer<ProductDetails> consumer = invocation.getArgument(1);
+            for (String productId : productIds) {
+                consumer.accept(product(productId));
+            }
+            return failures;
+        });
+    }
+
+    private static ProductDetails product(String id) {
+        return new ProductDetails(id, "Product " + id, 9.99, false);
+    }
+}
@@ -0,0 +1,116 @@
+package com.inditex.product.service.controller;
+
+import com.inditex.product.application.ports.input.ReactiveSimilarProductsUseCase;
+import com.inditex.product.domain.model.ProductDetails;
+import com.inditex.product.infrastructure.adapters.cache.ProductDetailsCache;
+import com.inditex.product.infrastructure.adapters.cache.SimilarProductsCache;
+import com.inditex.product.infrastructure.adapters.in.ReactiveProductRestAdapter;
+import com.inditex.product.infrastructure.adapters.in.RequestTimeouts;
+import com.inditex.product.infrastructure.adapters.in.SimilarProductsResponses;
+import com.inditex.product.infrastructure.adapters.in.exception.RestAdapterExceptionHandler;
+import com.inditex.product.shared.exception.CircuitBreakerException;
+import com.inditex.product.shared.exception.ProductNotFoundException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+// The response itself is built by the same SimilarProductsResponses as the servlet one, see ProductRestAdapterTest
+@ExtendWith(MockitoExtension.class)
+class ReactiveProductRestAdapterTest {
+
+    private static final String PRODUCT_ID = "123";
+
+    @Mock
+    private ReactiveSimilarProductsUseCase similarProductsUseCase;
+    @Mock
+    private SimilarProductsCache similarProductsCache;
+    @Mock
+    private ProductDetailsCache productDetailsCache;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void beforeEach() {
+        SimilarProductsResponses responses = new SimilarProductsResponses(similarProductsCache, productDetailsCache, 100,
+                true, 0);
+        ReactiveProductRestAdapter testee = new ReactiveProductRestAdapter(similarProductsUseCase,
+                JsonMapper.builder().build(), new SimpleMeterRegistry(), responses, new RequestTimeouts(3000, 10000),
+                60, 0);
+        webTestClient = WebTestClient.bindToController(testee)
+                .controllerAdvice(new RestAdapterExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void shouldReturnSimilarProductsWithAnETagAndTheCacheControl() {
+        given(similarProductsUseCase.getSimilarProducts(PRODUCT_ID)).willReturn(Mono.just(List.of(product("2"))));
+
+        webTestClient.get().uri("/product/123/similar")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType("application/json")
+                .expectHeader().value("ETag", matchesPattern("\"[\\w-]{22}\""))
+                .expectHeader().valueEquals("Cache-Control", "max-age=60")
+                .expectBody(String.class).isEqualTo("""
+                        [{"availability":false,"id":"2","name":"Product 2","price":9.99}]""");
+    }
+
+    @Test
+    void shouldReturnNotModifiedWhenTheETagMatches() {
+        given(similarProductsUseCase.getSimilarProducts(PRODUCT_ID)).willReturn(Mono.just(List.of(product("2"))));
+        String etag = webTestClient.get().uri("/product/123/similar")
+                .exchange()
+                .returnResult(byte[].class)
+                .getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/product/123/similar")
+                .header("If-None-Match", etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", etag);
+    }
+
+    @Test
+    void shouldReturnBadRequestWhenProductIdIsInvalid() {
+        webTestClient.get().uri("/product/invalid/similar")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Invalid productId");
+        verifyNoInteractions(similarProductsUseCase);
+    }
+
+    @Test
+    void shouldMapErrorsLikeTheServletAdapter() {
+        given(similarProductsUseCase.getSimilarProducts("404"))
+                .willReturn(Mono.error(new ProductNotFoundException("Product not found: 404")));
+        given(similarProductsUseCase.getSimilarProducts("503")).willReturn(Mono.error(new CircuitBreakerException(
+                "Similar product service temporarily unavailable (circuit open)",
+                CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("test")))));
+
+        webTestClient.get().uri("/product/404/similar")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody(String.class).isEqualTo("Product not found: 404");
+        webTestClient.get().uri("/product/503/similar")
+                .exchange()
+                .expectStatus().isEqualTo(503);
+    }
+
+    private static ProductDetails product(String id) {
+        return new ProductDetails(id, "Product " + id, 9.99, false);
+    }
+}
@@ -54,3 +54,40 @@ Feature: Get Similar Products
     When I search by product ID "INVALID_ID"
     Then the response status is "BAD_REQUEST"
     Then the result contains error "Invalid productId"
+
+
+  Scenario: Publishes the metrics of every stage in Prometheus format
+    Given there are the following products
+      | id | name   | price  | availability |
+      | 1  | Shirt  | 9.99   | true         |
+      | 2  | Dress  | 19.99  | true         |
+    And products the following similar products
+      | id | similar |
+      | 1  | 2  |
+    When I search by product ID "1"
+    Then the response status is "OK"
+    And the Prometheus metrics include
+      | metric                                                    |
+      | similar_products_upstream_seconds_bucket                  |
+      | similar_products_fanout_seconds_count                     |
+      | similar_products_fanout_width_count                       |
+      | similar_products_response_seconds_count                   |
+      | cache_gets_total                                          |
+      | cache_evictions_total                                     |
+      | resilience4j_circuitbreaker_state                         |
+      | httpcomponents_httpclient_pool_total_connections          |
+      | httpcomponents_httpclient_pool_total_pending              |
+
+
+  Scenario: Warms the caches up through the actuator before reporting ready
+    Given there are the following products
+      | id | name   | price  | availability |
+      | 11 | Shirt  | 9.99   | true         |
+      | 12 | Dress  | 19.99  | true         |
+    And products the following similar products
+      | id | similar |
+      | 11 | 12 |
+    When I warm the caches up with product IDs "11,12"
+    Then the warm-up warms 1 and fails 1 product IDs
+    And the readiness probe is "UP"
+    And the warm-up can't be started on the API port